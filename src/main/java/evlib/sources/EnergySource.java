@@ -1,20 +1,24 @@
 package evlib.sources;
 
-import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class EnergySource
 {
+    private static final int INITIAL_CAPACITY = 16;
     private int id;
     private static final AtomicInteger idGenerator = new AtomicInteger(0);
-    private final ArrayList<Double> energyAmount;
+    private double[] energyAmount;
+    private int head;
+    private int size;
+    private volatile PackageSource supply;
+    private volatile ProductionModel model;
 
     /**
      * Constructor of a new EnergySource object without energy packages.
      */
     public EnergySource() {
         this.id = idGenerator.incrementAndGet();
-        this.energyAmount = new ArrayList<>();
+        this.energyAmount = new double[INITIAL_CAPACITY];
     }
 
     /**
@@ -23,27 +27,150 @@ public abstract class EnergySource
      */
     public EnergySource(final double[] energyAmoun) {
       this.id = idGenerator.incrementAndGet();
-      this.energyAmount = new ArrayList<>();
-      for (double anEnergyAmoun : energyAmoun)
-          energyAmount.add(anEnergyAmoun);
+      this.energyAmount = new double[Math.max(INITIAL_CAPACITY, energyAmoun.length)];
+      System.arraycopy(energyAmoun, 0, energyAmount, 0, energyAmoun.length);
+      this.size = energyAmoun.length;
     }
 
     /**
-     * @return The first package of energy to be given to the EnergySource.
+     * Constructor of EnergySource which takes its energy packages from a PackageSource, e.g. an EnergyTrace.
+     * The packages are taken one by one, when they are popped.
+     * @param sup The PackageSource.
      */
-    public double popAmount() {
-         if ((energyAmount == null) || (energyAmount.size() == 0))
-             return 0;
-         else
-             return energyAmount.remove(0);
+    public EnergySource(final PackageSource sup) {
+        this();
+        this.supply = sup;
+    }
+
+    /**
+     * Constructor of EnergySource whose energy packages are computed by a ProductionModel, at the time
+     * each package is popped.
+     * @param mod The ProductionModel.
+     */
+    public EnergySource(final ProductionModel mod) {
+        this();
+        this.model = mod;
+    }
+
+    /**
+     * @return The first package of energy to be given to the EnergySource, with the production of the model
+     * evaluated at the current wall time. It is final, since the station calls popAmount(long) with the time of
+     * its clock: a subclass which gives its own packages overrides popAmount(long) instead.
+     */
+    public final double popAmount() {
+        return popAmount(System.currentTimeMillis());
+    }
+
+    /**
+     * @param time The time of the storage update in milliseconds, e.g. the time of the station clock.
+     * @return The first package of energy to be given to the EnergySource. The inserted packages are given
+     * first, then the packages of the PackageSource, if any, and then the production of the model at the given time.
+     * This is the function the ChargingStation calls in each storage update, so a subclass may override it.
+     */
+    public synchronized double popAmount(final long time) {
+         if (size == 0) {
+             PackageSource p = supply;
+             if (p != null && p.hasNext())
+                 return p.next();
+             ProductionModel m = model;
+             return m != null ? m.getAmount(time) : 0;
+         }
+         double am = energyAmount[head];
+         head = (head + 1) % energyAmount.length;
+         --size;
+         return am;
+    }
+
+    /**
+     * Removes the first packages of energy, in the order they were inserted.
+     * @param n The maximum number of packages to be removed.
+     * @return An array with the removed packages. It is shorter than n, if there are fewer packages.
+     */
+    public synchronized double[] drainAmounts(final int n) {
+        int count = Math.max(0, Math.min(n, size));
+        double[] drained = new double[count];
+        int first = Math.min(count, energyAmount.length - head);
+        System.arraycopy(energyAmount, head, drained, 0, first);
+        System.arraycopy(energyAmount, 0, drained, first, count - first);
+        head = (head + count) % energyAmount.length;
+        size -= count;
+        return drained;
     }
 
     /**
      * Inserts a package of energy to the queue for update of the storage.
      * @param am The package's amount of energy.
      */
-    public void insertAmount(final double am) {
-         energyAmount.add(am);
+    public synchronized void insertAmount(final double am) {
+         ensureCapacity(size + 1);
+         energyAmount[(head + size) % energyAmount.length] = am;
+         ++size;
+    }
+
+    /**
+     * Inserts many packages of energy to the queue for update of the storage, keeping their order.
+     * @param amounts The packages' amounts of energy.
+     */
+    public synchronized void insertAmounts(final double[] amounts) {
+        ensureCapacity(size + amounts.length);
+        int tail = (head + size) % energyAmount.length;
+        int first = Math.min(amounts.length, energyAmount.length - tail);
+        System.arraycopy(amounts, 0, energyAmount, tail, first);
+        System.arraycopy(amounts, first, energyAmount, 0, amounts.length - first);
+        size += amounts.length;
+    }
+
+    /**
+     * @return The number of packages waiting to be given to the station.
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * Grows the ring buffer, if it cannot hold the given number of packages. The packages are moved to
+     * the start of the new array.
+     * @param capacity The number of packages to be held.
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= energyAmount.length)
+            return;
+        double[] grown = new double[Math.max(capacity, energyAmount.length * 2)];
+        int first = Math.min(size, energyAmount.length - head);
+        System.arraycopy(energyAmount, head, grown, 0, first);
+        System.arraycopy(energyAmount, 0, grown, first, size - first);
+        energyAmount = grown;
+        head = 0;
+    }
+
+    /**
+     * Sets the PackageSource the EnergySource takes its packages from, after the inserted packages.
+     * @param sup The PackageSource, or null for none.
+     */
+    public void setPackageSource(final PackageSource sup) {
+        this.supply = sup;
+    }
+
+    /**
+     * @return The PackageSource of the EnergySource, or null if there is not any.
+     */
+    public PackageSource getPackageSource() {
+        return supply;
+    }
+
+    /**
+     * Sets the ProductionModel which computes the packages, when there are no inserted or traced packages.
+     * @param mod The ProductionModel, or null for none.
+     */
+    public void setModel(final ProductionModel mod) {
+        this.model = mod;
+    }
+
+    /**
+     * @return The ProductionModel of the EnergySource, or null if there is not any.
+     */
+    public ProductionModel getModel() {
+        return model;
     }
 
     /**
@@ -0,0 +1,170 @@
+package evlib.sources;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class EnergyTrace implements PackageSource, Closeable {
+    /**
+     * The magic number at the start of a trace file.
+     */
+    public static final int MAGIC = 0x45565452;
+    public static final int VERSION = 1;
+    /**
+     * The size of the header in bytes: the magic number, the version and the number of packages.
+     */
+    public static final int HEADER = 16;
+    private static final long WINDOW = 1L << 24;
+    private final FileChannel channel;
+    private final long count;
+    private long position;
+    private long windowStart;
+    private MappedByteBuffer window;
+
+    /**
+     * Opens a trace file. The file holds a header and then the energy packages as little-endian doubles.
+     * The packages are read lazily, through a memory-mapped window that moves along the file.
+     * @param filePath The path of the trace file.
+     * @throws IOException If the file cannot be opened or it is not a trace file.
+     */
+    public EnergyTrace(final String filePath) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining())
+                if (channel.read(header) == -1)
+                    throw new IOException("Not an energy trace: " + filePath);
+            ((Buffer) header).flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION)
+                throw new IOException("Not an energy trace: " + filePath);
+            this.count = header.getLong();
+            if (count < 0 || count > (channel.size() - HEADER) / 8)
+                throw new IOException("Truncated energy trace: " + filePath);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return True if there are packages which have not been read.
+     */
+    public synchronized boolean hasNext() {
+        return position < count;
+    }
+
+    /**
+     * Reads the next package of the trace.
+     * @return The amount of energy of the package, or 0 if the trace has ended.
+     * @throws UncheckedIOException If the file cannot be mapped.
+     */
+    public synchronized double next() {
+        if (position >= count)
+            return 0;
+        if (window == null || position >= windowStart + WINDOW) {
+            windowStart = position;
+            long size = Math.min(WINDOW, count - position) * 8;
+            try {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + windowStart * 8, size);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return window.getDouble((int) ((position++ - windowStart) * 8));
+    }
+
+    /**
+     * @return The number of packages in the trace.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The number of packages which have not been read.
+     */
+    public synchronized long getRemaining() {
+        return count - position;
+    }
+
+    /**
+     * Closes the file of the trace. The packages which have not been read are lost.
+     * @throws IOException If the closing fails.
+     */
+    public synchronized void close() throws IOException {
+        window = null;
+        position = count;
+        channel.close();
+    }
+
+    /**
+     * Converts a CSV file to a trace file. Each line gives one package, which is the last value of the line, so
+     * both "amount" and "timestamp,amount" lines are accepted. Empty lines, lines starting with '#' and a header
+     * in the first line are skipped.
+     * @param csvPath The path of the CSV file.
+     * @param tracePath The path of the trace file. It is created, or truncated if it exists. The magic number is
+     * written last, so if the conversion fails the trace file is deleted and a partial file is never taken for a trace.
+     * @return The number of packages written.
+     * @throws IOException If a file cannot be read or written, or a line has not a number in its last value.
+     */
+    public static long convert(final String csvPath, final String tracePath) throws IOException {
+        Path target = Paths.get(tracePath);
+        long written = 0;
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(csvPath), StandardCharsets.UTF_8)) {
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(0).putInt(VERSION).putLong(0);
+                String line;
+                int lineNumber = 0;
+                while ((line = in.readLine()) != null) {
+                    ++lineNumber;
+                    line = line.trim();
+                    if (line.isEmpty() || line.charAt(0) == '#')
+                        continue;
+                    String value = line.substring(line.lastIndexOf(',') + 1).trim();
+                    double amount;
+                    try {
+                        amount = Double.parseDouble(value);
+                    } catch (NumberFormatException ex) {
+                        if (lineNumber == 1)
+                            continue;
+                        throw new IOException(csvPath + ":" + lineNumber + ": not a number: " + value);
+                    }
+                    if (!buffer.hasRemaining()) {
+                        ((Buffer) buffer).flip();
+                        while (buffer.hasRemaining())
+                            out.write(buffer);
+                        ((Buffer) buffer).clear();
+                    }
+                    buffer.putDouble(amount);
+                    ++written;
+                }
+                ((Buffer) buffer).flip();
+                while (buffer.hasRemaining())
+                    out.write(buffer);
+                ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putLong(written);
+                ((Buffer) header).flip();
+                while (header.hasRemaining())
+                    out.write(header, header.position());
+            } catch (IOException ex) {
+                Files.deleteIfExists(target);
+                throw ex;
+            }
+        }
+        return written;
+    }
+}
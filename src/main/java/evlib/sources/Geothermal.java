@@ -14,4 +14,20 @@ public class Geothermal extends EnergySource
     public Geothermal(final double[] energyAmoun) {
         super(energyAmoun);
     }
+
+    /**
+     * Constructor of a new Geothermal object which takes its energy packages from a PackageSource, e.g. an EnergyTrace.
+     * @param supply The PackageSource.
+     */
+    public Geothermal(final PackageSource supply) {
+        super(supply);
+    }
+
+    /**
+     * Constructor of a new Geothermal object whose energy packages are computed by a ProductionModel.
+     * @param model The ProductionModel.
+     */
+    public Geothermal(final ProductionModel model) {
+        super(model);
+    }
 }
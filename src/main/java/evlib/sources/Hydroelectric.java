@@ -13,4 +13,20 @@ public class Hydroelectric extends EnergySource {
     public Hydroelectric(final double[] energyAmoun) {
         super(energyAmoun);
     }
+
+    /**
+     * Constructor of a new Hydroelectric object which takes its energy packages from a PackageSource, e.g. an EnergyTrace.
+     * @param supply The PackageSource.
+     */
+    public Hydroelectric(final PackageSource supply) {
+        super(supply);
+    }
+
+    /**
+     * Constructor of a new Hydroelectric object whose energy packages are computed by a ProductionModel.
+     * @param model The ProductionModel.
+     */
+    public Hydroelectric(final ProductionModel model) {
+        super(model);
+    }
 }
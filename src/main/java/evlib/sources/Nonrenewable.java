@@ -14,4 +14,20 @@ public class Nonrenewable extends EnergySource{
     public Nonrenewable(final double[] energyAmoun) {
         super(energyAmoun);
     }
+
+    /**
+     * Constructor of a new Nonrenewable object which takes its energy packages from a PackageSource, e.g. an EnergyTrace.
+     * @param supply The PackageSource.
+     */
+    public Nonrenewable(final PackageSource supply) {
+        super(supply);
+    }
+
+    /**
+     * Constructor of a new Nonrenewable object whose energy packages are computed by a ProductionModel.
+     * @param model The ProductionModel.
+     */
+    public Nonrenewable(final ProductionModel model) {
+        super(model);
+    }
 }
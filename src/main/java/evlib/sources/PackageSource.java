@@ -0,0 +1,14 @@
+package evlib.sources;
+
+public interface PackageSource {
+    /**
+     * @return True if the PackageSource has more packages of energy.
+     */
+    boolean hasNext();
+
+    /**
+     * Gives the next package of energy.
+     * @return The amount of energy of the package, or 0 if there are no more packages.
+     */
+    double next();
+}
@@ -0,0 +1,12 @@
+package evlib.sources;
+
+public interface ProductionModel {
+    /**
+     * Gives the energy produced at a storage update. The result depends only on the time, so one
+     * ProductionModel can be shared by many energy sources, and it follows the Clock of the station,
+     * whether the time is simulated or real.
+     * @param time The time of the update in milliseconds, as given by the Clock of the station.
+     * @return The amount of energy of the update.
+     */
+    double getAmount(long time);
+}
@@ -13,4 +13,20 @@ public class Solar extends EnergySource {
     public Solar(final double[] energyAmoun) {
         super(energyAmoun);
     }
+
+    /**
+     * Constructor of a new Solar object which takes its energy packages from a PackageSource, e.g. an EnergyTrace.
+     * @param supply The PackageSource.
+     */
+    public Solar(final PackageSource supply) {
+        super(supply);
+    }
+
+    /**
+     * Constructor of a new Solar object whose energy packages are computed by a ProductionModel.
+     * @param model The ProductionModel.
+     */
+    public Solar(final ProductionModel model) {
+        super(model);
+    }
 }
@@ -0,0 +1,38 @@
+package evlib.sources;
+
+public class SolarCurve implements ProductionModel {
+    private static final long DAY = 24 * 3600 * 1000;
+    private final double peak;
+    private final double sunrise;
+    private final double sunset;
+    private final long offset;
+
+    /**
+     * Creates a new SolarCurve. The production follows a half sine between the sunrise and the sunset,
+     * reaching the peak at the middle of the day, and it is 0 during the night.
+     * @param peak The energy of an update at the middle of the day.
+     * @param sunrise The hour of the sunrise, e.g. 6.5.
+     * @param sunset The hour of the sunset, e.g. 20.
+     * @param offset The time of the day at time 0 of the Clock, in milliseconds after midnight. For the
+     * WallClock it is the offset of the local time zone from UTC.
+     */
+    public SolarCurve(final double peak, final double sunrise, final double sunset, final long offset) {
+        if (sunrise < 0 || sunset > 24 || sunrise >= sunset)
+            throw new IllegalArgumentException("Invalid daylight hours: " + sunrise + " - " + sunset);
+        this.peak = peak;
+        this.sunrise = sunrise;
+        this.sunset = sunset;
+        this.offset = offset;
+    }
+
+    /**
+     * @param time The time of the update in milliseconds.
+     * @return The energy produced at the update.
+     */
+    public double getAmount(final long time) {
+        double hour = (double) Math.floorMod(offset + time, DAY) / 3600000;
+        if (hour <= sunrise || hour >= sunset)
+            return 0;
+        return peak * Math.sin(Math.PI * (hour - sunrise) / (sunset - sunrise));
+    }
+}
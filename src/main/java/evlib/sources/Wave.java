@@ -13,4 +13,20 @@ public class Wave extends EnergySource {
     public Wave(final double[] energyAmoun) {
         super(energyAmoun);
     }
+
+    /**
+     * Constructor of a new Wave object which takes its energy packages from a PackageSource, e.g. an EnergyTrace.
+     * @param supply The PackageSource.
+     */
+    public Wave(final PackageSource supply) {
+        super(supply);
+    }
+
+    /**
+     * Constructor of a new Wave object whose energy packages are computed by a ProductionModel.
+     * @param model The ProductionModel.
+     */
+    public Wave(final ProductionModel model) {
+        super(model);
+    }
 }
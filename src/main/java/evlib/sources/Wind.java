@@ -13,4 +13,20 @@ public class Wind extends EnergySource {
     public Wind(final double[] energyAmoun) {
         super(energyAmoun);
     }
+
+    /**
+     * Constructor of a new Wind object which takes its energy packages from a PackageSource, e.g. an EnergyTrace.
+     * @param supply The PackageSource.
+     */
+    public Wind(final PackageSource supply) {
+        super(supply);
+    }
+
+    /**
+     * Constructor of a new Wind object whose energy packages are computed by a ProductionModel.
+     * @param model The ProductionModel.
+     */
+    public Wind(final ProductionModel model) {
+        super(model);
+    }
 }
@@ -0,0 +1,50 @@
+package evlib.sources;
+
+public class WindModel implements ProductionModel {
+    private final long seed;
+    private final double mean;
+    private final double maximum;
+    private final long period;
+
+    /**
+     * Creates a new WindModel. The time is split in periods, and the energy of each period follows a Rayleigh
+     * distribution, as the wind speed usually does. The value of a period is computed from the seed and the
+     * period alone, so the same seed always gives the same production and no state is kept between updates.
+     * @param seed The seed of the model.
+     * @param mean The mean energy of an update.
+     * @param maximum The maximum energy of an update, that is the capacity of the turbines.
+     * @param period The duration in milliseconds for which the wind stays the same.
+     */
+    public WindModel(final long seed, final double mean, final double maximum, final long period) {
+        if (mean < 0 || maximum < 0)
+            throw new IllegalArgumentException("Invalid wind production: " + mean + ", " + maximum);
+        if (period <= 0)
+            throw new IllegalArgumentException("Invalid period: " + period);
+        this.seed = seed;
+        this.mean = mean;
+        this.maximum = maximum;
+        this.period = period;
+    }
+
+    /**
+     * @param time The time of the update in milliseconds.
+     * @return The energy produced at the update.
+     */
+    public double getAmount(final long time) {
+        long slot = Math.floorDiv(time, period);
+        double u = (mix(seed + slot * 0x9E3779B97F4A7C15L) >>> 11) * 0x1.0p-53;
+        double sigma = mean * Math.sqrt(2 / Math.PI);
+        return Math.min(maximum, sigma * Math.sqrt(-2 * Math.log(1 - u)));
+    }
+
+    /**
+     * Scrambles the bits of a number (the finalizer of SplitMix64).
+     * @param z The number.
+     * @return The scrambled number.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
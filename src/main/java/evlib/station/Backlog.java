@@ -0,0 +1,226 @@
+package evlib.station;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+class Backlog {
+    private static final long IDLE = Long.MIN_VALUE;
+    private final TreeMap<Long, Integer> finishes = new TreeMap<>();
+    private final Map<Object, Long> running = new HashMap<>();
+    private final ArrayDeque<Long> queued = new ArrayDeque<>();
+    private final ArrayDeque<Long> starting = new ArrayDeque<>();
+    private boolean valid;
+    private int modifications;
+    private long epoch;
+
+    /**
+     * @param mods The number of modifications of the waiting list.
+     * @return True if the Backlog is up to date with the resources and the waiting list.
+     */
+    synchronized boolean isValid(final int mods) {
+        return valid && mods == modifications;
+    }
+
+    /**
+     * Marks the Backlog as outdated. It is built again in the next query.
+     */
+    synchronized void invalidate() {
+        valid = false;
+        ++epoch;
+    }
+
+    /**
+     * @return The number of changes the Backlog was informed of. It is read before the resources are read
+     * for rebuild(), so a change which happens while they are read is noticed.
+     */
+    synchronized long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Builds the Backlog from the beginning, from resources and waiting events which were read without holding
+     * the lock of the Backlog, since reading a resource takes the lock of the resource. If the Backlog was informed
+     * of any change since the given epoch, the result is kept for the next query but it is marked as outdated.
+     * @param ep The epoch, as getEpoch() gave it before the resources were read.
+     * @param mods The number of modifications of the waiting list, read before its events.
+     * @param resources The resources.
+     * @param busy True for each resource which executes an event.
+     * @param finish The time each busy resource finishes its work in milliseconds.
+     * @param now The current time in milliseconds.
+     * @param durations The durations of the waiting events in milliseconds, in the order of the waiting list.
+     */
+    synchronized void rebuild(final long ep, final int mods, final Object[] resources, final boolean[] busy,
+                              final long[] finish, final long now, final long[] durations) {
+        reset(mods);
+        for (int i = 0; i < resources.length; i++)
+            addResource(resources[i], busy[i], finish[i]);
+        for (long duration : durations)
+            addJob(now, duration);
+        if (ep != epoch)
+            valid = false;
+    }
+
+    /**
+     * Empties the Backlog, in order to be built again.
+     * @param mods The number of modifications of the waiting list the Backlog is built from.
+     */
+    synchronized void reset(final int mods) {
+        finishes.clear();
+        running.clear();
+        queued.clear();
+        starting.clear();
+        modifications = mods;
+        valid = true;
+    }
+
+    /**
+     * Inserts a resource in the Backlog.
+     * @param resource The resource.
+     * @param busy True if the resource executes an event.
+     * @param finish The time the resource finishes its work in milliseconds. It is not used for an idle resource.
+     */
+    synchronized void addResource(final Object resource, final boolean busy, final long finish) {
+        if (busy) {
+            push(finish);
+            running.put(resource, finish);
+        } else
+            push(IDLE);
+    }
+
+    /**
+     * Inserts an event of the waiting list in the Backlog. The event is given to the resource which gets free first.
+     * @param now The current time in milliseconds.
+     * @param duration The duration of the event in milliseconds.
+     */
+    synchronized void addJob(final long now, final long duration) {
+        if (finishes.isEmpty()) {
+            queued.addLast(IDLE);
+            return;
+        }
+        long first = finishes.firstKey();
+        pop(first);
+        long finish = Math.max(first, now) + duration;
+        push(finish);
+        queued.addLast(finish);
+    }
+
+    /**
+     * Inserts an event which was added at the end of the waiting list. If any other change of the list happened
+     * in between, the Backlog is marked as outdated.
+     * @param modsBefore The number of modifications of the waiting list before the insertion.
+     * @param modsAfter The number of modifications of the waiting list the insertion produced.
+     * @param now The current time in milliseconds.
+     * @param duration The duration of the event in milliseconds.
+     */
+    synchronized void enqueue(final int modsBefore, final int modsAfter, final long now, final long duration) {
+        ++epoch;
+        if (!isValid(modsBefore) || modsAfter != modsBefore + 1) {
+            valid = false;
+            return;
+        }
+        addJob(now, duration);
+        modifications = modsAfter;
+    }
+
+    /**
+     * Informs the Backlog that the first event of the waiting list was taken out of it, in order to be executed.
+     * Its projected finish is kept until a resource starts it. If any other change of the list happened
+     * in between, the Backlog is marked as outdated.
+     * @param modsBefore The number of modifications of the waiting list before the removal.
+     * @param modsAfter The number of modifications of the waiting list the removal produced.
+     */
+    synchronized void dequeue(final int modsBefore, final int modsAfter) {
+        ++epoch;
+        if (!isValid(modsBefore) || modsAfter != modsBefore + 1) {
+            valid = false;
+            return;
+        }
+        Long finish = queued.pollFirst();
+        if (finish == null) {
+            valid = false;
+            return;
+        }
+        starting.addLast(finish);
+        modifications = modsAfter;
+    }
+
+    /**
+     * Informs the Backlog that a resource started the execution of an event. If the event was taken from the
+     * waiting list, its projected finish is replaced by the real one, otherwise the resource was idle.
+     * @param resource The resource.
+     * @param finish The time the resource will finish in milliseconds.
+     */
+    synchronized void started(final Object resource, final long finish) {
+        ++epoch;
+        if (!valid)
+            return;
+        if (running.containsKey(resource)) {
+            valid = false;
+            return;
+        }
+        Long projected = starting.pollFirst();
+        if (projected != null) {
+            if (pop(projected))
+                push(finish);
+        } else if (queued.isEmpty() && pop(IDLE))
+            push(finish);
+        else {
+            valid = false;
+            return;
+        }
+        running.put(resource, finish);
+    }
+
+    /**
+     * Informs the Backlog that a resource became idle. If events are waiting, the finish of the resource was
+     * already given to the first of them, so only an idle resource changes the projection.
+     * @param resource The resource.
+     */
+    synchronized void finished(final Object resource) {
+        ++epoch;
+        if (!valid)
+            return;
+        Long finish = running.remove(resource);
+        if (finish == null || !starting.isEmpty()) {
+            valid = false;
+            return;
+        }
+        if (!queued.isEmpty())
+            return;
+        if (pop(finish))
+            push(IDLE);
+        else
+            valid = false;
+    }
+
+    /**
+     * @param now The current time in milliseconds.
+     * @return The time a new event waits until a resource gets free in milliseconds,
+     * or -1 if there is not any resource.
+     */
+    synchronized long getWaitingTime(final long now) {
+        if (finishes.isEmpty())
+            return -1;
+        long first = finishes.firstKey();
+        if (first == IDLE)
+            return 0;
+        return Math.max(0, first - now);
+    }
+
+    private void push(final long finish) {
+        finishes.merge(finish, 1, Integer::sum);
+    }
+
+    private boolean pop(final long finish) {
+        Integer count = finishes.get(finish);
+        if (count == null)
+            return false;
+        if (count == 1)
+            finishes.remove(finish);
+        else
+            finishes.put(finish, count - 1);
+        return true;
+    }
+}
@@ -0,0 +1,373 @@
+package evlib.station;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+class BinaryPlan implements PlanInput {
+    /**
+     * The magic number at the start of a binary plan.
+     */
+    static final int MAGIC = 0x4C505645;
+    static final int VERSION = 1;
+    /**
+     * The size of the header in bytes: the magic number, the version and the number of records.
+     */
+    static final int HEADER = 16;
+    /**
+     * The size of a record in bytes: the tag, an int field and a long (or double) field.
+     */
+    static final int RECORD = 16;
+    private static final int TAG_EV = 1;
+    private static final int TAG_DE = 2;
+    private static final int TAG_CH = 3;
+    private static final int TAG_INT = 4;
+    private static final long WINDOW = 1L << 20;
+    /**
+     * The size of the window of a BinaryPlan which reads the steps of a single DE record, in records.
+     */
+    static final long STEP_WINDOW = 1L << 12;
+    private final String path;
+    private final FileChannel channel;
+    private final long count;
+    private final long windowSize;
+    private long position;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private int tag;
+    private int value;
+    private long wide;
+    private boolean steps;
+    private int stepCount;
+    private int events;
+    private double energy;
+    private int event;
+    private long time;
+
+    /**
+     * Opens a binary plan. The file holds a header and then fixed-width little-endian records, one for
+     * each "ev" record and one for each "ch" or "int" step, while a "de" record is a record of its own
+     * followed by its steps. The records are read through a memory-mapped window that moves along the file,
+     * and they are checked as strictly as the records of a text plan.
+     * @param filePath The path of the binary plan.
+     * @throws IOException If the file cannot be opened or it is not a binary plan.
+     */
+    BinaryPlan(final String filePath) throws IOException {
+        this.path = filePath;
+        this.windowSize = WINDOW;
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining())
+                if (channel.read(header) == -1)
+                    throw new IOException("Not a binary plan: " + filePath);
+            ((Buffer) header).flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION)
+                throw new IOException("Not a binary plan: " + filePath);
+            this.count = header.getLong();
+            if (count < 0 || count > (channel.size() - HEADER) / RECORD)
+                throw new IOException("Truncated binary plan: " + filePath);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Opens a binary plan whose header was already read, at a record.
+     * @param filePath The path of the binary plan.
+     * @param cnt The number of records of the binary plan.
+     * @param start The number of the record to start from, counting from 0.
+     * @param size The size of the window in records.
+     * @throws IOException If the file cannot be opened or it became shorter.
+     */
+    private BinaryPlan(final String filePath, final long cnt, final long start, final long size) throws IOException {
+        this.path = filePath;
+        this.count = cnt;
+        this.position = start;
+        this.windowSize = size;
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        if (count > (channel.size() - HEADER) / RECORD) {
+            channel.close();
+            throw new IOException("Truncated binary plan: " + filePath);
+        }
+    }
+
+    /**
+     * @param filePath The path of a file.
+     * @return True if the file starts with the magic number of a binary plan.
+     * @throws java.io.FileNotFoundException If the file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    static boolean isBinary(final String filePath) throws IOException {
+        try (InputStream in = new FileInputStream(filePath)) {
+            byte[] magic = new byte[4];
+            int read = 0;
+            while (read < 4) {
+                int n = in.read(magic, read, 4 - read);
+                if (n == -1)
+                    return false;
+                read += n;
+            }
+            return ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC;
+        }
+    }
+
+    public PlanRecord nextRecord() throws IOException {
+        while (position < count && isStep(peek()))
+            ++position;
+        steps = false;
+        if (position >= count)
+            return null;
+        read();
+        switch (tag) {
+            case TAG_EV:
+                energy = Double.longBitsToDouble(wide);
+                if (!(energy >= 0) || Double.isInfinite(energy))
+                    throw error("invalid energy " + energy);
+                ++events;
+                return PlanRecord.EV;
+            case TAG_DE:
+                if (position >= count || !isStep(peek()))
+                    throw error("de record without steps");
+                steps = true;
+                stepCount = 0;
+                return PlanRecord.DE;
+            case TAG_CH:
+            case TAG_INT:
+                throw error("step outside a de record");
+            default:
+                throw error("unknown record tag " + tag);
+        }
+    }
+
+    public PlanRecord nextStep() throws IOException {
+        if (!steps || position >= count || !isStep(peek())) {
+            steps = false;
+            return null;
+        }
+        read();
+        ++stepCount;
+        time = wide;
+        if (time < 0)
+            throw error("negative time in step " + stepCount);
+        if (tag == TAG_CH) {
+            if (value < 1 || value > events)
+                throw error("step " + stepCount + " refers to event " + value + ", which is not defined in a previous record");
+            event = value;
+            return PlanRecord.CH;
+        }
+        return PlanRecord.INT;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public int getEvent() {
+        return event;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return The number of the record which was read last, counting from 1.
+     */
+    public long getLine() {
+        return position;
+    }
+
+    public int getEvents() {
+        return events;
+    }
+
+    /**
+     * @return The number of the last record, counting from 0.
+     */
+    public long getOffset() {
+        return position - 1;
+    }
+
+    /**
+     * Opens the file of the binary plan again at a record, in order to read the steps of a DE record. The header
+     * is not read again, and the new BinaryPlan maps a window of STEP_WINDOW records starting at the record, instead
+     * of the large window of a whole plan, so a Charger keeps a small part of the file mapped while it executes its steps.
+     * @param off The number of the record, counting from 0.
+     * @param lin The number of the record, counting from 1. It is not needed, since it follows the offset.
+     * @param evs The number of EV records before the record.
+     * @return A BinaryPlan whose nextRecord() reads the record.
+     * @throws IOException If the file cannot be opened or the record is not in it.
+     */
+    public BinaryPlan open(final long off, final long lin, final int evs) throws IOException {
+        if (off < 0 || off >= count)
+            throw new IOException("No record " + off + " in the binary plan: " + path);
+        BinaryPlan plan = new BinaryPlan(path, count, off, STEP_WINDOW);
+        plan.events = evs;
+        return plan;
+    }
+
+    /**
+     * @return The size of the memory-mapped window in records.
+     */
+    long getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @return The number of records in the binary plan.
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Closes the file of the binary plan.
+     * @throws IOException If the closing fails.
+     */
+    public void close() throws IOException {
+        window = null;
+        position = count;
+        channel.close();
+    }
+
+    /**
+     * Compiles a text plan to a binary plan. The text plan is checked while it is compiled, so a binary plan
+     * is always well-formed. If the text plan is broken, the binary plan is not created.
+     * @param textPath The path of the text plan.
+     * @param binaryPath The path of the binary plan. It is created, or truncated if it exists.
+     * @return The number of records written.
+     * @throws PlanException If the text plan is broken.
+     * @throws IOException If a file cannot be read or written.
+     */
+    static long compile(final String textPath, final String binaryPath) throws IOException {
+        Path target = Paths.get(binaryPath);
+        long written = 0;
+        try (PlanParser parser = new PlanParser(Files.newBufferedReader(Paths.get(textPath), StandardCharsets.UTF_8))) {
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD * 512).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(0).putInt(VERSION).putLong(0);
+                PlanRecord record;
+                while ((record = parser.nextRecord()) != null) {
+                    if (record == PlanRecord.EV)
+                        put(out, buffer, TAG_EV, 0, Double.doubleToRawLongBits(parser.getEnergy()));
+                    else {
+                        put(out, buffer, TAG_DE, 0, 0);
+                        PlanRecord step;
+                        while ((step = parser.nextStep()) != null) {
+                            if (step == PlanRecord.CH)
+                                put(out, buffer, TAG_CH, parser.getEvent(), parser.getTime());
+                            else
+                                put(out, buffer, TAG_INT, 0, parser.getTime());
+                            ++written;
+                        }
+                    }
+                    ++written;
+                }
+                flush(out, buffer);
+                ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putLong(written);
+                ((Buffer) header).flip();
+                while (header.hasRemaining())
+                    out.write(header, header.position());
+            } catch (IOException ex) {
+                Files.deleteIfExists(target);
+                throw ex;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Appends a record to the buffer, writing the buffer out when it is full.
+     * @param out The channel of the binary plan.
+     * @param buffer The buffer.
+     * @param tg The tag of the record.
+     * @param val The int field of the record.
+     * @param wid The long field of the record.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void put(final FileChannel out, final ByteBuffer buffer, final int tg, final int val, final long wid) throws IOException {
+        if (buffer.remaining() < RECORD)
+            flush(out, buffer);
+        buffer.putInt(tg).putInt(val).putLong(wid);
+    }
+
+    /**
+     * Writes out the contents of the buffer.
+     * @param out The channel of the binary plan.
+     * @param buffer The buffer.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void flush(final FileChannel out, final ByteBuffer buffer) throws IOException {
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining())
+            out.write(buffer);
+        ((Buffer) buffer).clear();
+    }
+
+    /**
+     * @param tg A tag.
+     * @return True if the tag is the tag of a step.
+     */
+    private static boolean isStep(final int tg) {
+        return tg == TAG_CH || tg == TAG_INT;
+    }
+
+    /**
+     * @return The tag of the next record, without reading it.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private int peek() throws IOException {
+        MappedByteBuffer w = map();
+        return w.getInt((int) ((position - windowStart) * RECORD));
+    }
+
+    /**
+     * Reads the next record.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void read() throws IOException {
+        MappedByteBuffer w = map();
+        int offset = (int) ((position - windowStart) * RECORD);
+        tag = w.getInt(offset);
+        value = w.getInt(offset + 4);
+        wide = w.getLong(offset + 8);
+        ++position;
+    }
+
+    /**
+     * Moves the memory-mapped window, if the next record is outside of it.
+     * @return The window.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private MappedByteBuffer map() throws IOException {
+        if (window == null || position >= windowStart + windowSize) {
+            windowStart = position;
+            long size = Math.min(windowSize, count - position) * RECORD;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + windowStart * RECORD, size);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return window;
+    }
+
+    /**
+     * @param message The description of the error.
+     * @return A PlanException for the record which was read last.
+     */
+    private PlanException error(final String message) {
+        return new PlanException(position, message);
+    }
+}
@@ -1,16 +1,19 @@
 package evlib.station;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class Charger {
     private int id;
     private final String kindOfCharging;
+    private final EventKind kind;
     private String name;
     private ChargingEvent e;
     private ChargingStation station;
-    final ArrayList<Integer> planEvent = new ArrayList<>();
-    final ArrayList<Long> planTime = new ArrayList<>();
+    PlanInput plan;
+    int planNumber;
+    long planStep;
+    long planLeft;
     private static final AtomicInteger idGenerator = new AtomicInteger(0);
 
     /**
@@ -21,6 +24,7 @@ public class Charger {
     public Charger(final ChargingStation stat, final String kindOfChar) {
         this.id = idGenerator.incrementAndGet();
         this.kindOfCharging = kindOfChar;
+        this.kind = EventKind.of(kindOfChar);
         this.station = stat;
         this.name = "Charger" + String.valueOf(id);
     }
@@ -50,85 +54,144 @@ public class Charger {
      * the waiting list.
      */
     public void startCharger() {
-        Thread running = new Thread(() -> {
+        try {
+            if (plan == null) {
+                e.setChargingTime(e.getChargingTime());
+                station.startedWork(kind, this, e.getChargingTime());
+                station.schedule("Charger" + String.valueOf(id), e.getChargingTime(), this::finishCharging, this::stopCharger);
+            } else {
+                e.setChargingTime(planStep);
+                station.startedWork(kind, this, e.getChargingTime());
+                station.schedule("Charger" + String.valueOf(id), e.getChargingTime(), this::finishPlanStep, this::stopCharger);
+            }
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * Completes the ChargingEvent, when its charging time has passed.
+     */
+    private void finishCharging() {
+        try {
+            e.getElectricVehicle().getBattery().setRemAmount(e.getEnergyToBeReceived() + e.getElectricVehicle().getBattery().getRemAmount());
+            if (e.getElectricVehicle().getDriver() != null)
+                e.getElectricVehicle().getDriver().setDebt(e.getElectricVehicle().getDriver().getDebt() + e.getCost());
+            if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
+                System.out.println("Charging " + e.getId() + ", " + e.getStation().getName() + ", OK");
+            else
+                System.out.println("Charging " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
+            e.commitEnergy();
+            e.setState(EventCondition.FINISHED);
+            synchronized (this) {
+                setChargingEvent(null);
+            }
+            if (station.getQueueHandling())
+                handleQueueEvents();
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * Completes a step of the plan of chargings, when its time has passed. The event of the step finishes with its
+     * last step in any plan, and then the station forgets it. Then, the next step is read and it starts, if any.
+     */
+    private void finishPlanStep() {
+        try {
+            int number = planNumber;
+            if (number == -1 || e.planSteps.decrementAndGet() == 0) {
+                e.setState(EventCondition.FINISHED);
+                e.setChargingTime(e.accumulatorOfChargingTime);
+                if (number != -1)
+                    station.events.remove(number);
+            } else
+                e.setState(EventCondition.INTERRUPTED);
+            boolean next;
             try {
-                if ((planEvent.size() == 0) && (planTime.size() == 0)) {
-                    e.setChargingTime(e.getChargingTime());
-                    Thread.sleep(e.getChargingTime());
-                    e.getElectricVehicle().getBattery().setRemAmount(e.getEnergyToBeReceived() + e.getElectricVehicle().getBattery().getRemAmount());
-                    if (e.getElectricVehicle().getDriver() != null)
-                        e.getElectricVehicle().getDriver().setDebt(e.getElectricVehicle().getDriver().getDebt() + e.getCost());
-                    if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
-                        System.out.println("Charging " + e.getId() + ", " + e.getStation().getName() + ", OK");
-                    else
-                        System.out.println("Charging " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
-                    e.setCondition("finished");
+                next = nextPlanStep();
+            } catch (IOException ex) {
+                System.out.println(name + " plan, broken: " + ex.getMessage());
+                next = false;
+            }
+            if (next) {
+                if (planNumber != -1) {
                     synchronized (this) {
-                        setChargingEvent(null);
+                        setChargingEvent(station.getPlanEvent(planNumber));
                     }
-                    if (station.getQueueHandling())
-                        handleQueueEvents();
+                    e.setChargingTime(planStep);
+                    e.accumulatorOfChargingTime += e.getChargingTime();
+                    e.setState(EventCondition.CHARGING);
+                    startCharger();
                 } else {
-                    e.setChargingTime(planTime.get(0));
-                    Thread.sleep(e.getChargingTime());
-                    planTime.remove(0);
-                    planEvent.remove(0);
-                    if (!planEvent.contains(station.events.indexOf(e) + 1)) {
-                        e.setCondition("finished");
-                        e.setChargingTime(e.accumulatorOfChargingTime);
-                    } else
-                        e.setCondition("interrupted");
-                    if (planEvent.size() != 0) {
-                        if (planEvent.get(0) != -1) {
-                            synchronized (this) {
-                                setChargingEvent(station.events.get(planEvent.get(0) - 1));
-                            }
-                            e.setChargingTime(planTime.get(0));
-                            e.accumulatorOfChargingTime += e.getChargingTime();
-                            e.setCondition("charging");
-                            startCharger();
-                        } else {
-                            ChargingEvent e = new ChargingEvent(station, null, 0, null);
-                            synchronized (this) {
-                                setChargingEvent(e);
-                            }
-                            e.setChargingTime(planTime.get(0));
-                            e.setCondition("charging");
-                            ChargingEvent.getChargingLog().remove(e);
-                            startCharger();
-                        }
-                    } else {
-                        planTime.clear();
-                        planEvent.clear();
-                        System.out.println(name + " plan, OK");
-                        synchronized (this) {
-                            setChargingEvent(null);
-                        }
-                        boolean flag = true;
-                        for (int i : station.numberOfChargers)
-                            if (station.getChargers()[i].getChargingEvent() != null)
-                                flag = false;
-                        if (flag) {
-                            System.out.println("Plan, OK");
-                            station.execEvents = false;
-                            station.numberOfChargers.clear();
-                            station.events.clear();
-                        }
+                    ChargingEvent e = new ChargingEvent(station, null, 0, null);
+                    synchronized (this) {
+                        setChargingEvent(e);
                     }
+                    e.setChargingTime(planStep);
+                    e.setState(EventCondition.CHARGING);
+                    station.getChargingHistory().remove(e);
+                    startCharger();
                 }
-            } catch (InterruptedException e1) {
+            } else {
+                closePlan();
+                System.out.println(name + " plan, OK");
                 synchronized (this) {
                     setChargingEvent(null);
                 }
-                System.out.println(name + " stopped");
-            } catch (NullPointerException e2) {
-                System.out.println("not processed");
+                boolean flag = true;
+                for (int i : station.numberOfChargers)
+                    if (station.getChargers()[i].getChargingEvent() != null)
+                        flag = false;
+                if (flag) {
+                    System.out.println("Plan, OK");
+                    station.endPlan();
+                }
             }
-        });
-        if (station.getDeamon())
-            running.setDaemon(true);
-        running.setName("Charger" + String.valueOf(id));
-        running.start();
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * Reads the next step of the plan of the Charger.
+     * @return True if there is a next step, false if the plan of the Charger ended.
+     * @throws IOException If the plan cannot be read.
+     */
+    boolean nextPlanStep() throws IOException {
+        PlanRecord step = plan.nextStep();
+        if (step == null)
+            return false;
+        planNumber = step == PlanRecord.CH ? plan.getEvent() : -1;
+        planStep = plan.getTime();
+        planLeft -= planStep;
+        return true;
+    }
+
+    /**
+     * Closes the plan of the Charger, if any.
+     */
+    void closePlan() {
+        if (plan == null)
+            return;
+        try {
+            plan.close();
+        } catch (IOException ex) {
+            System.out.println(name + " plan, " + ex.getMessage());
+        }
+        plan = null;
+        planLeft = 0;
+    }
+
+    /**
+     * Releases the Charger, when its waiting is interrupted.
+     */
+    private void stopCharger() {
+        closePlan();
+        synchronized (this) {
+            setChargingEvent(null);
+        }
+        System.out.println(name + " stopped");
     }
 
     /**
@@ -138,23 +201,21 @@ public class Charger {
         return kindOfCharging;
     }
 
+    /**
+     * @return The kind of charging the Charger supports as an EventKind, or null if it is not "fast" or "slow".
+     */
+    public EventKind getKind() {
+        return kind;
+    }
+
     /**
      * Handles the waiting list. It executes (if any) the first element of the list.
      */
     private void handleQueueEvents() {
-        ChargingEvent ev;
-        if ("fast".equalsIgnoreCase(getKindOfCharging())) {
-            if (station.getFast().getSize() != 0) {
-                ev = (ChargingEvent) station.getFast().moveFirst();
-                ev.preProcessing();
-                ev.execution();
-            }
-        } else if ("slow".equalsIgnoreCase(getKindOfCharging())) {
-            if (station.getSlow().getSize() != 0) {
-                ev = (ChargingEvent) station.getSlow().moveFirst();
-                ev.preProcessing();
-                ev.execution();
-            }
+        ChargingEvent ev = (ChargingEvent) station.moveFirst(kind);
+        if (ev != null) {
+            ev.preProcessing();
+            ev.execution();
         }
     }
 
@@ -166,12 +227,18 @@ public class Charger {
     }
 
     /**
-     * Sets a ChargingEvent to the Charger.
+     * Sets a ChargingEvent to the Charger. When the Charger gets released, the energy the event reserved
+     * and did not commit returns to the station, whatever stopped the charging.
      *
      * @param ev The ChargingEvent to be linked with the Charger.
      */
     synchronized void setChargingEvent(final ChargingEvent ev) {
+        ChargingEvent old = e;
         this.e = ev;
+        if (old != null && ev == null) {
+            old.releaseEnergy();
+            station.releaseCharger(this);
+        }
     }
 
     /**
@@ -3,10 +3,8 @@ package evlib.station;
 import evlib.ev.Battery;
 import evlib.ev.ElectricVehicle;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ChargingEvent
 {
@@ -18,17 +16,19 @@ public class ChargingEvent
     private long waitingTime;
     private ElectricVehicle vehicle;
     private long chargingTime;
-    private String condition;
+    private final AtomicReference<EventCondition> condition = new AtomicReference<>(EventCondition.ARRIVED);
+    private EventKind kind;
     private Battery givenBattery;
     private Charger charger;
     private double energyToBeReceived;
     private long maxWaitingTime;
     private long timestamp;
     private double cost;
+    private long queuedTime = Long.MIN_VALUE;
     private ExchangeHandler exchange;
+    private volatile EnergyReservation reservation;
     long accumulatorOfChargingTime = 0;
-    private static final List<ChargingEvent> chargingLog = new ArrayList<>();
-    private static final List<ChargingEvent> exchangeLog = new ArrayList<>();
+    final AtomicInteger planSteps = new AtomicInteger();
 
     /**
      * Constructs a new ChargingEvent object. It sets the condition of the event to "arrived".
@@ -42,9 +42,12 @@ public class ChargingEvent
         this.station = stat;
         this.amountOfEnergy = amEnerg;
         this.kindOfCharging = kindOfCharg;
+        this.kind = EventKind.of(kindOfCharg);
         this.vehicle = veh;
-        this.condition = "arrived";
-        chargingLog.add(this);
+        if (stat != null) {
+            stat.countCondition(kind, null, EventCondition.ARRIVED);
+            stat.getChargingHistory().record(this, stat.currentTime());
+        }
         this.charger = null;
         this.exchange = null;
     }
@@ -62,12 +65,15 @@ public class ChargingEvent
         this.station = stat;
         this.vehicle = veh;
         this.kindOfCharging = kindOfCharg;
-        this.condition = "arrived";
+        this.kind = EventKind.of(kindOfCharg);
         if (money / station.getUnitPrice() <= station.getTotalEnergy())
             this.amountOfEnergy = money / station.getUnitPrice();
         else
             this.amountOfEnergy = station.getTotalEnergy();
-        chargingLog.add(this);
+        if (stat != null) {
+            stat.countCondition(kind, null, EventCondition.ARRIVED);
+            stat.getChargingHistory().record(this, stat.currentTime());
+        }
         this.charger = null;
         this.exchange = null;
     }
@@ -83,10 +89,13 @@ public class ChargingEvent
         this.id = idGenerator.incrementAndGet();
         this.station = stat;
         this.kindOfCharging = "exchange";
+        this.kind = EventKind.EXCHANGE;
         this.vehicle = veh;
         this.chargingTime = station.getTimeOfExchange();
-        this.condition = "arrived";
-        exchangeLog.add(this);
+        if (stat != null) {
+            stat.countCondition(kind, null, EventCondition.ARRIVED);
+            stat.getExchangeHistory().record(this, stat.currentTime());
+        }
         this.charger = null;
         this.exchange = null;
     }
@@ -96,17 +105,20 @@ public class ChargingEvent
      * It calculates the energy to be given to the ElectricVehicle and calculates the charging time.
      * If there is not any empty Charger or exchange slot the ChargingEvent is inserted
      * in the respectively waiting list, if the waiting time is less than the set waiting time of the Driver.
+     * The event becomes "assigning" before it takes any resource, so only one thread pre-processes it.
      **/
     public void preProcessing() {
-        if ((kindOfCharging.equals("fast") && station.FAST_CHARGERS == 0) ||
-        (kindOfCharging.equals("slow") && station.SLOW_CHARGERS == 0) ||
-        (kindOfCharging.equals("exchange") && station.getExchangeHandlers().length == 0)) {
-            setCondition("nonExecutable");
+        if ((kind == EventKind.FAST && station.FAST_CHARGERS == 0) ||
+        (kind == EventKind.SLOW && station.SLOW_CHARGERS == 0) ||
+        (kind == EventKind.EXCHANGE && station.getExchangeHandlers().length == 0)) {
+            setState(EventCondition.NON_EXECUTABLE);
             return;
         }
         if (vehicle.getBattery().getActive()) {
-            if ((condition.equals("arrived")) || (condition.equals("wait"))) {
-                if (!"exchange".equalsIgnoreCase(kindOfCharging)) {
+            EventCondition current = condition.get();
+            if ((current == EventCondition.ARRIVED || current == EventCondition.WAIT)
+                    && compareAndSetState(current, EventCondition.ASSIGNING)) {
+                if (kind != EventKind.EXCHANGE) {
                     station.assignCharger(this);
                     if (charger != null) {
                         if (amountOfEnergy < station.getTotalEnergy()) {
@@ -120,70 +132,74 @@ public class ChargingEvent
                             else
                                 energyToBeReceived = vehicle.getBattery().getCapacity() - vehicle.getBattery().getRemAmount();
                         }
+                        reservation = station.reserveEnergy(energyToBeReceived);
+                        energyToBeReceived = reservation.getAmount();
                         if (energyToBeReceived == 0) {
-                            condition = "nonExecutable";
+                            reservation.release();
+                            setState(EventCondition.NON_EXECUTABLE);
                             charger.setChargingEvent(null);
                             charger = null;
                             return;
                         }
-                        if ("fast".equalsIgnoreCase(kindOfCharging))
+                        if (kind == EventKind.FAST)
                             chargingTime = ((long) (energyToBeReceived * 3600000 / station.getChargingRateFast()));
                         else
                             chargingTime = ((long) (energyToBeReceived * 3600000 / station.getChargingRateSlow()));
                         this.cost = station.calculatePrice(this);
-                        setCondition("ready");
-                        double sdf;
-                        sdf = energyToBeReceived;
-                        for (String s : station.getSources()) {
-                            if (sdf < station.getMap().get(s)) {
-                                double ert = station.getMap().get(s) - sdf;
-                                station.setSpecificAmount(s, ert);
-                                break;
-                            } else {
-                                sdf -= station.getMap().get(s);
-                                station.setSpecificAmount(s, 0);
-                            }
-                        }
+                        setState(EventCondition.READY);
                     }
                     else
-                        if (!condition.equals("wait")) {
-                            maxWaitingTime = calWaitingTime();
-                            if ((maxWaitingTime < waitingTime) && (maxWaitingTime > -1)) {
-                                if (!condition.equals("wait"))
-                                    station.updateQueue(this);
-                                setCondition("wait");
-                            } else
-                                setCondition("nonExecutable");
-                        }
+                        enterQueue(current);
                 } else {
                     station.assignExchangeHandler(this);
                     if (givenBattery == null) {
                         station.assignBattery(this);
                         if (givenBattery == null) {
-                            setCondition("nonExecutable");
+                            setState(EventCondition.NON_EXECUTABLE);
+                            if (exchange != null) {
+                                exchange.setChargingEvent(null);
+                                exchange = null;
+                            }
                             return;
                         }
                     }
                     if (exchange != null) {
                         chargingTime = station.getTimeOfExchange();
                         this.cost = station.getExchangePrice();
-                        setCondition("ready");
+                        setState(EventCondition.READY);
                     }
                     else
-                        if (!condition.equals("wait"))
-                        {
-                            maxWaitingTime = calWaitingTime();
-                            if (maxWaitingTime < waitingTime && maxWaitingTime > -1) {
-                                setCondition("wait");
-                                station.updateQueue(this);
-                            } else
-                                setCondition("nonExecutable");
-                        }
+                        enterQueue(current);
                 }
             }
         }
         else
-            setCondition("nonExecutable");
+            setState(EventCondition.NON_EXECUTABLE);
+    }
+
+    /**
+     * Called by the pre-processing phase when there is not any empty Charger or exchange slot. A new event
+     * is inserted in the waiting list, if the waiting time is less than the set waiting time of the Driver,
+     * otherwise it becomes "nonExecutable" and gives back the Battery it took. An event that was already
+     * waiting goes back to "wait".
+     * @param previous The condition of the event before the pre-processing.
+     */
+    private void enterQueue(final EventCondition previous) {
+        if (previous == EventCondition.WAIT) {
+            setState(EventCondition.WAIT);
+            return;
+        }
+        maxWaitingTime = calWaitingTime();
+        if (maxWaitingTime < waitingTime && maxWaitingTime > -1) {
+            setState(EventCondition.WAIT);
+            station.updateQueue(this);
+        } else {
+            setState(EventCondition.NON_EXECUTABLE);
+            if (givenBattery != null) {
+                station.joinBattery(givenBattery);
+                givenBattery = null;
+            }
+        }
     }
 
     /**
@@ -192,16 +208,14 @@ public class ChargingEvent
      */
     public void execution()
     {
-        if (condition.equals("ready"))
-            if (!kindOfCharging.equalsIgnoreCase("exchange")) {
-                setCondition("charging");
+        if (kind != EventKind.EXCHANGE) {
+            if (compareAndSetState(EventCondition.READY, EventCondition.CHARGING)) {
                 vehicle.getBattery().addCharging();
                 charger.startCharger();
             }
-            else {
-                setCondition("swapping");
-                exchange.startExchangeHandler();
-            }
+        }
+        else if (compareAndSetState(EventCondition.READY, EventCondition.SWAPPING))
+            exchange.startExchangeHandler();
     }
 
     /**
@@ -225,6 +239,14 @@ public class ChargingEvent
         return kindOfCharging;
     }
 
+    /**
+     * @return The kind of charging of the ChargingEvent as an EventKind, or null if it is not "fast", "slow" or "exchange".
+     */
+    public EventKind getKind()
+    {
+        return kind;
+    }
+
     /**
      * @return The ChargingStation the ChargingEvent wants to be executed.
      */
@@ -282,7 +304,7 @@ public class ChargingEvent
      * @return The condition of the ChargingEvent.
      */
     public String getCondition() {
-        return condition;
+        return condition.get().getName();
     }
 
     /**
@@ -293,14 +315,29 @@ public class ChargingEvent
         return waitingTime;
     }
 
+    /**
+     * Records the time the event was inserted in a waiting list.
+     * @param time The time in milliseconds.
+     */
+    void setQueuedTime(final long time) {
+        this.queuedTime = time;
+    }
+
+    /**
+     * @return The time the event was inserted in a waiting list in milliseconds, or Long.MIN_VALUE if it never was.
+     */
+    long getQueuedTime() {
+        return queuedTime;
+    }
+
     /**
      * @return The remaining charging time of the ChargingEvent in milliseconds.
      */
     public long getRemainingChargingTime()
     {
-        long diff = System.currentTimeMillis() - timestamp;
+        long diff = station.currentTime() - timestamp;
         long remainingChargingTime;
-        if ((chargingTime - diff >= 0) && (condition.equals("charging") || condition.equals("swapping")))
+        if ((chargingTime - diff >= 0) && (condition.get() == EventCondition.CHARGING || condition.get() == EventCondition.SWAPPING))
             remainingChargingTime = chargingTime - diff;
         else
             return 0;
@@ -309,10 +346,47 @@ public class ChargingEvent
 
     /**
      * Sets the condition of the ChargingEvent.
-     * @param cond The condition to be set.
+     * @param cond The condition to be set, the name of an EventCondition, for example "charging". The case of the
+     * name does not matter.
+     * @throws IllegalArgumentException If the name is not the name of a condition.
      */
     public void setCondition(final String cond) {
-        this.condition = cond;
+        EventCondition c = EventCondition.of(cond);
+        if (c == null)
+            throw new IllegalArgumentException("Invalid condition: " + cond);
+        setState(c);
+    }
+
+    /**
+     * @return The condition of the ChargingEvent as an EventCondition.
+     */
+    public EventCondition getState() {
+        return condition.get();
+    }
+
+    /**
+     * Sets the condition of the ChargingEvent.
+     * @param cond The condition to be set.
+     */
+    public void setState(final EventCondition cond) {
+        EventCondition old = condition.getAndSet(cond);
+        if (station != null)
+            station.countCondition(kind, old, cond);
+    }
+
+    /**
+     * Changes the condition of the ChargingEvent, only if it has the expected value. When two threads try to move the
+     * event from the same condition, only one of them succeeds.
+     * @param expect The expected condition.
+     * @param cond The new condition.
+     * @return True if the condition was changed, false if the event was not in the expected condition.
+     */
+    public boolean compareAndSetState(final EventCondition expect, final EventCondition cond) {
+        if (!condition.compareAndSet(expect, cond))
+            return false;
+        if (station != null)
+            station.countCondition(kind, expect, cond);
+        return true;
     }
 
     /**
@@ -336,97 +410,20 @@ public class ChargingEvent
      * @param time The charging time in milliseconds.
      */
     public void setChargingTime(final long time) {
-        timestamp = System.currentTimeMillis();
+        timestamp = station.currentTime();
         this.chargingTime = time;
     }
 
     /**
      * Calculates the amount of time a Driver has to wait until his ElectricVehicle
      * will be charged. This calculation happens in case an ElectricVehicle should
-     * be added in the WaitingList.
+     * be added in the WaitingList. The ChargingStation keeps the backlog of each kind of charging up to date,
+     * so the waiting list is not scanned again for every event.
      * @return The waiting time in milliseconds.
      */
     private long calWaitingTime()
     {
-        if (station.getChargers().length == 0)
-            return -1;
-        long[] counter1 = new long[station.getChargers().length];
-        long[] counter2 = new long[station.getExchangeHandlers().length];
-        long min = -1;
-        int index = -1;
-        if (!"exchange".equalsIgnoreCase(getKindOfCharging()))
-            for (int i = 0; i < station.getChargers ().length; i++) {
-                if (Objects.equals(getKindOfCharging(), station.getChargers()[i].getKindOfCharging())) {
-                    if (station.getChargers()[i].getChargingEvent() != null) {
-                        if (min == -1) {
-                            min = station.getChargers()[i].getChargingEvent().getRemainingChargingTime();
-                            index = i;
-                        }
-                        long diff = station.getChargers()[i].getChargingEvent().getRemainingChargingTime();
-                        if (min > diff) {
-                            min = diff;
-                            index = i;
-                        }
-                        counter1[i] = diff;
-                    } else
-                        return 0;
-                }
-            }
-        else
-            for (int i = 0; i < station.getExchangeHandlers().length; i++) {
-                if (station.getExchangeHandlers()[i].getChargingEvent() != null) {
-                    if (min == -1) {
-                        min = station.getExchangeHandlers()[i].getChargingEvent().getRemainingChargingTime();
-                        index = i;
-                    }
-                    long diff = station.getExchangeHandlers()[i].getChargingEvent().getRemainingChargingTime();
-                    if (min > diff) {
-                        min = diff;
-                        index = i;
-                    }
-                    counter2[i] = diff;
-                } else
-                    return 0;
-            }
-        ChargingEvent e;
-        if ("slow".equalsIgnoreCase(getKindOfCharging()))
-        {
-            WaitList o = station.getSlow();
-            for (int i = 0;i < o.getSize(); i++)
-            {
-                e = (ChargingEvent) o.get(i);
-                counter1[index] = counter1[index] + ((long) (e.getAmountOfEnergy() * 3600000 / station.getChargingRateSlow()));
-                for (int j = 0; j < station.getChargers().length; j++)
-                    if ((counter1[j] < counter1[index]) && (counter1[j] != 0))
-                        index = j;
-            }
-            return counter1[index];
-        }
-        if ("fast".equalsIgnoreCase(getKindOfCharging()))
-        {
-            WaitList o = station.getFast();
-            for (int i = 0; i < o.getSize(); i++)
-            {
-                e = (ChargingEvent) o.get(i);
-                counter1[index] = counter1[index] + ((long) (e.getAmountOfEnergy() * 3600000 / station.getChargingRateFast()));
-                for (int j = 0; j < station.getChargers().length; j++)
-                    if ((counter1[j] < counter1[index]) && (counter1[j] != 0))
-                        index = j;
-            }
-            return counter1[index];
-        }
-        if ("exchange".equalsIgnoreCase(getKindOfCharging()))
-        {
-            for (int i = 0; i < station.getExchange().getSize(); i++)
-            {
-                counter2[index] = counter2[index] + station.getTimeOfExchange();
-                for (int j = 0; j < station.getChargers().length; j++)
-                    if ((counter2[j] < counter2[index]) && (counter2[j] != 0))
-                        index = j;
-            }
-            return counter2[index];
-        }
-        return 0;
+        return station.getWaitingTime(kind);
     }
 
     /**
@@ -462,22 +459,6 @@ public class ChargingEvent
         this.cost = c;
     }
 
-    /**
-     * Returns the list with all created charging events.
-     * @return The list with all created charging events.
-     */
-    public static List<ChargingEvent> getChargingLog() {
-        return chargingLog;
-    }
-
-    /**
-     * Returns the list with all created battery exchange events.
-     * @return The list with all created battery exchange events.
-     */
-    public static List<ChargingEvent> getExchangeLog() {
-        return exchangeLog;
-    }
-
     /**
      * Sets a charger to the event for charging.
      * @param ch The charger to be assigned.
@@ -505,4 +486,29 @@ public class ChargingEvent
     Battery getGivenBattery() {
         return givenBattery;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return The EnergyReservation of the ChargingEvent, or null if no energy has been reserved.
+     */
+    public EnergyReservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Commits the EnergyReservation of the ChargingEvent, if there is an open one.
+     */
+    void commitEnergy() {
+        EnergyReservation r = reservation;
+        if (r != null)
+            r.commit();
+    }
+
+    /**
+     * Releases the EnergyReservation of the ChargingEvent, if there is an open one. The energy returns to the station.
+     */
+    void releaseEnergy() {
+        EnergyReservation r = reservation;
+        if (r != null)
+            r.release();
+    }
+}
@@ -6,31 +6,42 @@ import evlib.ev.ElectricVehicle;
 import evlib.sources.*;
 
 import java.io.*;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
 public class ChargingStation {
     private int id;
     private String name;
-    private final WaitList<ChargingEvent> fast;
-    private final WaitList<ChargingEvent> slow;
-    private final WaitList<DisChargingEvent> discharging;
-    private final WaitList<ChargingEvent> exchange;
+    private volatile double locationX = Double.NaN;
+    private volatile double locationY = Double.NaN;
+    private volatile WaitList<ChargingEvent> fast;
+    private volatile WaitList<ChargingEvent> slow;
+    private volatile WaitList<DisChargingEvent> discharging;
+    private volatile WaitList<ChargingEvent> exchange;
+    private volatile QueueOrder queueOrder = QueueOrder.FIFO;
     private double chargingRateFast;
     private double chargingRateSlow;
     private double disChargingRate;
     private final ArrayList<Charger> chargers;
     private final ArrayList<EnergySource> n;
     private ArrayList<DisCharger> dischargers;
-    private final ArrayList<Battery> batteries;
+    private final ArrayDeque<Battery> batteries;
+    private final ArrayDeque<Battery> emptyBatteries;
     private final ArrayList<ExchangeHandler> exchangeHandlers;
     private final ArrayList<ParkingSlot> parkingSlots;
-    private final HashMap<String, Double> amounts;
+    private final EnergyLedger ledger = new EnergyLedger();
+    private final AtomicLong reserved = new AtomicLong();
+    private final EnergyLog energyLog = new EnergyLog();
+    private volatile Feeds feeds;
+    private final AtomicInteger sourceVersion = new AtomicInteger();
+    private final CopyOnWriteArrayList<StationNetwork> networks = new CopyOnWriteArrayList<>();
     private final ArrayList<String> sources;
     private double unitPrice;
     private double disUnitPrice;
@@ -45,28 +56,33 @@ public class ChargingStation {
     private PricingPolicy policy;
     private boolean automaticUpdate;
     private final Statistics statistics = new Statistics();
-    private Timer timer;
+    private volatile StorageUpdateScheduler updateScheduler;
+    private StorageUpdateScheduler registeredScheduler;
     private boolean deamon;
-    private final Lock lock1 = new ReentrantLock();
+    private WorkerScheduler scheduler = new ThreadScheduler(this);
+    private Simulation simulation;
+    private Clock clock = WallClock.getInstance();
     private final Lock lock2 = new ReentrantLock();
     private final Lock lock3 = new ReentrantLock();
-    private final Lock lock4 = new ReentrantLock();
-    private final Lock lock5 = new ReentrantLock();
-    private final Lock lock6 = new ReentrantLock();
-    private final Lock lock7 = new ReentrantLock();
     private final Lock lock8 = new ReentrantLock();
+    private final EnumMap<EventKind, IdlePool<Charger>> idleChargers = createPools();
+    private final IdlePool<DisCharger> idleDisChargers = new IdlePool<>();
+    private final IdlePool<ExchangeHandler> idleExchangeHandlers = new IdlePool<>();
+    private final IdlePool<ParkingSlot> idleParkingSlots = new IdlePool<>();
+    private final IdlePool<ParkingSlot> idleInductiveSlots = new IdlePool<>();
+    private final EnumMap<EventKind, Backlog> backlogs = createBacklogs();
+    private final EventHistory<ChargingEvent> chargingHistory = new EventHistory<>();
+    private final EventHistory<ChargingEvent> exchangeHistory = new EventHistory<>();
+    private final EventHistory<DisChargingEvent> dischargingHistory = new EventHistory<>();
+    private final EventHistory<ParkingEvent> parkingHistory = new EventHistory<>();
+    private final EventCounters counters = new EventCounters();
     public int FAST_CHARGERS;
     public int SLOW_CHARGERS;
-    final ArrayList<ChargingEvent> events = new ArrayList<>();
+    final ConcurrentHashMap<Integer, ChargingEvent> events = new ConcurrentHashMap<>();
     final ArrayList<Integer> numberOfChargers = new ArrayList<>();
     boolean execEvents;
-
-    private class CheckUpdate extends TimerTask {
-        public void run() {
-            Thread.currentThread().setName("UpdateStorageTimer" + id);
-            updateStorage();
-        }
-    }
+    private double[] planEnergies;
+    private int[] planSteps;
 
     /**
      * Creates a new ChargingStation instance. It sets the handling of the queue to automatic, as well. The fast charging rate,
@@ -83,7 +99,6 @@ public class ChargingStation {
      * the number of energy packages we provide.
      */
     public ChargingStation(final String nam, final String[] kinds, final String[] source, final double[][] energyAmounts) {
-        this.amounts = new HashMap<>();
         this.id = idGenerator.incrementAndGet();
         this.name = nam;
         this.automaticQueueHandling = true;
@@ -97,7 +112,8 @@ public class ChargingStation {
         this.parkingSlots = new ArrayList<>();
         this.n = new ArrayList<>();
         this.sources = new ArrayList<>();
-        this.batteries = new ArrayList<>();
+        this.batteries = new ArrayDeque<>();
+        this.emptyBatteries = new ArrayDeque<>();
         this.chargingRateFast = 0.01;
         this.chargingRateSlow = 0.01;
         this.disChargingRate = 0.01;
@@ -106,6 +122,7 @@ public class ChargingStation {
         Collections.addAll(sources, source);
         this.sources.add("Discharging");
         setSpecificAmount("Discharging", 0.0);
+        ledger.setOrder(getSources());
         for (int i = 0; i < source.length; i++) {
             if (source[i].equalsIgnoreCase("Solar")) {
                 n.add(i, new Solar(energyAmounts[i]));
@@ -135,15 +152,15 @@ public class ChargingStation {
         }
         for (String kind : kinds) {
             if (kind.equalsIgnoreCase("fast")) {
-                chargers.add(new Charger(this, "fast"));
+                indexCharger(new Charger(this, "fast"));
                 ++FAST_CHARGERS;
             } else if (kind.equalsIgnoreCase("slow")) {
-                chargers.add(new Charger(this, "slow"));
+                indexCharger(new Charger(this, "slow"));
                 ++SLOW_CHARGERS;
             } else if (kind.equals("exchange")) {
-                exchangeHandlers.add(new ExchangeHandler(this));
+                addExchangeHandler(new ExchangeHandler(this));
             } else if (kind.equals("park")) {
-                parkingSlots.add(new ParkingSlot(this));
+                addParkingSlot(new ParkingSlot(this));
             }
         }
     }
@@ -160,7 +177,6 @@ public class ChargingStation {
      * of the sources package, in order to be created an object.
      */
     public ChargingStation(final String nam, final String[] kinds, final String[] source) {
-        this.amounts = new HashMap<>();
         this.id = idGenerator.incrementAndGet();
         this.name = nam;
         this.fast = new WaitList<>();
@@ -170,7 +186,8 @@ public class ChargingStation {
         this.automaticQueueHandling = true;
         this.chargers = new ArrayList<>();
         this.dischargers = new ArrayList<>();
-        this.batteries = new ArrayList<>();
+        this.batteries = new ArrayDeque<>();
+        this.emptyBatteries = new ArrayDeque<>();
         this.exchangeHandlers = new ArrayList<>();
         this.parkingSlots = new ArrayList<>();
         this.n = new ArrayList<>();
@@ -183,6 +200,7 @@ public class ChargingStation {
         this.inductiveChargingRate = 0.01;
         this.timeOfExchange = 1000;
         setSpecificAmount("Discharging", 0.0);
+        ledger.setOrder(getSources());
         for (int i = 0; i < source.length; i++) {
             switch (source[i]) {
                 case "Solar":
@@ -217,13 +235,13 @@ public class ChargingStation {
             switch (kind) {
                 case "fast":
                 case "slow":
-                    chargers.add(new Charger(this, kind));
+                    indexCharger(new Charger(this, kind));
                     break;
                 case "exchange":
-                    exchangeHandlers.add(new ExchangeHandler(this));
+                    addExchangeHandler(new ExchangeHandler(this));
                     break;
                 case "park":
-                    parkingSlots.add(new ParkingSlot(this));
+                    addParkingSlot(new ParkingSlot(this));
                     break;
                 default:
                     break;
@@ -246,16 +264,17 @@ public class ChargingStation {
         this.exchange = new WaitList<>();
         this.discharging = new WaitList<>();
         this.parkingSlots = new ArrayList<>();
-        this.amounts = new HashMap<>();
         this.chargers = new ArrayList<>();
         this.dischargers = new ArrayList<>();
-        this.batteries = new ArrayList<>();
+        this.batteries = new ArrayDeque<>();
+        this.emptyBatteries = new ArrayDeque<>();
         this.exchangeHandlers = new ArrayList<>();
         this.dischargers = new ArrayList<>();
         this.n = new ArrayList<>();
         this.sources = new ArrayList<>();
         this.sources.add("Discharging");
         setSpecificAmount("Discharging", 0.0);
+        ledger.setOrder(getSources());
         this.automaticQueueHandling = true;
         this.chargingRateFast = 0.01;
         this.chargingRateSlow = 0.01;
@@ -295,19 +314,15 @@ public class ChargingStation {
     public void updateQueue(final ChargingEvent event) {
         lock2.lock();
         try {
-            switch (event.getKindOfCharging()) {
-                case "exchange":
-                    exchange.add(event);
-                    break;
-                case "fast":
-                    fast.add(event);
-                    break;
-                case "slow":
-                    slow.add(event);
-                    break;
-                default:
-                    break;
-            }
+            EventKind kind = event.getKind();
+            WaitList<ChargingEvent> list = getChargingList(kind);
+            if (list == null)
+                return;
+            event.setQueuedTime(currentTime());
+            int mods = list.addCounted(event);
+            if (!(list instanceof PriorityWaitList))
+                backlogs.get(kind).enqueue(mods - 1, mods, currentTime(), getDuration(event));
+            notifyNetworks(event.getKind());
         } finally {
             lock2.unlock();
         }
@@ -320,12 +335,33 @@ public class ChargingStation {
     public void updateDisChargingQueue(final DisChargingEvent event) {
         lock3.lock();
         try {
-            discharging.add(event);
+            event.setQueuedTime(currentTime());
+            int mods = discharging.addCounted(event);
+            if (!(discharging instanceof PriorityWaitList))
+                backlogs.get(EventKind.DISCHARGING).enqueue(mods - 1, mods, currentTime(),
+                        (long) (event.getAmountOfEnergy() * 3600000 / disChargingRate));
+            notifyNetworks(EventKind.DISCHARGING);
         } finally {
             lock3.unlock();
         }
     }
 
+    /**
+     * Removes a waiting ChargingEvent from its waiting list, e.g. when the driver stops waiting. The event
+     * becomes "nonExecutable" and any energy it reserved returns to the station.
+     * @param event The ChargingEvent.
+     * @return True if the event was in the waiting list, false if it was not.
+     */
+    public boolean leaveQueue(final ChargingEvent event) {
+        WaitList<ChargingEvent> list = getChargingList(event.getKind());
+        if (list == null || !list.delete(event))
+            return false;
+        event.releaseEnergy();
+        event.compareAndSetState(EventCondition.WAIT, EventCondition.NON_EXECUTABLE);
+        notifyNetworks(event.getKind());
+        return true;
+    }
+
     /**
      * @return The WaitngList for fast charging.
      */
@@ -355,31 +391,96 @@ public class ChargingStation {
     }
 
     /**
-     * Looks for an empty Charger. If there is one, the event is assigned to it.
+     * Sets the order the waiting lists are served in. The events already waiting are moved to the new lists.
+     * @param order The order. FIFO serves the events in arrival order, SHORTEST serves the event asking
+     * for the smallest amount of energy first and DEADLINE serves first the event whose driver stops waiting first.
+     */
+    public void setQueueOrder(final QueueOrder order) {
+        if (order == null)
+            throw new IllegalArgumentException("Invalid queue order: null");
+        lock2.lock();
+        lock3.lock();
+        try {
+            queueOrder = order;
+            fast = reorder(fast, ChargingEvent::getAmountOfEnergy, ChargingEvent::getQueuedTime, ChargingEvent::getWaitingTime);
+            slow = reorder(slow, ChargingEvent::getAmountOfEnergy, ChargingEvent::getQueuedTime, ChargingEvent::getWaitingTime);
+            exchange = reorder(exchange, ChargingEvent::getAmountOfEnergy, ChargingEvent::getQueuedTime, ChargingEvent::getWaitingTime);
+            discharging = reorder(discharging, DisChargingEvent::getAmountOfEnergy, DisChargingEvent::getQueuedTime,
+                    DisChargingEvent::getWaitingTime);
+        } finally {
+            lock3.unlock();
+            lock2.unlock();
+        }
+        invalidateBacklogs();
+    }
+
+    /**
+     * Sets the order the waiting lists are served in.
+     * @param order The name of the order, "fifo", "shortest" or "deadline".
+     * @throws IllegalArgumentException If the name is not the name of an order.
+     */
+    public void setQueueOrder(final String order) {
+        QueueOrder o = QueueOrder.of(order);
+        if (o == null)
+            throw new IllegalArgumentException("Invalid queue order: " + order);
+        setQueueOrder(o);
+    }
+
+    /**
+     * @return The order the waiting lists are served in.
+     */
+    public QueueOrder getQueueOrder() {
+        return queueOrder;
+    }
+
+    /**
+     * Creates a waiting list for the current queue order and moves the events of the old list to it. The deadline
+     * of an event is the time it was inserted in a waiting list plus the time its driver is willing to wait, so the
+     * events which are moved keep their deadline. An event which was never inserted through the station counts from now.
+     * @param old The old waiting list.
+     * @param energy The function which gives the amount of energy of an event.
+     * @param queued The function which gives the time an event was inserted in a waiting list.
+     * @param patience The function which gives the time a driver is willing to wait.
+     * @return The new waiting list.
+     */
+    private <T> WaitList<T> reorder(final WaitList<T> old, final ToDoubleFunction<T> energy, final ToLongFunction<T> queued,
+                                    final ToLongFunction<T> patience) {
+        WaitList<T> list;
+        if (queueOrder == QueueOrder.SHORTEST)
+            list = new PriorityWaitList<>(energy);
+        else if (queueOrder == QueueOrder.DEADLINE)
+            list = new PriorityWaitList<T>(e -> {
+                long time = queued.applyAsLong(e);
+                return (double) (time == Long.MIN_VALUE ? currentTime() : time) + patience.applyAsLong(e);
+            });
+        else
+            list = new WaitList<>();
+        T e;
+        while ((e = old.moveFirst()) != null)
+            list.add(e);
+        return list;
+    }
+
+    /**
+     * Looks for an empty Charger. If there is one, the event is assigned to it. The empty chargers of
+     * each kind are kept in a pool, so the search does not depend on the number of chargers.
      * @param event The event that looks for a Charger.
      * @return The Charger that was assigned, or null if not any available Charger found.
      */
     public Charger assignCharger(final ChargingEvent event) {
-        lock4.lock();
-        int i = 0;
-        Charger ch = null;
-        boolean flag = false;
-        try {
-            if (chargers.size() != 0)
-                while (!flag && i < chargers.size()) {
-                    if (event.getKindOfCharging().equalsIgnoreCase(chargers.get(i).getKindOfCharging()))
-                        if (chargers.get(i).getChargingEvent() == null) {
-                            chargers.get(i).setChargingEvent(event);
-                            flag = true;
-                            ch = chargers.get(i);
-                            event.setCharger(chargers.get(i));
-                        }
-                    ++i;
+        IdlePool<Charger> pool = getChargerPool(event.getKind());
+        if (pool == null)
+            return null;
+        Charger ch;
+        while ((ch = pool.take()) != null)
+            synchronized (ch) {
+                if (ch.getChargingEvent() == null) {
+                    ch.setChargingEvent(event);
+                    event.setCharger(ch);
+                    return ch;
                 }
-        } finally {
-            lock4.unlock();
-        }
-        return ch;
+            }
+        return null;
     }
 
     /**
@@ -388,25 +489,16 @@ public class ChargingStation {
      * @return The DisCharger that was assigned, or null if not any available DisCharger found.
      */
     public DisCharger assignDisCharger(final DisChargingEvent event) {
-        lock5.lock();
-        int i = 0;
-        DisCharger dsch = null;
-        boolean flag = false;
-        try {
-            if (dischargers.size() != 0)
-                while (!flag && i < dischargers.size()) {
-                    if (dischargers.get(i).getDisChargingEvent() == null) {
-                        dischargers.get(i).setDisChargingEvent(event);
-                        flag = true;
-                        dsch = dischargers.get(i);
-                        event.setDisCharger(dischargers.get(i));
-                    }
-                    ++i;
+        DisCharger dsch;
+        while ((dsch = idleDisChargers.take()) != null)
+            synchronized (dsch) {
+                if (dsch.getDisChargingEvent() == null) {
+                    dsch.setDisChargingEvent(event);
+                    event.setDisCharger(dsch);
+                    return dsch;
                 }
-        } finally {
-            lock5.unlock();
-        }
-        return dsch;
+            }
+        return null;
     }
 
     /**
@@ -415,88 +507,204 @@ public class ChargingStation {
      * @return The ExchangeHandler that was assigned, or null if not any available ExchangeHandler found.
      */
     public ExchangeHandler assignExchangeHandler(final ChargingEvent event) {
-        lock6.lock();
-        int i = 0;
-        ExchangeHandler ch = null;
-        boolean flag = false;
-        try {
-            if (exchangeHandlers.size() != 0)
-                while (!flag && i < exchangeHandlers.size()) {
-                    if (exchangeHandlers.get(i).getChargingEvent() == null) {
-                        exchangeHandlers.get(i).setChargingEvent(event);
-                        flag = true;
-                        ch = exchangeHandlers.get(i);
-                        event.setExchange(exchangeHandlers.get(i));
-                    }
-                    ++i;
+        ExchangeHandler ch;
+        while ((ch = idleExchangeHandlers.take()) != null)
+            synchronized (ch) {
+                if (ch.getChargingEvent() == null) {
+                    ch.setChargingEvent(event);
+                    event.setExchange(ch);
+                    return ch;
                 }
-        } finally {
-            lock6.unlock();
-        }
-        return ch;
+            }
+        return null;
     }
 
     /**
-     * Looks for any empty ParkingSlot. If there is one, the event is assigned to it.
+     * Looks for any empty ParkingSlot. If there is one, the event is assigned to it. An event which asks for
+     * energy needs a ParkingSlot with inductive charging enabled. An event which only parks prefers
+     * the ParkingSlot objects without inductive charging.
      * @param event The event that looks for a ParkingSlot.
      * @return The ParkingSLot that was assigned, or null if not any available ParkingSlot found.
      */
     public ParkingSlot assignParkingSlot(final ParkingEvent event) {
-        lock7.lock();
-        int i = 0;
-        ParkingSlot ch = null;
-        boolean flag = false;
-        try {
-            if (parkingSlots.size() != 0)
-                while (!flag && i < parkingSlots.size()) {
-                    if (parkingSlots.get(i).getParkingEvent() == null) {
-                        if (event.getAmountOfEnergy() > 0) {
-                            if (parkingSlots.get(i).getInSwitch()) {
-                                parkingSlots.get(i).setParkingEvent(event);
-                                flag = true;
-                                ch = parkingSlots.get(i);
-                                event.setParkingSlot(parkingSlots.get(i));
-                            }
-                        } else {
-                            parkingSlots.get(i).setParkingEvent(event);
-                            flag = true;
-                            ch = parkingSlots.get(i);
-                            event.setParkingSlot(parkingSlots.get(i));
-                        }
-                    }
-                    ++i;
-                }
-        } finally {
-            lock7.unlock();
+        ParkingSlot ch;
+        if (event.getAmountOfEnergy() <= 0)
+            while ((ch = idleParkingSlots.take()) != null)
+                if (claimParkingSlot(ch, event))
+                    return ch;
+        while ((ch = idleInductiveSlots.take()) != null) {
+            if (!ch.getInSwitch()) {
+                updateParkingSlot(ch);
+                continue;
+            }
+            if (claimParkingSlot(ch, event))
+                return ch;
+        }
+        return null;
+    }
+
+    /**
+     * Assigns a ParkingEvent to a ParkingSlot taken from a pool, if the ParkingSlot is still empty.
+     * @param slot The ParkingSlot.
+     * @param event The ParkingEvent.
+     * @return True if the event was assigned, false if not.
+     */
+    private boolean claimParkingSlot(final ParkingSlot slot, final ParkingEvent event) {
+        synchronized (slot) {
+            if (slot.getParkingEvent() == null) {
+                slot.setParkingEvent(event);
+                event.setParkingSlot(slot);
+                return true;
+            }
         }
-        return ch;
+        return false;
     }
 
     /**
      * Looks for any available Battery. If there is one and the remaining amount is greater than 0,
-     * the battery is returned.
+     * the battery is returned. The batteries which were found empty are kept aside, and they are checked
+     * again only when there is not any other Battery.
      * @param event The event that wants the battery.
      * @return The assigned Battery, or null if no Battery found.
      */
     public Battery assignBattery(final ChargingEvent event) {
         lock8.lock();
-        int i = 0;
-        Battery bat = null;
-        boolean flag = false;
         try {
-            if (batteries.size() != 0)
-                while (!flag && i < batteries.size()) {
-                    if (batteries.get(i).getRemAmount() > 0) {
-                        flag = true;
-                        bat = batteries.get(i);
-                        event.setBattery(batteries.remove(i));
+            Battery bat = takeBattery();
+            if (bat == null) {
+                Iterator<Battery> it = emptyBatteries.iterator();
+                while (it.hasNext()) {
+                    Battery b = it.next();
+                    if (b.getRemAmount() > 0) {
+                        it.remove();
+                        batteries.addLast(b);
                     }
-                    ++i;
                 }
+                bat = takeBattery();
+            }
+            if (bat != null)
+                event.setBattery(bat);
+            return bat;
         } finally {
             lock8.unlock();
         }
-        return bat;
+    }
+
+    /**
+     * Takes the first Battery with remaining amount of energy. The empty ones are moved aside.
+     * @return The Battery, or null if not any was found.
+     */
+    private Battery takeBattery() {
+        Battery bat;
+        while ((bat = batteries.pollFirst()) != null) {
+            if (bat.getRemAmount() > 0)
+                return bat;
+            emptyBatteries.addLast(bat);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the pool with the empty Charger objects of a kind of charging.
+     * @param kind The kind of charging.
+     * @return The pool, or null if the kind is not FAST or SLOW.
+     */
+    private IdlePool<Charger> getChargerPool(final EventKind kind) {
+        return kind == null ? null : idleChargers.get(kind);
+    }
+
+    /**
+     * @return The pools of the empty chargers, one for each kind of charging.
+     */
+    private static EnumMap<EventKind, IdlePool<Charger>> createPools() {
+        EnumMap<EventKind, IdlePool<Charger>> pools = new EnumMap<>(EventKind.class);
+        pools.put(EventKind.FAST, new IdlePool<>());
+        pools.put(EventKind.SLOW, new IdlePool<>());
+        return pools;
+    }
+
+    /**
+     * Inserts a Charger in the list of chargers and in the pool of its kind.
+     * @param charger The Charger.
+     */
+    private void indexCharger(final Charger charger) {
+        chargers.add(charger);
+        IdlePool<Charger> pool = getChargerPool(charger.getKind());
+        if (pool != null)
+            pool.add(charger, charger.getChargingEvent() == null);
+        invalidateBacklogs();
+    }
+
+    /**
+     * Takes an empty Charger of any kind.
+     * @return The Charger, or null if all the Charger objects are occupied.
+     */
+    Charger takeIdleCharger() {
+        for (IdlePool<Charger> pool : idleChargers.values()) {
+            Charger ch = pool.take();
+            if (ch != null)
+                return ch;
+        }
+        return null;
+    }
+
+    /**
+     * Puts a Charger back in the pool of the empty chargers. It is called when the Charger gets released.
+     * @param charger The Charger.
+     */
+    void releaseCharger(final Charger charger) {
+        IdlePool<Charger> pool = getChargerPool(charger.getKind());
+        if (pool == null)
+            return;
+        pool.release(charger);
+        backlogs.get(charger.getKind()).finished(charger);
+        notifyNetworks(charger.getKind());
+    }
+
+    /**
+     * Puts a DisCharger back in the pool of the empty dischargers.
+     * @param discharger The DisCharger.
+     */
+    void releaseDisCharger(final DisCharger discharger) {
+        idleDisChargers.release(discharger);
+        backlogs.get(EventKind.DISCHARGING).finished(discharger);
+        notifyNetworks(EventKind.DISCHARGING);
+    }
+
+    /**
+     * Puts an ExchangeHandler back in the pool of the empty exchange handlers.
+     * @param handler The ExchangeHandler.
+     */
+    void releaseExchangeHandler(final ExchangeHandler handler) {
+        idleExchangeHandlers.release(handler);
+        backlogs.get(EventKind.EXCHANGE).finished(handler);
+        notifyNetworks(EventKind.EXCHANGE);
+    }
+
+    /**
+     * Puts a ParkingSlot back in the pool of the empty parking slots, according to its inductive charging switch.
+     * @param slot The ParkingSlot.
+     */
+    void releaseParkingSlot(final ParkingSlot slot) {
+        if (slot.getInSwitch())
+            idleInductiveSlots.release(slot);
+        else
+            idleParkingSlots.release(slot);
+    }
+
+    /**
+     * Moves a ParkingSlot to the right pool, after a change of its inductive charging switch.
+     * @param slot The ParkingSlot.
+     */
+    void updateParkingSlot(final ParkingSlot slot) {
+        if (!idleParkingSlots.contains(slot) && !idleInductiveSlots.contains(slot))
+            return;
+        idleParkingSlots.remove(slot);
+        idleInductiveSlots.remove(slot);
+        if (slot.getInSwitch())
+            idleInductiveSlots.add(slot, slot.getParkingEvent() == null);
+        else
+            idleParkingSlots.add(slot, slot.getParkingEvent() == null);
     }
 
     /**
@@ -514,10 +722,10 @@ public class ChargingStation {
      * @param charger The Charger to be added.
      */
     public void addCharger(final Charger charger) {
-        chargers.add(charger);
-        if (charger.getKindOfCharging().equalsIgnoreCase("fast"))
+        indexCharger(charger);
+        if (charger.getKind() == EventKind.FAST)
             ++FAST_CHARGERS;
-        else if (charger.getKindOfCharging().equalsIgnoreCase("slow"))
+        else if (charger.getKind() == EventKind.SLOW)
             ++SLOW_CHARGERS;
     }
 
@@ -527,6 +735,8 @@ public class ChargingStation {
      */
     public void addDisCharger(final DisCharger discharger) {
         dischargers.add(discharger);
+        idleDisChargers.add(discharger, discharger.getDisChargingEvent() == null);
+        invalidateBacklogs();
     }
 
     /**
@@ -546,6 +756,10 @@ public class ChargingStation {
     public void addParkingSlot(final ParkingSlot slot)
     {
         parkingSlots.add(slot);
+        if (slot.getInSwitch())
+            idleInductiveSlots.add(slot, slot.getParkingEvent() == null);
+        else
+            idleParkingSlots.add(slot, slot.getParkingEvent() == null);
     }
 
     /**
@@ -574,7 +788,11 @@ public class ChargingStation {
         }
         else
             return;
-        n.add(source);
+        ledger.setOrder(getSources());
+        synchronized (n) {
+            n.add(source);
+            sourceVersion.incrementAndGet();
+        }
     }
 
     /**
@@ -582,26 +800,30 @@ public class ChargingStation {
      * @param source The EnergySource to be removed.
      */
     public void deleteEnergySource(final EnergySource source) {
-        n.remove(source);
+        synchronized (n) {
+            n.remove(source);
+            sourceVersion.incrementAndGet();
+        }
         if (source instanceof Solar) {
-            amounts.remove("Solar");
+            ledger.set("Solar", 0.0);
             sources.remove("Solar");
         } else if (source instanceof Wave) {
-            amounts.remove("Wave");
+            ledger.set("Wave", 0.0);
             sources.remove("Wave");
         } else if (source instanceof Wind) {
-            amounts.remove("Wind");
+            ledger.set("Wind", 0.0);
             sources.remove("Wind");
         } else if (source instanceof Hydroelectric) {
-            amounts.remove("Hydroelectric");
+            ledger.set("Hydroelectric", 0.0);
             sources.remove("Hydroelectric");
         } else if (source instanceof Nonrenewable) {
-            amounts.remove("Nonrenewable");
+            ledger.set("Nonrenewable", 0.0);
             sources.remove("Nonrenewable");
         } else if (source instanceof Geothermal) {
-            amounts.remove("Geothermal");
+            ledger.set("Geothermal", 0.0);
             sources.remove("Geothermal");
         }
+        ledger.setOrder(getSources());
     }
 
     /**
@@ -610,9 +832,12 @@ public class ChargingStation {
      */
     public void deleteCharger(final Charger charger)
     {
-
         chargers.remove(charger);
-        if (charger.getKindOfCharging().equalsIgnoreCase("fast"))
+        IdlePool<Charger> pool = getChargerPool(charger.getKind());
+        if (pool != null)
+            pool.remove(charger);
+        invalidateBacklogs();
+        if (charger.getKind() == EventKind.FAST)
             FAST_CHARGERS--;
         else
             SLOW_CHARGERS--;
@@ -625,6 +850,8 @@ public class ChargingStation {
     public void deleteDisCharger(final DisCharger disCharger)
     {
         dischargers.remove(disCharger);
+        idleDisChargers.remove(disCharger);
+        invalidateBacklogs();
     }
 
     /**
@@ -634,6 +861,8 @@ public class ChargingStation {
     public void deleteExchangeHandler(final ExchangeHandler exchangeHandler)
     {
         exchangeHandlers.remove(exchangeHandler);
+        idleExchangeHandlers.remove(exchangeHandler);
+        invalidateBacklogs();
     }
 
     /**
@@ -643,6 +872,8 @@ public class ChargingStation {
     public void deleteParkingSlot(final ParkingSlot parkingSlot)
     {
         parkingSlots.remove(parkingSlot);
+        idleParkingSlots.remove(parkingSlot);
+        idleInductiveSlots.remove(parkingSlot);
     }
 
     /**
@@ -651,6 +882,8 @@ public class ChargingStation {
      */
     public void addExchangeHandler(final ExchangeHandler handler) {
         exchangeHandlers.add(handler);
+        idleExchangeHandlers.add(handler, handler.getChargingEvent() == null);
+        invalidateBacklogs();
     }
 
     /**
@@ -658,7 +891,15 @@ public class ChargingStation {
      * @param battery The Battery is going to be added.
      */
     public void joinBattery(final Battery battery) {
-        batteries.add(battery);
+        lock8.lock();
+        try {
+            if (battery.getRemAmount() > 0)
+                batteries.addLast(battery);
+            else
+                emptyBatteries.addLast(battery);
+        } finally {
+            lock8.unlock();
+        }
     }
 
     /**
@@ -669,15 +910,25 @@ public class ChargingStation {
         sources.clear();
         for (int i = 0; i < energies.length; i++)
             sources.add(i, energies[i]);
+        ledger.setOrder(getSources());
     }
 
     /**
      * @return An array with the Battery for the battery exchange function.
      */
     public Battery[] getBatteries() {
-        Battery[] g = new Battery[batteries.size()];
-        batteries.forEach(bat -> g[batteries.indexOf(bat)] = bat);
-        return g;
+        lock8.lock();
+        try {
+            Battery[] g = new Battery[batteries.size() + emptyBatteries.size()];
+            int i = 0;
+            for (Battery bat : batteries)
+                g[i++] = bat;
+            for (Battery bat : emptyBatteries)
+                g[i++] = bat;
+            return g;
+        } finally {
+            lock8.unlock();
+        }
     }
 
     /**
@@ -686,7 +937,12 @@ public class ChargingStation {
      * @return True if the deletion was successfull, false if it was unsuccessfull.
      */
     public boolean deleteBattery(final Battery battery) {
-        return batteries.remove(battery);
+        lock8.lock();
+        try {
+            return batteries.remove(battery) || emptyBatteries.remove(battery);
+        } finally {
+            lock8.unlock();
+        }
     }
 
     /**
@@ -720,10 +976,14 @@ public class ChargingStation {
     }
 
     /**
+     * Copies the amounts of the energy sources. Changes in the returned HashMap do not affect the ChargingStation.
      * @return A HashMap with the amounts of each energy source.
      */
     public HashMap<String, Double> getMap() {
-        return amounts;
+        HashMap<String, Double> copy = new HashMap<>();
+        for (String s : getSources())
+            copy.put(s, ledger.get(s));
+        return copy;
     }
 
     /**
@@ -731,33 +991,67 @@ public class ChargingStation {
      * @return The energy of the source.
      */
     public double getSpecificAmount(final String source) {
-        if (!amounts.containsKey(source))
-            return 0.0;
-        return amounts.get(source);
+        return ledger.get(source);
     }
 
     /**
      * Sets an amount in a specific source.
      * @param source The source the energy will be added.
      * @param amount The amount of energy to be added.
+     * @throws IllegalArgumentException If the source is not one of "Solar", "Wind", "Geothermal", "Wave",
+     * "Hydroelectric", "Nonrenewable" or "Discharging".
      */
     public void setSpecificAmount(final String source, final double amount) {
-        lock1.lock();
-        try {
-            amounts.put(source, amount);
-        } finally {
-            lock1.unlock();
-        }
+        ledger.set(source, amount);
+    }
+
+    /**
+     * Adds an amount of energy to a specific source, in one atomic step.
+     * @param source The source the energy will be added.
+     * @param amount The amount of energy to be added.
+     * @throws IllegalArgumentException If the source is not a known source.
+     */
+    public void addSpecificAmount(final String source, final double amount) {
+        ledger.add(source, amount);
+    }
+
+    /**
+     * Reserves energy from the sources of the ChargingStation, in the order of getSources(). The energy stops
+     * being available at once. It is consumed when the EnergyReservation is committed, or it returns to the
+     * sources when the EnergyReservation is released. Concurrent callers never reserve the same energy.
+     * @param amount The amount of energy to be reserved.
+     * @return The EnergyReservation. Its amount is less than the given amount, if the station does not have enough.
+     */
+    public EnergyReservation reserveEnergy(final double amount) {
+        long[] parts = ledger.take(amount);
+        reserved.addAndGet(EnergyLedger.sum(parts));
+        return new EnergyReservation(this, parts);
     }
 
     /**
-     * @return The total energy of the ChargingStation.
+     * Closes an EnergyReservation.
+     * @param units The reserved fixed-point units.
+     * @param parts The units of each source to be given back, or null if the energy was consumed.
+     */
+    void settleReservation(final long units, final long[] parts) {
+        if (parts != null)
+            ledger.restore(parts);
+        reserved.addAndGet(-units);
+    }
+
+    /**
+     * @return The energy held by open reservations.
+     */
+    public double getReservedEnergy() {
+        return EnergyLedger.toEnergy(reserved.get());
+    }
+
+    /**
+     * @return The total energy of the ChargingStation, without the reserved energy. It is the energy which can
+     * still be reserved.
      */
     public double getTotalEnergy() {
-        double counter = 0;
-        for (String energy: getSources())
-            counter += getMap().get(energy);
-        return counter;
+        return ledger.getTotal();
     }
 
     /**
@@ -773,6 +1067,7 @@ public class ChargingStation {
      */
     public void setChargingRateFast(final double chargingRate) {
         chargingRateFast = chargingRate;
+        invalidateBacklogs();
     }
 
     /**
@@ -782,6 +1077,7 @@ public class ChargingStation {
      */
     public void setChargingRateSlow(final double chargingRate) {
         chargingRateSlow = chargingRate;
+        invalidateBacklogs();
     }
 
     /**
@@ -790,6 +1086,7 @@ public class ChargingStation {
      */
     public void setDisChargingRate(final double disChargingRat) {
         this.disChargingRate = disChargingRat;
+        invalidateBacklogs();
     }
 
     /**
@@ -948,21 +1245,61 @@ public class ChargingStation {
     }
 
     /**
-     * Sets the space for the next energy storage update.
+     * Sets the space for the next energy storage update. In automatic update mode the station is registered
+     * in its StorageUpdateScheduler, which updates the storage at once and then every "updateSpac" milliseconds.
+     * The space is measured by the Clock of the station and turned to real time by Clock.toRealTime(), so under
+     * a ScaledClock the updates follow the scaled time. The StorageUpdateScheduler itself ticks in real time:
+     * the virtual clock of a Simulation does not move with it, so a simulated station should rather call
+     * updateStorage() from its own completions.
      * @param updateSpac The time space in milliseconds.
      */
-    public void setUpdateSpace(final int updateSpac) {
-        if (timer != null) {
-            timer.cancel();
-            timer.purge(); }
+    public synchronized void setUpdateSpace(final int updateSpac) {
+        stopStorageUpdates();
         if (getUpdateMode() && updateSpac != 0) {
             this.updateSpace = updateSpac;
-            timer = new Timer(true);
-            timer.schedule(new CheckUpdate(), 0, this.updateSpace); }
+            registeredScheduler = getStorageUpdateScheduler();
+            registeredScheduler.register(this, Math.max(1, clock.toRealTime(updateSpac))); }
         else
             this.updateSpace = 0;
     }
 
+    /**
+     * Registers the station again in its StorageUpdateScheduler, if it is updated automatically, after a change of the Clock.
+     */
+    private synchronized void restartStorageUpdates() {
+        if (registeredScheduler != null)
+            setUpdateSpace(updateSpace);
+    }
+
+    /**
+     * Unregisters the station from the StorageUpdateScheduler it is registered in, if any.
+     */
+    private synchronized void stopStorageUpdates() {
+        if (registeredScheduler != null) {
+            registeredScheduler.unregister(this);
+            registeredScheduler = null;
+        }
+    }
+
+    /**
+     * Sets the StorageUpdateScheduler of the automatic storage updates. If the station is already
+     * updated automatically, it moves to the new scheduler.
+     * @param sched The StorageUpdateScheduler, or null for the shared one.
+     */
+    public synchronized void setStorageUpdateScheduler(final StorageUpdateScheduler sched) {
+        this.updateScheduler = sched;
+        if (registeredScheduler != null)
+            setUpdateSpace(updateSpace);
+    }
+
+    /**
+     * @return The StorageUpdateScheduler of the automatic storage updates. By default it is StorageUpdateScheduler.getShared().
+     */
+    public StorageUpdateScheduler getStorageUpdateScheduler() {
+        StorageUpdateScheduler sched = updateScheduler;
+        return sched != null ? sched : StorageUpdateScheduler.getShared();
+    }
+
     /**
      * Checks the batteries which are for battery exchange to confirm which of them
      * need charging. Then, it charges as many as available Charger objects there are.
@@ -972,7 +1309,7 @@ public class ChargingStation {
         ChargingEvent e;
         ElectricVehicle r;
         Driver driver;
-        for (Battery battery : batteries)
+        for (Battery battery : getBatteries())
             if (battery.getRemAmount() < battery.getCapacity()) {
                 r = new ElectricVehicle("Station");
                 r.setBattery(battery);
@@ -992,150 +1329,231 @@ public class ChargingStation {
      * @return The time an ElectricVehicle should wait, to be executed in milliseconds, or -1 if the asked function is not supported.
      */
     public long getWaitingTime(final String kind) {
-        long[] counter1 = new long[chargers.size()];
-        long[] counter2 = new long[exchangeHandlers.size()];
-        long[] counter3 = new long[dischargers.size()];
-        long min = -1;
-        int index = -1;
-        if ("slow".equalsIgnoreCase(kind) || "fast".equalsIgnoreCase(kind)) {
-            for (int i = 0; i < chargers.size(); i++) {
-                if (Objects.equals(kind, chargers.get(i).getKindOfCharging())) {
-                    if (chargers.get(i).getChargingEvent() != null) {
-                        if (min == -1) {
-                            min = chargers.get(i).getChargingEvent().getRemainingChargingTime();
-                            index = i;
-                        }
-                        long diff = chargers.get(i).getChargingEvent().getRemainingChargingTime();
-                        long counter = 0;
-                        if (chargers.get(i).planTime.size() != 0) {
-                            for (long time : chargers.get(i).planTime)
-                                counter += time;
-                            diff += counter;
-                        }
-                        if (min > diff) {
-                            min = diff;
-                            index = i;
-                        }
-                        counter1[i] = diff;
-                    } else
-                        return 0;
-                }
-            }
+        return getWaitingTime(EventKind.of(kind));
+    }
+
+    /**
+     * Calculates the waiting time the ElectricVehicle should wait and returning it in milliseconds.
+     * The waiting lists are projected onto the resources, which are kept in a Backlog for each kind.
+     * The Backlog is updated on each insertion in and removal from the head of the waiting list and each start
+     * or finish of a resource, and it is built again only after other changes.
+     * @param kind The kind of operation for which the waiting time should be calculated.
+     * @return The time an ElectricVehicle should wait, to be executed in milliseconds, or -1 if the asked function is not supported.
+     */
+    public long getWaitingTime(final EventKind kind) {
+        if (kind == null)
+            return -1;
+        if (kind != EventKind.PARKING) {
+            Backlog backlog = backlogs.get(kind);
+            WaitList<?> list = getWaitList(kind);
+            if (!backlog.isValid(list.getModifications()))
+                rebuildBacklog(kind, backlog, list);
+            return backlog.getWaitingTime(currentTime());
         }
-        else if ("exchange".equalsIgnoreCase(kind))
-            for (int i = 0; i < exchangeHandlers.size(); i++) {
-                if (exchangeHandlers.get(i).getChargingEvent() != null) {
-                    if (min == -1) {
-                        min = exchangeHandlers.get(i).getChargingEvent().getRemainingChargingTime();
-                        index = i;
-                    }
-                    long diff = exchangeHandlers.get(i).getChargingEvent().getRemainingChargingTime();
-                    if (min > diff) {
-                        min = diff;
-                        index = i;
-                    }
-                    counter2[i] = diff;
-                } else
-                    return 0;
-            }
-        else if ("discharging".equalsIgnoreCase(kind))
-            for (int i = 0; i < dischargers.size(); i++) {
-                if (dischargers.get(i).getDisChargingEvent() != null) {
-                    if (min == -1) {
-                        min = dischargers.get(i).getDisChargingEvent().getRemainingDisChargingTime();
-                        index = i;
-                    }
-                    long diff = dischargers.get(i).getDisChargingEvent().getRemainingDisChargingTime();
-                    if (min > diff) {
-                        min = diff;
-                        index = i;
-                    }
-                    counter3[i] = diff;
-                } else
-                    return 0;
-            }
-        else if ("parking".equalsIgnoreCase(kind)) {
-            for (ParkingSlot parkingSlot : parkingSlots) {
-                if (parkingSlot.getParkingEvent() != null) {
-                    if ((min == -1 && parkingSlot.getParkingEvent().getCondition().equals("charging")) ||
-                            (min > (parkingSlot.getParkingEvent().getRemainingChargingTime() +
-                                    parkingSlot.getParkingEvent().getParkingTime() -
-                                    parkingSlot.getParkingEvent().getChargingTime()) &&
-                                    parkingSlot.getParkingEvent().getCondition().equals("charging")))
-
-                        min = parkingSlot.getParkingEvent().getRemainingChargingTime() +
+        long min = -1;
+        for (ParkingSlot parkingSlot : parkingSlots) {
+            if (parkingSlot.getParkingEvent() != null) {
+                if ((min == -1 && parkingSlot.getParkingEvent().getState() == EventCondition.CHARGING) ||
+                        (min > (parkingSlot.getParkingEvent().getRemainingChargingTime() +
                                 parkingSlot.getParkingEvent().getParkingTime() -
-                                parkingSlot.getParkingEvent().getChargingTime();
+                                parkingSlot.getParkingEvent().getChargingTime()) &&
+                                parkingSlot.getParkingEvent().getState() == EventCondition.CHARGING))
 
-                    else if ((min == -1 && parkingSlot.getParkingEvent().getCondition().equals("parking")) ||
-                            (min > parkingSlot.getParkingEvent().getRemainingParkingTime() &&
-                                    parkingSlot.getParkingEvent().getCondition().equals("parking")))
+                    min = parkingSlot.getParkingEvent().getRemainingChargingTime() +
+                            parkingSlot.getParkingEvent().getParkingTime() -
+                            parkingSlot.getParkingEvent().getChargingTime();
 
-                        min = parkingSlot.getParkingEvent().getRemainingParkingTime();
-                } else
-                    return 0;
-            }
-            return min;
+                else if ((min == -1 && parkingSlot.getParkingEvent().getState() == EventCondition.PARKING) ||
+                        (min > parkingSlot.getParkingEvent().getRemainingParkingTime() &&
+                                parkingSlot.getParkingEvent().getState() == EventCondition.PARKING))
+
+                    min = parkingSlot.getParkingEvent().getRemainingParkingTime();
+            } else
+                return 0;
         }
-        else
-            return -1;
-        if (min == -1)
-            return min;
-        ChargingEvent e;
-        DisChargingEvent ey;
-        if ("fast".equalsIgnoreCase(kind)) {
-            WaitList o = this.fast;
-            for (int i = 0; i < o.getSize() ; i++) {
-                e = (ChargingEvent) o.get(i);
-                counter1[index] = counter1[index] + ((long) (e.getAmountOfEnergy() * 3600000 / chargingRateFast));
-                for (int j = 0; j < chargers.size(); j++)
-                    if ((counter1[j] < counter1[index]) && (counter1[j] != 0))
-                        index = j;
-            }
-            return counter1[index];
+        return min;
+    }
+
+    /**
+     * @return The Backlog objects of the kinds with a waiting list.
+     */
+    private static EnumMap<EventKind, Backlog> createBacklogs() {
+        EnumMap<EventKind, Backlog> map = new EnumMap<>(EventKind.class);
+        map.put(EventKind.FAST, new Backlog());
+        map.put(EventKind.SLOW, new Backlog());
+        map.put(EventKind.EXCHANGE, new Backlog());
+        map.put(EventKind.DISCHARGING, new Backlog());
+        return map;
+    }
+
+    /**
+     * @param kind The kind of the waiting list.
+     * @return The waiting list of the given kind, or null if there is not any.
+     */
+    private WaitList<?> getWaitList(final EventKind kind) {
+        if (kind == EventKind.DISCHARGING)
+            return discharging;
+        return getChargingList(kind);
+    }
+
+    /**
+     * @param kind The kind of the waiting list, FAST, SLOW or EXCHANGE.
+     * @return The waiting list of ChargingEvent objects of the given kind, or null if there is not any.
+     */
+    private WaitList<ChargingEvent> getChargingList(final EventKind kind) {
+        if (kind == null)
+            return null;
+        switch (kind) {
+            case FAST:
+                return fast;
+            case SLOW:
+                return slow;
+            case EXCHANGE:
+                return exchange;
+            default:
+                return null;
         }
-        if ("slow".equalsIgnoreCase(kind)) {
-            WaitList o = this.slow;
-            for (int i = 0; i < o.getSize() ; i++) {
-                e = (ChargingEvent) o.get(i);
-                counter1[index] = counter1[index] + ((long) (e.getAmountOfEnergy() * 3600000 / chargingRateSlow));
-                for (int j = 0; j < chargers.size(); j++)
-                    if ((counter1[j] < counter1[index]) && (counter1[j] != 0))
-                        index = j;
-            }
-            return counter1[index];
+    }
+
+    /**
+     * @param event A ChargingEvent of the waiting list.
+     * @return The time the event will occupy a Charger or an ExchangeHandler in milliseconds.
+     */
+    private long getDuration(final ChargingEvent event) {
+        if (event.getKind() == EventKind.EXCHANGE)
+            return timeOfExchange;
+        else if (event.getKind() == EventKind.FAST)
+            return (long) (event.getAmountOfEnergy() * 3600000 / chargingRateFast);
+        return (long) (event.getAmountOfEnergy() * 3600000 / chargingRateSlow);
+    }
+
+    /**
+     * Builds a Backlog from the beginning, reading the resources of the kind and the waiting list. The resources are
+     * read before the lock of the Backlog is taken, since a resource which finishes informs the Backlog while it holds
+     * its own lock; reading them under the lock of the Backlog could deadlock with it.
+     * @param kind The kind of the Backlog.
+     * @param backlog The Backlog.
+     * @param list The waiting list of the kind.
+     */
+    private void rebuildBacklog(final EventKind kind, final Backlog backlog, final WaitList<?> list) {
+        long epoch = backlog.getEpoch();
+        int mods = list.getModifications();
+        long now = currentTime();
+        Object[] resources;
+        if (kind == EventKind.EXCHANGE)
+            resources = getExchangeHandlers();
+        else if (kind == EventKind.DISCHARGING)
+            resources = getDisChargers();
+        else {
+            ArrayList<Charger> ofKind = new ArrayList<>();
+            for (Charger charger : getChargers())
+                if (charger.getKind() == kind)
+                    ofKind.add(charger);
+            resources = ofKind.toArray();
         }
-        if ("exchange".equalsIgnoreCase(kind)) {
-            for (int i = 0; i < this.exchange.getSize(); i++) {
-                counter2[index] = counter2[index] + timeOfExchange;
-                for (int j = 0; j < exchangeHandlers.size(); j++)
-                    if ((counter2[j] < counter2[index]) && (counter2[j] != 0))
-                        index = j;
+        boolean[] busy = new boolean[resources.length];
+        long[] finish = new long[resources.length];
+        for (int i = 0; i < resources.length; i++) {
+            Object r = resources[i];
+            if (r instanceof ExchangeHandler) {
+                ChargingEvent e = ((ExchangeHandler) r).getChargingEvent();
+                busy[i] = e != null;
+                finish[i] = e != null ? now + e.getRemainingChargingTime() : 0;
+            } else if (r instanceof DisCharger) {
+                DisChargingEvent e = ((DisCharger) r).getDisChargingEvent();
+                busy[i] = e != null;
+                finish[i] = e != null ? now + e.getRemainingDisChargingTime() : 0;
+            } else {
+                Charger charger = (Charger) r;
+                ChargingEvent e = charger.getChargingEvent();
+                busy[i] = e != null;
+                finish[i] = e != null ? now + e.getRemainingChargingTime() + charger.planLeft : now;
             }
-            return counter2[index];
         }
-        if ("discharging".equalsIgnoreCase(kind)) {
-            WaitList o = this.discharging;
-            for (int i = 0; i < o.getSize(); i++) {
-                ey = (DisChargingEvent) o.get(i);
-                counter3[index] = counter3[index] + ((long) (ey.getAmountOfEnergy() * 3600000 / disChargingRate));
-                for (int j = 0; j < dischargers.size(); j++)
-                    if ((counter3[j] < counter3[index]) && (counter3[j] != 0))
-                        index = j;
-            }
-            return counter3[index];
+        List<?> waiting = list.snapshot();
+        long[] durations = new long[waiting.size()];
+        int n = 0;
+        for (Object e : waiting) {
+            if (e instanceof ChargingEvent)
+                durations[n++] = getDuration((ChargingEvent) e);
+            else if (e instanceof DisChargingEvent)
+                durations[n++] = (long) (((DisChargingEvent) e).getAmountOfEnergy() * 3600000 / disChargingRate);
         }
-        return 0;
+        backlog.rebuild(epoch, mods, resources, busy, finish, now, Arrays.copyOf(durations, n));
+    }
+
+    /**
+     * Removes the first event of the waiting list of a kind, in order to be executed, and informs the Backlog.
+     * @param kind The kind of the waiting list.
+     * @return The first event, or null if the list is empty.
+     */
+    Object moveFirst(final EventKind kind) {
+        WaitList<?> list = getWaitList(kind);
+        if (list == null)
+            return null;
+        if (list instanceof PriorityWaitList)
+            return list.moveFirst();
+        Backlog backlog = backlogs.get(kind);
+        return list.moveFirst(mods -> backlog.dequeue(mods - 1, mods));
+    }
+
+    /**
+     * Informs the Backlog of the kind that a resource started an event.
+     * @param kind The kind of the resource.
+     * @param resource The Charger, DisCharger or ExchangeHandler.
+     * @param duration The duration of the event in milliseconds.
+     */
+    void startedWork(final EventKind kind, final Object resource, final long duration) {
+        Backlog backlog = kind != null ? backlogs.get(kind) : null;
+        if (backlog == null)
+            return;
+        backlog.started(resource, currentTime() + duration);
+        notifyNetworks(kind);
+    }
+
+    /**
+     * Marks all the Backlog objects as outdated, after a change of the resources, the rates or the Clock.
+     */
+    private void invalidateBacklogs() {
+        for (Backlog backlog : backlogs.values())
+            backlog.invalidate();
+        notifyNetworks(null);
+    }
+
+    /**
+     * Informs the StationNetwork objects the station belongs to, that the waiting time of a kind may have changed.
+     * @param kind The kind, or null for all the kinds.
+     */
+    private void notifyNetworks(final EventKind kind) {
+        if (networks.isEmpty())
+            return;
+        for (StationNetwork network : networks)
+            network.changed(this, kind);
+    }
+
+    /**
+     * Links the ChargingStation with a StationNetwork.
+     * @param network The StationNetwork.
+     */
+    void addNetwork(final StationNetwork network) {
+        networks.addIfAbsent(network);
+    }
+
+    /**
+     * Unlinks the ChargingStation from a StationNetwork.
+     * @param network The StationNetwork.
+     */
+    void removeNetwork(final StationNetwork network) {
+        networks.remove(network);
     }
 
     /**
      * @return An array with the EnergySource objects of the ChargingStation.
      */
     public EnergySource[] getEnergySources() {
-        EnergySource[] g = new EnergySource[n.size()];
-        for (int i = 0; i < n.size(); i++)
-            g[i] = n.get(i);
-        return g;
+        synchronized (n) {
+            return n.toArray(new EnergySource[0]);
+        }
     }
 
     /**
@@ -1144,6 +1562,7 @@ public class ChargingStation {
      */
     public void setTimeofExchange(final long time) {
         timeOfExchange = time;
+        invalidateBacklogs();
     }
 
     /**
@@ -1156,75 +1575,84 @@ public class ChargingStation {
     /**
      * Updates the storage of the ChargingStation with the new amounts of energy for each source.
      * The amount of energy is subtracted from the energy inventory for each EnergySource.
-     * For each source if the addition is non-zero, then in the next report will be a line.
-     * The line shows the EnergySource, the given amount of energy and the date the addition was
-     * made to the station.
+     * For each source if the addition is non-zero, it is appended to the EnergyLog of the station
+     * with the time of the station clock. The records are formatted only when a report is made.
      */
     public void updateStorage() {
-        double energy;
-        DateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
-        for (int j = 0; j < getEnergySources().length; j++) {
-            energy = getEnergySources()[j].popAmount();
-            if (energy != 0) {
-                if (getEnergySources()[j] instanceof Solar) {
-                    Calendar calendar = Calendar.getInstance();
-                    statistics.addEnergy("Solar, " + energy + ", " + dateFormat.format(calendar.getTime()));
-                    energy += getSpecificAmount("Solar");
-                    setSpecificAmount("Solar", energy);
-                } else if (getEnergySources()[j] instanceof Geothermal) {
-                    Calendar calendar = Calendar.getInstance();
-                    statistics.addEnergy("Geothermal, " + energy + ", " + dateFormat.format(calendar.getTime()));
-                    energy += getSpecificAmount("Geothermal");
-                    setSpecificAmount("Geothermal", energy);
-                } else if (getEnergySources()[j] instanceof Nonrenewable) {
-                    Calendar calendar = Calendar.getInstance();
-                    statistics.addEnergy("Nonrenewable, " + energy + ", " + dateFormat.format(calendar.getTime()));
-                    energy += getSpecificAmount("Nonrenewable");
-                    setSpecificAmount("Nonrenewable", energy);
-                } else if (getEnergySources()[j] instanceof Hydroelectric) {
-                    Calendar calendar = Calendar.getInstance();
-                    statistics.addEnergy("Hydroelectric, " + energy + ", " + dateFormat.format(calendar.getTime()));
-                    energy += getSpecificAmount("Hydroelectric");
-                    setSpecificAmount("Hydroelectric", energy);
-                } else if (getEnergySources()[j] instanceof Wave) {
-                    Calendar calendar = Calendar.getInstance();
-                    statistics.addEnergy("Wave, " + energy + ", " + dateFormat.format(calendar.getTime()));
-                    energy += getSpecificAmount("Wave");
-                    setSpecificAmount("Wave", energy);
-                } else if (getEnergySources()[j] instanceof Wind) {
-                    Calendar calendar = Calendar.getInstance();
-                    statistics.addEnergy("Wind, " + energy + ", " + dateFormat.format(calendar.getTime()));
-                    energy += getSpecificAmount("Wind");
-                    setSpecificAmount("Wind", energy);
-                }
+        Feeds f = feeds;
+        if (f == null || f.version != sourceVersion.get())
+            f = refreshFeeds();
+        long now = currentTime();
+        for (int j = 0; j < f.sources.length; j++) {
+            double energy = f.sources[j].popAmount(now);
+            if (energy != 0 && f.slots[j] != -1) {
+                energyLog.append(now, f.slots[j], energy);
+                ledger.add(f.slots[j], energy);
             }
         }
     }
 
+    /**
+     * Copies the energy sources and finds their slots in the ledger, for the next storage updates. The copy
+     * keeps the version of the sources it was taken at, so a copy which is published after a newer one, or
+     * while a source is added or deleted, is outdated and taken again at the next update.
+     * @return The copied sources.
+     */
+    private Feeds refreshFeeds() {
+        EnergySource[] src;
+        int version;
+        synchronized (n) {
+            src = n.toArray(new EnergySource[0]);
+            version = sourceVersion.get();
+        }
+        int[] slots = new int[src.length];
+        for (int i = 0; i < src.length; i++)
+            slots[i] = EnergyLedger.index(getSourceName(src[i]));
+        Feeds f = new Feeds(src, slots, version);
+        feeds = f;
+        return f;
+    }
+
+    /**
+     * @param source An EnergySource.
+     * @return The name of the kind of the source, e.g. "Solar", or null for an unknown kind.
+     */
+    private static String getSourceName(final EnergySource source) {
+        if (source instanceof Solar)
+            return "Solar";
+        else if (source instanceof Geothermal)
+            return "Geothermal";
+        else if (source instanceof Nonrenewable)
+            return "Nonrenewable";
+        else if (source instanceof Hydroelectric)
+            return "Hydroelectric";
+        else if (source instanceof Wave)
+            return "Wave";
+        else if (source instanceof Wind)
+            return "Wind";
+        return null;
+    }
+
+    /**
+     * @return The EnergyLog with the energy additions of the storage updates.
+     */
+    public EnergyLog getEnergyLog() {
+        return energyLog;
+    }
+
     /**
      * @return The current standing price for the charging function.
      */
     public double getCurrentPrice()
     {
-        double diff = System.currentTimeMillis() - timestamp;
-        if (getPricingPolicy() == null)
+        PricingPolicy polic = policy;
+        if (polic == null)
             return unitPrice;
-        else if (diff > policy.getDurationOfPolicy())
+        long diff = currentTime() - timestamp;
+        if (diff > polic.getDurationOfPolicy())
             return unitPrice;
         else
-            if (policy.getSpace() != 0)
-                return policy.getSpecificPrice((int) (diff / policy.getSpace()));
-            else
-            {
-                double accumulator = 0;
-                int counter = 0;
-                while (accumulator <= diff) {
-                    accumulator += policy.getSpecificTimeSpace(counter);
-                    if (accumulator <= diff)
-                        counter++;
-                }
-                return policy.getSpecificPrice(counter);
-            }
+            return polic.getPriceAt(diff);
     }
 
     /**
@@ -1234,33 +1662,15 @@ public class ChargingStation {
      */
     public double calculatePrice(final ChargingEvent event)
     {
-        if (policy == null)
-            if (!"exchange".equalsIgnoreCase(event.getKindOfCharging()))
+        PricingPolicy polic = policy;
+        long diff = currentTime() - timestamp;
+        if (polic == null || polic.getDurationOfPolicy() < diff)
+            if (event.getKind() != EventKind.EXCHANGE)
                 return event.getEnergyToBeReceived() * getUnitPrice();
             else
                 return getExchangePrice();
-        else if (policy.getDurationOfPolicy() < System.currentTimeMillis() - timestamp)
-            if (!"exchange".equalsIgnoreCase(event.getKindOfCharging()))
-                return event.getEnergyToBeReceived() * getUnitPrice();
-            else
-                return getExchangePrice();
-        else {
-            long diff = System.currentTimeMillis() - timestamp;
-            if (policy.getSpace() != 0) {
-                return event.getEnergyToBeReceived() * policy.getSpecificPrice((int) (diff / policy.getSpace()));
-            }
-            else {
-                double accumulator = 0;
-                int counter = 0;
-                while (accumulator <= diff)
-                {
-                    accumulator += policy.getSpecificTimeSpace(counter);
-                    if (accumulator <= diff)
-                        counter++;
-                }
-                return event.getEnergyToBeReceived() * policy.getSpecificPrice(counter);
-            }
-        }
+        else
+            return event.getEnergyToBeReceived() * polic.getPriceAt(diff);
     }
 
     /**
@@ -1275,23 +1685,21 @@ public class ChargingStation {
      * @param polic The policy to be linked with.
      */
     public void setPricingPolicy(final PricingPolicy polic) {
-        timestamp = System.currentTimeMillis();
+        timestamp = currentTime();
         this.policy = polic;
     }
 
     /**
-     * Sets the way the energy storage will become. If the update becomes automatically, then a Timer object
-     * starts. The Timer calls the updateStorage() function every "updateSpace" milliseconds.
+     * Sets the way the energy storage will become. If the update becomes automatically, then setUpdateSpace()
+     * registers the station in its StorageUpdateScheduler, which calls the updateStorage() function every
+     * "updateSpace" milliseconds.
      * @param update The way the update will become. False means manually, true means automatic.
      */
     public void setAutomaticUpdateMode(final boolean update) {
         if (!update) {
             this.automaticUpdate = false;
             this.updateSpace = 0;
-            if (timer != null) {
-                timer.cancel();
-                timer.purge();
-            }
+            stopStorageUpdates();
         }
         else
             this.automaticUpdate = true;
@@ -1307,9 +1715,11 @@ public class ChargingStation {
     /**
      * Generates a report with all the recent traffic in the charging station.
      * It also records the current situation of the station.
+     * The report is streamed to the file line by line.
      * @param filePath The absolute path where the user wants to save the report. The file has to be .txt.
+     * @throws IOException If the report cannot be written.
      */
-    public void genReport(final String filePath) {
+    public void genReport(final String filePath) throws IOException {
         statistics.generateReport(filePath);
     }
 
@@ -1329,237 +1739,557 @@ public class ChargingStation {
         return name;
     }
 
+    /**
+     * Sets the location of the ChargingStation on a plane, e.g. a projected map. A StationIndex which already
+     * holds the station has to be informed with its update() function.
+     * @param x The horizontal coordinate in kilometres.
+     * @param y The vertical coordinate in kilometres.
+     */
+    public void setLocation(final double x, final double y)
+    {
+        this.locationX = x;
+        this.locationY = y;
+    }
+
+    /**
+     * @return The horizontal coordinate of the ChargingStation in kilometres, or NaN if it has no location.
+     */
+    public double getLocationX()
+    {
+        return locationX;
+    }
+
+    /**
+     * @return The vertical coordinate of the ChargingStation in kilometres, or NaN if it has no location.
+     */
+    public double getLocationY()
+    {
+        return locationY;
+    }
+
+    /**
+     * @return True if a location has been set for the ChargingStation.
+     */
+    public boolean hasLocation()
+    {
+        return !Double.isNaN(locationX) && !Double.isNaN(locationY);
+    }
+
     /**
      * The method is responsible for the partial execution of a predefined plan of chargings. The plan is given through a text(.txt) file.
-     * There can only be only one simultaneous execution of a plan. We assume that there are adequate resources(energy and chargers)
-     * for the successful completion of the plan.
+     * There can only be only one simultaneous execution of a plan. The plan is read whole and checked before anything
+     * is executed: a broken plan, or a plan with more plans of chargers than empty chargers, is rejected with the line of the error,
+     * e.g. "line 12: unknown step \"xh\"", and then the chargers it took are given back and nothing is executed.
+     * The steps are not kept in memory: each Charger reads its own steps from the file as it executes them, and an event
+     * is created when the first step refers to it and forgotten after its last step. Only the energy and the number of steps
+     * of each event are kept, in primitive arrays.
+     * We assume that there is adequate energy for the successful completion of the plan.
      * @param filepath The file with plan of chargings.
      * @throws FileNotFoundException In case the file was not found.
+     * @throws PlanException If the plan is broken. The exception gives the line of the error.
+     * @throws IOException If the file cannot be read.
      */
-    public void execEvents(final String filepath) throws FileNotFoundException {
+    public void execEvents(final String filepath) throws IOException {
         if (!execEvents) {
             execEvents = true;
-            String line;
-            String[] tokens;
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(filepath), java.nio.charset.StandardCharsets.UTF_8))){
-                while ((line = in.readLine()) != null) {
-                    tokens = line.split(",");
-                    ElectricVehicle vehicle;
-                    if (tokens[0].equals("ev")) {
-                        vehicle = new ElectricVehicle("Station");
-                        vehicle.setDriver(new Driver("StationDriver"));
-                        ChargingEvent event = new ChargingEvent(this, vehicle, Double.parseDouble(tokens[1]), "partial");
-                        event.setEnergyToBeReceived(Double.parseDouble(tokens[1]));
-                        event.setCost(calculatePrice(event));
-                        event.setCondition("interrupted");
-                        events.add(event);
-                        double sdf;
-                        sdf = Double.parseDouble(tokens[1]);
-                        for (String s : sources) {
-                            if (sdf < amounts.get(s)) {
-                                double ert = amounts.get(s) - sdf;
-                                amounts.put(s, ert);
-                                break;
-                            } else {
-                                sdf -= amounts.get(s);
-                                amounts.put(s, 0.0);
-                            }
-                        }
-                    } else if (tokens[0].equals("de")) {
-                        boolean flag = false;
-                        int j = 0;
-                        while (!flag) {
-                            if (chargers.get(j).getChargingEvent() == null)
-                                flag = true;
-                            if (!flag)
-                                j++;
-                        }
-                        numberOfChargers.add(j);
-                        for (int i = 1; i < tokens.length; i++) {
-                            switch (tokens[i]) {
-                                case "ch":
-                                    if (chargers.get(j).planEvent.size() == 0)
-                                        chargers.get(j).setChargingEvent(events.get(Integer.parseInt(tokens[i + 1]) - 1));
-                                    chargers.get(j).planEvent.add(Integer.parseInt(tokens[i + 1]));
-                                    chargers.get(j).planTime.add(Long.parseLong(tokens[i + 2]));
-                                    break;
-                                case "int":
-                                    if (chargers.get(j).planEvent.size() == 0)
-                                        chargers.get(j).setChargingEvent(new ChargingEvent(this, null, 0, null));
-                                    chargers.get(j).planEvent.add(-1);
-                                    chargers.get(j).planTime.add(Long.parseLong(tokens[i + 1]));
-                                    break;
-                                default:
-                                    break;
-                            }
-                        }
-                    }
-                }
-            } catch (IOException e) {
-                System.out.println("Broken file");
+            try (PlanInput parser = openPlan(filepath)) {
+                loadPlan(parser);
+            } catch (IOException | RuntimeException e) {
+                execEvents = false;
+                throw e;
             }
+            if (numberOfChargers.isEmpty())
+                endPlan();
             numberOfChargers.forEach(e -> chargers.get(e).startCharger());
         }
     }
 
     /**
-     * Sets if the created threads are deamons or not.
-     *
-     * @param deam The value to be set. True means deamon, false not deamons.
+     * Checks a plan of chargings without executing it. The plan is read as a stream, so its size is not limited by the
+     * memory. Each step has to refer to an event of a previous line, and each plan of a Charger needs an empty Charger.
+     * @param filepath The file with plan of chargings.
+     * @throws PlanException If the plan is broken. The exception gives the line of the error.
+     * @throws IOException If the file cannot be read.
      */
-    public void setDeamon(final boolean deam) {
-        this.deamon = deam;
+    public void checkPlan(final String filepath) throws IOException {
+        try (PlanInput parser = openPlan(filepath)) {
+            checkPlan(parser);
+        }
     }
 
-    private class Statistics {
-        private final List<String> energyLog;
+    /**
+     * Compiles a text plan of chargings to a binary plan, which execEvents() and checkPlan() also accept. A binary plan
+     * has fixed-width records and it is memory-mapped, so a large plan starts much faster than its text version.
+     * @param textPath The file with the text plan.
+     * @param binaryPath The file of the binary plan. It is created, or truncated if it exists.
+     * @return The number of records of the binary plan.
+     * @throws PlanException If the text plan is broken. Then the binary plan is not created.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static long compilePlan(final String textPath, final String binaryPath) throws IOException {
+        return BinaryPlan.compile(textPath, binaryPath);
+    }
 
-        Statistics() {
-            energyLog = new ArrayList<>();
-        }
+    /**
+     * @param filepath The file with plan of chargings, in text or binary format.
+     * @return A PlanInput which reads the file.
+     * @throws FileNotFoundException In case the file was not found.
+     * @throws IOException If the file cannot be read.
+     */
+    private static PlanInput openPlan(final String filepath) throws IOException {
+        if (BinaryPlan.isBinary(filepath))
+            return new BinaryPlan(filepath);
+        return new PlanParser(filepath);
+    }
+
+    /**
+     * Reads a whole plan, checking its records and that there are enough empty chargers for it.
+     * @param parser The PlanInput of the plan.
+     * @throws IOException If the plan is broken or cannot be read.
+     */
+    private void checkPlan(final PlanInput parser) throws IOException {
+        int idle = 0;
+        for (IdlePool<Charger> pool : idleChargers.values())
+            idle += pool.getIdle();
+        int plans = 0;
+        PlanRecord record;
+        while ((record = parser.nextRecord()) != null)
+            if (record == PlanRecord.DE) {
+                if (++plans > idle)
+                    throw new PlanException(parser.getLine(), "no empty charger for the plan, " + idle + " chargers are empty");
+                while (parser.nextStep() != null)
+                    ;
+            }
+    }
 
-        void addEnergy(final String energy) {
-            energyLog.add(energy);
+    /**
+     * Gives back chargers which were taken for a plan, closing the steps they were given.
+     * @param taken The chargers.
+     */
+    private void releasePlans(final List<Charger> taken) {
+        for (Charger charger : taken) {
+            charger.closePlan();
+            if (charger.getChargingEvent() != null)
+                charger.setChargingEvent(null);
+            else
+                releaseCharger(charger);
         }
+    }
 
-        void generateReport(final String filePath) {
-            List<String> content = new ArrayList<>();
-            AtomicInteger counter = new AtomicInteger(0);
-            content.add("********************");
-            content.add("");
-            content.add("Id: " + id);
-            content.add("Name: " + name);
-            content.add("Remaining energy: " + getTotalEnergy());
-            content.add("Fast chargers: " + FAST_CHARGERS);
-            content.add("Slow chargers: " + SLOW_CHARGERS);
-            content.add("Dischargers: " + dischargers.size());
-            content.add("Exchange handlers: " + exchangeHandlers.size());
-            content.add("Parking slots: " + parkingSlots.size());
-            Consumer<ChargingEvent> consumer1 = e -> {
-                if ((e.getStation().getName().equals(name)) && (e.getCondition().equals("finished")) && (e.getKindOfCharging().equals("fast")))
-                    counter.incrementAndGet();
-            };
-            ChargingEvent.getChargingLog().forEach(consumer1);
-            content.add("Completed fast chargings: " + counter);
-            counter.set(0);
-            consumer1 = e -> {
-                if ((e.getStation().getName().equals(name)) && (e.getCondition().equals("finished")) && (e.getKindOfCharging().equals("slow")))
-                    counter.incrementAndGet();
-            };
-            ChargingEvent.getChargingLog().forEach(consumer1);
-            content.add("Completed slow chargings: " + counter);
-            counter.set(0);
-            Consumer<DisChargingEvent> consumer2 = e -> {
-                if ((e.getStation().getName().equals(name)) && (e.getCondition().equals("finished")))
-                    counter.incrementAndGet();
-            };
-            DisChargingEvent.getDischargingLog().forEach(consumer2);
-            content.add("Completed dischargings: " + counter);
-            counter.set(0);
-            Consumer<ChargingEvent> consumer3 = e -> {
-                if ((e.getStation().getName().equals(name)) && (e.getCondition().equals("finished")))
-                    counter.incrementAndGet();
-            };
-            ChargingEvent.getExchangeLog().forEach(consumer3);
-            content.add("Completed battery swappings: " + counter);
-            counter.set(0);
-            Consumer<ParkingEvent> consumer4 = e -> {
-                if ((e.getStation().getName().equals(name)) && (e.getCondition().equals("finished")))
-                    counter.incrementAndGet();
-            };
-            ParkingEvent.getParkLog().forEach(consumer4);
-            content.add("Completed parkings: " + counter);
-            content.add("Vehicles waiting for fast charging: " + fast.getSize());
-            content.add("Vehicles waiting for slow charging: " + slow.getSize());
-            content.add("Vehicles waiting for discharging: " + discharging.getSize());
-            content.add("Vehicles waiting for battery swapping: " + exchange.getSize());
-            content.add("Energy amounts: ");
-            for (String s : getSources())
-                content.add("  " + s + ": " + getSpecificAmount(s));
-            content.add("");
-            content.add("***Charging events***");
-            for (ChargingEvent ev : ChargingEvent.getChargingLog()) {
-                if (ev.getStation().getName().equals(name)) {
-                    content.add("");
-                    content.add("Id: " + ev.getId());
-                    content.add("Station name: " + ev.getStation().getName());
-                    content.add("Asking energy: " + ev.getAmountOfEnergy());
-                    content.add("Received energy: " + ev.getEnergyToBeReceived());
-                    content.add("Condition: " + ev.getCondition());
-                    content.add("Charging time: " + ev.getChargingTime());
-                    content.add("Waiting time: " + ev.getWaitingTime());
-                    content.add("Maximum waiting time: " + ev.getMaxWaitingTime());
-                    content.add("Cost: " + ev.getCost());
-                }
-            }
-            content.add("");
-            content.add("***Discharging events***");
-            for (DisChargingEvent ev : DisChargingEvent.getDischargingLog()) {
-                if (ev.getStation().getName().equals(name)) {
-                    content.add("");
-                    content.add("Id: " + ev.getId());
-                    content.add("Station name: " + ev.getStation().getName());
-                    content.add("Asking energy: " + ev.getAmountOfEnergy());
-                    content.add("Condition: " + ev.getCondition());
-                    content.add("Discharging time: " + ev.getDisChargingTime());
-                    content.add("Waiting time: " + ev.getWaitingTime());
-                    content.add("Maximum waiting time: " + ev.getMaxWaitingTime());
-                    content.add("Profit: " + ev.getProfit());
-                }
-            }
-            content.add("");
-            content.add("***Exchange events***");
-            for (ChargingEvent ev : ChargingEvent.getExchangeLog()) {
-                if (ev.getStation().getName().equals(name)) {
-                    content.add("");
-                    content.add("Id: " + ev.getId());
-                    content.add("Station name: " + ev.getStation().getName());
-                    content.add("Condition: " + ev.getCondition());
-                    content.add("Waiting time: " + ev.getWaitingTime());
-                    content.add("Maximum waiting time: " + ev.getMaxWaitingTime());
-                    content.add("Cost: " + ev.getCost());
+    /**
+     * Reads a plan and gives the plans of the chargers to empty chargers, taking a Charger for each of them. The steps of
+     * each plan of a Charger are checked here, but the Charger reads them again from its own PlanInput, which starts at
+     * the record of the plan, as it executes them. An "ev" record only keeps the energy of the event and the number of
+     * the steps which refer to it: the ChargingEvent is created when the first step refers to it. Events without any
+     * step are never created and reserve no energy. If the plan cannot be loaded whole, nothing of it is kept and the
+     * chargers are given back.
+     * @param parser The PlanInput of the plan.
+     * @throws IOException If the plan is broken, there is no empty Charger for a plan of a Charger, or the plan cannot be read.
+     */
+    private void loadPlan(final PlanInput parser) throws IOException {
+        double[] energies = new double[16];
+        int[] steps = new int[16];
+        ArrayList<Charger> taken = new ArrayList<>();
+        double needed = 0;
+        try {
+            PlanRecord record;
+            while ((record = parser.nextRecord()) != null) {
+                if (record == PlanRecord.EV) {
+                    if (parser.getEvents() > energies.length) {
+                        energies = Arrays.copyOf(energies, energies.length * 2);
+                        steps = Arrays.copyOf(steps, steps.length * 2);
+                    }
+                    energies[parser.getEvents() - 1] = parser.getEnergy();
+                    continue;
                 }
-            }
-            content.add("");
-            content.add("***Parking events***");
-            for (ParkingEvent ev : ParkingEvent.getParkLog()) {
-                if (ev.getStation().getName().equals(name)) {
-                    content.add("");
-                    content.add("Id: " + ev.getId());
-                    content.add("Station name: " + ev.getStation().getName());
-                    content.add("Amount of energy: " + ev.getAmountOfEnergy());
-                    content.add("Received energy: " + ev.getEnergyToBeReceived());
-                    content.add("Condition: " + ev.getCondition());
-                    content.add("Parking time: " + ev.getParkingTime());
-                    content.add("Charging time: " + ev.getChargingTime());
-                    content.add("Cost: " + ev.getCost());
+                Charger free = takeIdleCharger();
+                if (free == null)
+                    throw new PlanException(parser.getLine(), "no empty charger for the plan, " + taken.size() + " chargers are taken");
+                taken.add(free);
+                free.plan = parser.open(parser.getOffset(), parser.getLine(), parser.getEvents());
+                free.planLeft = 0;
+                PlanRecord step;
+                while ((step = parser.nextStep()) != null) {
+                    if (step == PlanRecord.CH && steps[parser.getEvent() - 1]++ == 0)
+                        needed += energies[parser.getEvent() - 1];
+                    free.planLeft += parser.getTime();
                 }
             }
-            content.add("");
-            content.add("***Energy additions***");
-            for (String s: energyLog) {
-                content.add("");
-                content.add(s);
+            planEnergies = energies;
+            planSteps = steps;
+            for (Charger charger : taken) {
+                if (charger.plan.nextRecord() != PlanRecord.DE || !charger.nextPlanStep())
+                    throw new PlanException(charger.plan.getLine(), "the plan of the charger changed while it was loaded");
+                charger.setChargingEvent(charger.planNumber != -1 ? getPlanEvent(charger.planNumber) : new ChargingEvent(this, null, 0, null));
             }
-            content.add("");
-            content.add("********************");
-            Writer writer = null;
-            try {
-                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filePath), "utf-8"));
-                for (String line : content) {
-                    line += System.getProperty("line.separator");
-                    writer.write(line);
-                }
-            } catch (IOException ignored) {
+        } catch (IOException | RuntimeException ex) {
+            events.clear();
+            planEnergies = null;
+            planSteps = null;
+            releasePlans(taken);
+            throw ex;
+        }
+        reserveEnergy(needed).commit();
+        for (Charger charger : taken)
+            numberOfChargers.add(chargers.indexOf(charger));
+    }
 
+    /**
+     * Returns an event of the running plan, creating it when the first step refers to it.
+     * @param number The number of the event, counting from 1.
+     * @return The ChargingEvent.
+     */
+    ChargingEvent getPlanEvent(final int number) {
+        return events.computeIfAbsent(number, n -> {
+            ChargingEvent event = createPlanEvent(planEnergies[n - 1]);
+            event.planSteps.set(planSteps[n - 1]);
+            return event;
+        });
+    }
+
+    /**
+     * Forgets the running plan, after its last Charger finished.
+     */
+    void endPlan() {
+        execEvents = false;
+        numberOfChargers.clear();
+        events.clear();
+        planEnergies = null;
+        planSteps = null;
+    }
+
+    /**
+     * @param energy The energy of an event of a plan.
+     * @return A new ChargingEvent of the plan, which waits for its first step.
+     */
+    private ChargingEvent createPlanEvent(final double energy) {
+        ElectricVehicle vehicle = new ElectricVehicle("Station");
+        vehicle.setDriver(new Driver("StationDriver"));
+        ChargingEvent event = new ChargingEvent(this, vehicle, energy, "partial");
+        event.setEnergyToBeReceived(energy);
+        event.setCost(calculatePrice(event));
+        event.setState(EventCondition.INTERRUPTED);
+        return event;
+    }
+
+    /**
+     * @return The EventHistory with the charging events of the ChargingStation.
+     */
+    public EventHistory<ChargingEvent> getChargingHistory() {
+        return chargingHistory;
+    }
+
+    /**
+     * @return The EventHistory with the battery exchange events of the ChargingStation.
+     */
+    public EventHistory<ChargingEvent> getExchangeHistory() {
+        return exchangeHistory;
+    }
+
+    /**
+     * @return The EventHistory with the discharging events of the ChargingStation.
+     */
+    public EventHistory<DisChargingEvent> getDisChargingHistory() {
+        return dischargingHistory;
+    }
+
+    /**
+     * @return The EventHistory with the parking events of the ChargingStation.
+     */
+    public EventHistory<ParkingEvent> getParkingHistory() {
+        return parkingHistory;
+    }
+
+    /**
+     * Returns how many events of a kind have finished in the ChargingStation. The counters are updated
+     * when the events change condition, so the query takes constant time.
+     * @param kind The kind of the events. It can be "fast", "slow", "exchange", "discharging" or "parking".
+     * @return The number of finished events.
+     */
+    public long getCompletedEvents(final String kind) {
+        return getCompletedEvents(EventKind.of(kind));
+    }
+
+    /**
+     * @param kind The kind of the events.
+     * @return The number of finished events of the kind.
+     */
+    public long getCompletedEvents(final EventKind kind) {
+        return counters.get(kind, EventCondition.FINISHED);
+    }
+
+    /**
+     * Returns how many events of a kind are currently in a condition.
+     * @param kind The kind of the events. It can be "fast", "slow", "exchange", "discharging" or "parking".
+     * @param condition The condition, e.g. "wait", "charging" or "finished".
+     * @return The number of events, or 0 for an unknown kind or condition.
+     */
+    public long getEventCount(final String kind, final String condition) {
+        return getEventCount(EventKind.of(kind), EventCondition.of(condition));
+    }
+
+    /**
+     * @param kind The kind of the events.
+     * @param condition The condition.
+     * @return The number of events of the kind which are currently in the condition, or 0 if either is null.
+     */
+    public long getEventCount(final EventKind kind, final EventCondition condition) {
+        return counters.get(kind, condition);
+    }
+
+    /**
+     * Updates the counters of the ChargingStation after a change of the condition of an event.
+     * @param kind The kind of the event.
+     * @param old The previous condition, or null for a new event.
+     * @param cond The new condition.
+     */
+    void countCondition(final EventKind kind, final EventCondition old, final EventCondition cond) {
+        counters.transition(kind, old, cond);
+    }
+
+    /**
+     * Sets how many events the ChargingStation keeps for each kind of event. The events are kept for the report
+     * of the station. By default the last EventHistory.DEFAULT_CAPACITY events of each kind are kept.
+     * @param capacity The maximum number of events of each kind. A value less than 1 means no limit.
+     * @param window The time window of the kept events in milliseconds. A value less than 1 means no limit.
+     */
+    public void setHistoryRetention(final int capacity, final long window) {
+        for (EventHistory<?> history : Arrays.asList(chargingHistory, exchangeHistory, dischargingHistory, parkingHistory)) {
+            history.setCapacity(capacity);
+            history.setWindow(window);
+        }
+    }
+
+    /**
+     * Runs the ChargingStation in discrete-event mode. The Charger, DisCharger, ExchangeHandler and ParkingSlot
+     * objects do not wait in a Thread, but their completions are inserted in the queue of the Simulation.
+     * The Clock of the station becomes the virtual clock of the Simulation.
+     * The preProcessing() and execution() functions of the events are used as before.
+     * @param sim The Simulation to be linked with, or null for the real-time mode.
+     */
+    public void setSimulation(final Simulation sim) {
+        invalidateBacklogs();
+        this.simulation = sim;
+        if (sim != null) {
+            this.scheduler = sim;
+            this.clock = sim.getClock();
+        }
+        else {
+            this.scheduler = new ThreadScheduler(this);
+            this.clock = WallClock.getInstance();
+        }
+        restartStorageUpdates();
+    }
+
+    /**
+     * Sets the Clock which all the time-dependent functions of the ChargingStation and its events read.
+     * A ScaledClock also shortens (or lengthens) the real waiting of the threads accordingly.
+     * @param clk The Clock to be set, or null for the WallClock.
+     */
+    public void setClock(final Clock clk) {
+        invalidateBacklogs();
+        if (clk != null)
+            this.clock = clk;
+        else
+            this.clock = WallClock.getInstance();
+        restartStorageUpdates();
+    }
+
+    /**
+     * @return The Clock of the ChargingStation.
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return The Simulation the ChargingStation is linked with, or null if it runs in real-time mode.
+     */
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Sets the WorkerScheduler which runs the completions of the Charger, DisCharger, ExchangeHandler and
+     * ParkingSlot objects. A WorkerPool lets many stations share a bounded number of threads, instead of
+     * starting a new Thread for every event.
+     * @param sched The WorkerScheduler to be set, or null for one new Thread per event.
+     */
+    public void setWorkerScheduler(final WorkerScheduler sched) {
+        if (sched instanceof Simulation)
+            setSimulation((Simulation) sched);
+        else {
+            if (simulation != null) {
+                this.clock = WallClock.getInstance();
+                restartStorageUpdates();
             }
-            finally {
-                if (writer != null)
-                    try {
-                        writer.close();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
+            invalidateBacklogs();
+            this.simulation = null;
+            if (sched != null)
+                this.scheduler = sched;
+            else
+                this.scheduler = new ThreadScheduler(this);
+        }
+    }
+
+    /**
+     * Sets if each charging, discharging, battery exchange and parking waits in a virtual Thread, instead of a
+     * platform Thread. Virtual threads are used only if the JVM supports them (Java 21 or later), otherwise
+     * a platform Thread is created for every event, as before.
+     * @param virtual True for virtual threads, false for platform threads.
+     */
+    public void setVirtualThreads(final boolean virtual) {
+        setWorkerScheduler(new ThreadScheduler(this, virtual));
+    }
+
+    /**
+     * @return True if the charging, discharging, battery exchange and parking events wait in virtual threads.
+     */
+    public boolean getVirtualThreads() {
+        WorkerScheduler sched = scheduler;
+        return (sched instanceof ThreadScheduler) && ((ThreadScheduler) sched).isVirtual();
+    }
+
+    /**
+     * @return The WorkerScheduler which runs the completions of the Charger, DisCharger, ExchangeHandler and ParkingSlot objects.
+     */
+    public WorkerScheduler getWorkerScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return The current time of the ChargingStation in milliseconds.
+     */
+    long currentTime() {
+        return clock.millis();
+    }
+
+    /**
+     * Schedules a task of a worker in the WorkerScheduler. The delay is converted to real time, unless
+     * the station runs in a Simulation.
+     * @param name The name of the worker.
+     * @param delay The delay in milliseconds of the Clock.
+     * @param task The task to be run when the delay passes.
+     * @param interruption The task to be run if the waiting is interrupted.
+     */
+    void schedule(final String name, final long delay, final Runnable task, final Runnable interruption) {
+        WorkerScheduler sched = scheduler;
+        if (sched instanceof Simulation)
+            sched.schedule(name, delay, task, interruption);
+        else
+            sched.schedule(name, clock.toRealTime(delay), task, interruption);
+    }
+
+    /**
+     * Sets if the created threads are deamons or not. It is valid only when one new Thread is created for every event.
+     * For a WorkerPool the deamon behaviour is chosen in its constructor.
+     *
+     * @param deam The value to be set. True means deamon, false not deamons.
+     * @deprecated Use setWorkerScheduler(new WorkerPool(threads, deamon)) instead.
+     */
+    @Deprecated
+    public void setDeamon(final boolean deam) {
+        this.deamon = deam;
+    }
+
+    private static class Feeds {
+        private final EnergySource[] sources;
+        private final int[] slots;
+        private final int version;
+
+        Feeds(final EnergySource[] src, final int[] slt, final int ver) {
+            this.sources = src;
+            this.slots = slt;
+            this.version = ver;
+        }
+    }
+
+    private class Statistics {
+        void generateReport(final String filePath) throws IOException {
+            try (ReportWriter out = new ReportWriter(filePath)) {
+                out.line("********************");
+                out.line("");
+                out.line("Id: ", id);
+                out.line("Name: ", name);
+                out.line("Remaining energy: ", getTotalEnergy());
+                out.line("Fast chargers: ", FAST_CHARGERS);
+                out.line("Slow chargers: ", SLOW_CHARGERS);
+                out.line("Dischargers: ", dischargers.size());
+                out.line("Exchange handlers: ", exchangeHandlers.size());
+                out.line("Parking slots: ", parkingSlots.size());
+                out.line("Completed fast chargings: ", getCompletedEvents(EventKind.FAST));
+                out.line("Completed slow chargings: ", getCompletedEvents(EventKind.SLOW));
+                out.line("Completed dischargings: ", getCompletedEvents(EventKind.DISCHARGING));
+                out.line("Completed battery swappings: ", getCompletedEvents(EventKind.EXCHANGE));
+                out.line("Completed parkings: ", getCompletedEvents(EventKind.PARKING));
+                out.line("Vehicles waiting for fast charging: ", fast.getSize());
+                out.line("Vehicles waiting for slow charging: ", slow.getSize());
+                out.line("Vehicles waiting for discharging: ", discharging.getSize());
+                out.line("Vehicles waiting for battery swapping: ", exchange.getSize());
+                out.line("Energy amounts: ");
+                for (String s : getSources())
+                    out.append("  ").append(s).append(": ").append(getSpecificAmount(s)).endLine();
+                out.line("");
+                out.line("***Charging events***");
+                chargingHistory.visit(ev -> {
+                    out.line("");
+                    out.line("Id: ", ev.getId());
+                    out.line("Station name: ", ev.getStation().getName());
+                    out.line("Asking energy: ", ev.getAmountOfEnergy());
+                    out.line("Received energy: ", ev.getEnergyToBeReceived());
+                    out.line("Condition: ", ev.getCondition());
+                    out.line("Charging time: ", ev.getChargingTime());
+                    out.line("Waiting time: ", ev.getWaitingTime());
+                    out.line("Maximum waiting time: ", ev.getMaxWaitingTime());
+                    out.line("Cost: ", ev.getCost());
+                });
+                out.line("");
+                out.line("***Discharging events***");
+                dischargingHistory.visit(ev -> {
+                    out.line("");
+                    out.line("Id: ", ev.getId());
+                    out.line("Station name: ", ev.getStation().getName());
+                    out.line("Asking energy: ", ev.getAmountOfEnergy());
+                    out.line("Condition: ", ev.getCondition());
+                    out.line("Discharging time: ", ev.getDisChargingTime());
+                    out.line("Waiting time: ", ev.getWaitingTime());
+                    out.line("Maximum waiting time: ", ev.getMaxWaitingTime());
+                    out.line("Profit: ", ev.getProfit());
+                });
+                out.line("");
+                out.line("***Exchange events***");
+                exchangeHistory.visit(ev -> {
+                    out.line("");
+                    out.line("Id: ", ev.getId());
+                    out.line("Station name: ", ev.getStation().getName());
+                    out.line("Condition: ", ev.getCondition());
+                    out.line("Waiting time: ", ev.getWaitingTime());
+                    out.line("Maximum waiting time: ", ev.getMaxWaitingTime());
+                    out.line("Cost: ", ev.getCost());
+                });
+                out.line("");
+                out.line("***Parking events***");
+                parkingHistory.visit(ev -> {
+                    out.line("");
+                    out.line("Id: ", ev.getId());
+                    out.line("Station name: ", ev.getStation().getName());
+                    out.line("Amount of energy: ", ev.getAmountOfEnergy());
+                    out.line("Received energy: ", ev.getEnergyToBeReceived());
+                    out.line("Condition: ", ev.getCondition());
+                    out.line("Parking time: ", ev.getParkingTime());
+                    out.line("Charging time: ", ev.getChargingTime());
+                    out.line("Cost: ", ev.getCost());
+                });
+                out.line("");
+                out.line("***Energy additions***");
+                int size = energyLog.getSize();
+                for (int i = 0; i < size; i++) {
+                    out.line("");
+                    out.append(energyLog.getSource(i)).append(", ").append(energyLog.getAmount(i)).append(", ")
+                            .appendTime(energyLog.getTime(i)).endLine();
+                }
+                out.line("");
+                out.line("********************");
             }
         }
     }
@@ -0,0 +1,18 @@
+package evlib.station;
+
+public interface Clock {
+
+    /**
+     * @return The current time of the Clock in milliseconds.
+     */
+    long millis();
+
+    /**
+     * Converts a duration of the Clock to the real time a Thread has to wait for it.
+     * @param duration The duration in milliseconds of the Clock.
+     * @return The real duration in milliseconds.
+     */
+    default long toRealTime(final long duration) {
+        return duration;
+    }
+}
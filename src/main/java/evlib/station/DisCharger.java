@@ -29,38 +29,47 @@ public class DisCharger
      * management of the waiting list.
      */
     public void startDisCharger() {
-        Thread running = new Thread(() -> {
-            try {
-                e.setDisChargingTime(e.getDisChargingTime());
-                Thread.sleep(e.getDisChargingTime());
-                e.getElectricVehicle().getBattery().setRemAmount(e.getElectricVehicle().getBattery().getRemAmount() - e.getAmountOfEnergy());
-                if (e.getElectricVehicle().getDriver() != null)
-                    e.getElectricVehicle().getDriver().setProfit(e.getElectricVehicle().getDriver().getProfit() + e.getProfit());
-                double energy = station.getMap().get("Discharging") + e.getAmountOfEnergy();
-                station.setSpecificAmount("Discharging", energy);
-                if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
-                    System.out.println("Discharging " + e.getId() + ", " + e.getStation().getName() + ", OK");
-                else
-                    System.out.println("Discharging " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
-                e.setCondition("finished");
-                synchronized (this) {
-                    setDisChargingEvent(null);
-                }
-                if (station.getQueueHandling())
-                    handleQueueEvents();
-            } catch (InterruptedException e1) {
-                System.out.println(name + " stopped");
-                synchronized (this) {
-                    setDisChargingEvent(null);
-                }
-            } catch (NullPointerException e2) {
-                System.out.println("not processed");
+        try {
+            e.setDisChargingTime(e.getDisChargingTime());
+            station.startedWork(EventKind.DISCHARGING, this, e.getDisChargingTime());
+            station.schedule("Discharger" + String.valueOf(id), e.getDisChargingTime(), this::finishDisCharging, this::stopDisCharger);
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * Completes the DisChargingEvent, when its discharging time has passed.
+     */
+    private void finishDisCharging() {
+        try {
+            e.getElectricVehicle().getBattery().setRemAmount(e.getElectricVehicle().getBattery().getRemAmount() - e.getAmountOfEnergy());
+            if (e.getElectricVehicle().getDriver() != null)
+                e.getElectricVehicle().getDriver().setProfit(e.getElectricVehicle().getDriver().getProfit() + e.getProfit());
+            station.addSpecificAmount("Discharging", e.getAmountOfEnergy());
+            if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
+                System.out.println("Discharging " + e.getId() + ", " + e.getStation().getName() + ", OK");
+            else
+                System.out.println("Discharging " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
+            e.setState(EventCondition.FINISHED);
+            synchronized (this) {
+                setDisChargingEvent(null);
             }
-        });
-        if (station.getDeamon())
-            running.setDaemon(true);
-        running.setName("Discharger" + String.valueOf(id));
-        running.start();
+            if (station.getQueueHandling())
+                handleQueueEvents();
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * Releases the DisCharger, when its waiting is interrupted.
+     */
+    private void stopDisCharger() {
+        System.out.println(name + " stopped");
+        synchronized (this) {
+            setDisChargingEvent(null);
+        }
     }
 
     /**
@@ -76,7 +85,10 @@ public class DisCharger
      * @param ev The DisChargingEvent to be linked with the DisCharger.
      */
     synchronized void setDisChargingEvent(final DisChargingEvent ev) {
+        boolean released = e != null && ev == null;
         this.e = ev;
+        if (released)
+            station.releaseDisCharger(this);
     }
 
     /**
@@ -93,8 +105,8 @@ public class DisCharger
      */
     private void handleQueueEvents()
     {
-        if (station.getDischarging().getSize() != 0) {
-            DisChargingEvent e = (DisChargingEvent) station.getDischarging().moveFirst();
+        DisChargingEvent e = (DisChargingEvent) station.moveFirst(EventKind.DISCHARGING);
+        if (e != null) {
             e.preProcessing();
             e.execution();
         }
@@ -2,9 +2,8 @@ package evlib.station;
 
 import evlib.ev.ElectricVehicle;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class DisChargingEvent {
     private int id;
@@ -14,12 +13,12 @@ public class DisChargingEvent {
     private DisCharger disCharger;
     private double amountOfEnergy;
     private long disChargingTime;
-    private String condition;
+    private final AtomicReference<EventCondition> condition = new AtomicReference<>(EventCondition.ARRIVED);
     private long waitingTime;
     private long maxWaitingTime;
     private long timestamp;
     private double profit;
-    private static final List<DisChargingEvent> dischargingLog = new ArrayList<>();
+    private long queuedTime = Long.MIN_VALUE;
 
     /**
      * Creates a new DisChargingEvent object. It assigns the value of "arrived" to the condition of the event.
@@ -32,8 +31,10 @@ public class DisChargingEvent {
         this.amountOfEnergy = amEnerg;
         this.station = stat;
         this.vehicle = veh;
-        this.condition = "arrived";
-        dischargingLog.add(this);
+        if (stat != null) {
+            stat.countCondition(EventKind.DISCHARGING, null, EventCondition.ARRIVED);
+            stat.getDisChargingHistory().record(this, stat.currentTime());
+        }
         this.disCharger = null;
     }
 
@@ -54,6 +55,21 @@ public class DisChargingEvent {
         return waitingTime;
     }
 
+    /**
+     * Records the time the event was inserted in a waiting list.
+     * @param time The time in milliseconds.
+     */
+    void setQueuedTime(final long time) {
+        this.queuedTime = time;
+    }
+
+    /**
+     * @return The time the event was inserted in a waiting list in milliseconds, or Long.MIN_VALUE if it never was.
+     */
+    long getQueuedTime() {
+        return queuedTime;
+    }
+
     /**
      * @return The ElectricVehicle of the ChargingEvent.
      */
@@ -71,36 +87,40 @@ public class DisChargingEvent {
     /**
      * Executes the pre-processing phase. Checks for any DisCharger
      * and calculates the discharging time. If there is not any empty DisCharger
-     * the DisChargingEvent object is inserted in the WaitingList.
+     * the DisChargingEvent object is inserted in the WaitingList. The event becomes "assigning" before it
+     * takes a DisCharger, so only one thread pre-processes it.
      */
     public void preProcessing()
     {
         if (station.getDisChargers().length == 0) {
-            setCondition("nonExecutable");
+            setState(EventCondition.NON_EXECUTABLE);
             return;
         }
         if (getElectricVehicle().getBattery().getActive()) {
-            if ((condition.equals("arrived")) || (condition.equals("wait"))) {
+            EventCondition current = condition.get();
+            if ((current == EventCondition.ARRIVED || current == EventCondition.WAIT)
+                    && compareAndSetState(current, EventCondition.ASSIGNING)) {
                 station.assignDisCharger(this);
                 if (disCharger != null) {
                     disChargingTime = (long) (amountOfEnergy * 3600000 / station.getDisChargingRate());
-                    setCondition("ready");
                     profit = amountOfEnergy * station.getDisUnitPrice();
+                    setState(EventCondition.READY);
                 }
                 else
-                    if(!condition.equals("wait")) {
+                    if (current != EventCondition.WAIT) {
                         maxWaitingTime = calDisWaitingTime();
                         if (maxWaitingTime < waitingTime && maxWaitingTime > -1) {
-                            if (!condition.equals("wait"))
-                                station.updateDisChargingQueue(this);
-                            setCondition("wait");
+                            setState(EventCondition.WAIT);
+                            station.updateDisChargingQueue(this);
                         } else
-                            setCondition("nonExecutable");
+                            setState(EventCondition.NON_EXECUTABLE);
                     }
+                    else
+                        setState(EventCondition.WAIT);
             }
         }
         else
-            setCondition("nonExecutable");
+            setState(EventCondition.NON_EXECUTABLE);
     }
 
     /**
@@ -109,18 +129,53 @@ public class DisChargingEvent {
      */
     public void execution()
     {
-        if (condition.equals("ready")) {
-            setCondition("discharging");
+        if (compareAndSetState(EventCondition.READY, EventCondition.DISCHARGING))
             disCharger.startDisCharger();
-        }
     }
 
     /**
      * Sets the condition of the DisChargingEvent.
-     * @param cond The condition to be set.
+     * @param cond The condition to be set, the name of an EventCondition, for example "charging". The case of the
+     * name does not matter.
+     * @throws IllegalArgumentException If the name is not the name of a condition.
      */
     public void setCondition(final String cond) {
-        this.condition = cond;
+        EventCondition c = EventCondition.of(cond);
+        if (c == null)
+            throw new IllegalArgumentException("Invalid condition: " + cond);
+        setState(c);
+    }
+
+    /**
+     * @return The condition of the DisChargingEvent as an EventCondition.
+     */
+    public EventCondition getState() {
+        return condition.get();
+    }
+
+    /**
+     * Sets the condition of the DisChargingEvent.
+     * @param cond The condition to be set.
+     */
+    public void setState(final EventCondition cond) {
+        EventCondition old = condition.getAndSet(cond);
+        if (station != null)
+            station.countCondition(EventKind.DISCHARGING, old, cond);
+    }
+
+    /**
+     * Changes the condition of the DisChargingEvent, only if it has the expected value. When two threads try to move the
+     * event from the same condition, only one of them succeeds.
+     * @param expect The expected condition.
+     * @param cond The new condition.
+     * @return True if the condition was changed, false if the event was not in the expected condition.
+     */
+    public boolean compareAndSetState(final EventCondition expect, final EventCondition cond) {
+        if (!condition.compareAndSet(expect, cond))
+            return false;
+        if (station != null)
+            station.countCondition(EventKind.DISCHARGING, expect, cond);
+        return true;
     }
 
     /**
@@ -148,15 +203,15 @@ public class DisChargingEvent {
     /**
      * @return The condition of the DisChargingEvent.
      */
-    public String getCondition() { return condition; }
+    public String getCondition() { return condition.get().getName(); }
 
     /**
      * @return The remaining discharging time in milliseconds.
      */
     public long getRemainingDisChargingTime() {
-        long diff = System.currentTimeMillis() - timestamp;
+        long diff = station.currentTime() - timestamp;
         long remainingDisChargingTime;
-        if ((disChargingTime - diff >= 0) && (condition.equals("discharging")))
+        if ((disChargingTime - diff >= 0) && (condition.get() == EventCondition.DISCHARGING))
             remainingDisChargingTime = disChargingTime - diff;
         else
             return 0;
@@ -168,7 +223,7 @@ public class DisChargingEvent {
      * @param disTime The time of discharging in milliseconds.
      */
     public void setDisChargingTime(final long disTime){
-        timestamp = System.currentTimeMillis();
+        timestamp = station.currentTime();
         this.disChargingTime = disTime;
     }
 
@@ -193,37 +248,7 @@ public class DisChargingEvent {
      * has no available DisCharger. The result is measured in milliseconds.
      */
     private long calDisWaitingTime() {
-        if (station.getDisChargers().length == 0)
-            return -1;
-        long[] counter1 = new long[station.getDisChargers().length];
-        long min = -1;
-        int index = -1;
-        for (int i = 0; i < station.getDisChargers().length; i++) {
-            if (station.getDisChargers()[i].getDisChargingEvent() != null) {
-                if (min == -1) {
-                    min = station.getDisChargers()[i].getDisChargingEvent().getRemainingDisChargingTime();
-                    index = i;
-                }
-                long diff = station.getDisChargers()[i].getDisChargingEvent().getRemainingDisChargingTime();
-                if (min > diff) {
-                    min = diff;
-                    index = i;
-                }
-                counter1[i] = diff;
-            }
-            else
-                return 0;
-        }
-        WaitList o = station.getDischarging();
-        DisChargingEvent e;
-        for (int i = 0; i < o.getSize(); i++) {
-            e = (DisChargingEvent) o.get(i);
-            counter1[index] = counter1[index] + ((long) (e.getAmountOfEnergy() * 3600000 / station.getDisChargingRate()));
-            for (int j = 0; j < station.getDisChargers().length; j++)
-                if ((counter1[j] < counter1[index]) && (counter1[j] != 0))
-                    index = j;
-        }
-        return counter1[index];
+        return station.getWaitingTime(EventKind.DISCHARGING);
     }
 
     /**
@@ -256,14 +281,6 @@ public class DisChargingEvent {
      */
     public void setProfit(final double prof) { this.profit = prof; }
 
-    /**
-     * Returns the list with all created discharging events.
-     * @return The list with all created discharging events.
-     */
-    public static List<DisChargingEvent> getDischargingLog() {
-        return dischargingLog;
-    }
-
     /**
      * Sets a discharger to the event.
      * @param dsch The discharger to be assigned.
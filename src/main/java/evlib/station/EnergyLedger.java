@@ -0,0 +1,192 @@
+package evlib.station;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class EnergyLedger {
+    /**
+     * The sources of energy a ChargingStation can store. The index of a name is the slot of the source in the ledger.
+     */
+    static final String[] SOURCES = { "Solar", "Wind", "Geothermal", "Wave", "Hydroelectric", "Nonrenewable", "Discharging" };
+    /**
+     * The number of fixed-point units in one unit of energy.
+     */
+    static final long SCALE = 1000000L;
+    private final AtomicLongArray amounts = new AtomicLongArray(SOURCES.length);
+    private final AtomicLong total = new AtomicLong();
+    private volatile int[] order = new int[0];
+
+    /**
+     * @param source The name of the source.
+     * @return The slot of the source, or -1 if it is not a known source.
+     */
+    static int index(final String source) {
+        for (int i = 0; i < SOURCES.length; i++)
+            if (SOURCES[i].equals(source))
+                return i;
+        return -1;
+    }
+
+    /**
+     * @param source The name of the source.
+     * @return The slot of the source.
+     * @throws IllegalArgumentException If the source is not a known source.
+     */
+    private static int slot(final String source) {
+        int i = index(source);
+        if (i == -1)
+            throw new IllegalArgumentException("Unknown energy source: " + source);
+        return i;
+    }
+
+    /**
+     * @param amount An amount of energy.
+     * @return The amount in fixed-point units.
+     */
+    static long toUnits(final double amount) {
+        return Math.round(amount * SCALE);
+    }
+
+    /**
+     * @param units An amount in fixed-point units.
+     * @return The amount of energy.
+     */
+    static double toEnergy(final long units) {
+        return (double) units / SCALE;
+    }
+
+    /**
+     * Sets the order in which the sources give their energy. Unknown names are skipped.
+     * @param sources The names of the sources, in dispatch order.
+     */
+    void setOrder(final String[] sources) {
+        int[] o = new int[sources.length];
+        int n = 0;
+        for (String s : sources) {
+            int i = index(s);
+            if (i != -1)
+                o[n++] = i;
+        }
+        int[] trimmed = new int[n];
+        System.arraycopy(o, 0, trimmed, 0, n);
+        this.order = trimmed;
+    }
+
+    /**
+     * @param source The name of the source.
+     * @return The energy of the source, or 0 for an unknown source.
+     */
+    double get(final String source) {
+        int i = index(source);
+        if (i == -1)
+            return 0.0;
+        return toEnergy(amounts.get(i));
+    }
+
+    /**
+     * Sets the energy of a source.
+     * @param source The name of the source.
+     * @param amount The new amount of energy.
+     * @throws IllegalArgumentException If the source is unknown, so the energy would be lost.
+     */
+    void set(final String source, final double amount) {
+        int i = slot(source);
+        long units = toUnits(amount);
+        long old = amounts.getAndSet(i, units);
+        total.addAndGet(units - old);
+    }
+
+    /**
+     * Adds energy to a source.
+     * @param source The name of the source.
+     * @param amount The energy to be added.
+     * @throws IllegalArgumentException If the source is unknown, so the energy would be lost.
+     */
+    void add(final String source, final double amount) {
+        add(slot(source), amount);
+    }
+
+    /**
+     * Adds energy to the source of a slot.
+     * @param slot The slot of the source.
+     * @param amount The energy to be added.
+     */
+    void add(final int slot, final double amount) {
+        long units = toUnits(amount);
+        amounts.addAndGet(slot, units);
+        total.addAndGet(units);
+    }
+
+    /**
+     * Takes energy from the sources, in dispatch order. Each source gives as much as it has, until the asked
+     * amount is covered. The amount is first claimed from the total, so two concurrent callers never take
+     * the same energy.
+     * @param amount The energy to be taken.
+     * @return The fixed-point units taken from each source, indexed like SOURCES. Their sum is less than the
+     * asked amount if the sources do not have enough.
+     */
+    long[] take(final double amount) {
+        long[] parts = new long[SOURCES.length];
+        long asked = toUnits(amount);
+        if (asked <= 0)
+            return parts;
+        long claimed;
+        long current;
+        do {
+            current = total.get();
+            claimed = Math.min(current, asked);
+            if (claimed <= 0)
+                return parts;
+        } while (!total.compareAndSet(current, current - claimed));
+        long remaining = claimed;
+        for (int i : order) {
+            long available;
+            long taken;
+            do {
+                available = amounts.get(i);
+                taken = Math.min(available, remaining);
+            } while (taken > 0 && !amounts.compareAndSet(i, available, available - taken));
+            if (taken > 0) {
+                parts[i] += taken;
+                remaining -= taken;
+            }
+            if (remaining == 0)
+                break;
+        }
+        if (remaining > 0)
+            total.addAndGet(remaining);
+        return parts;
+    }
+
+    /**
+     * Gives back energy to the sources it was taken from.
+     * @param parts The fixed-point units of each source, as they were returned by take().
+     */
+    void restore(final long[] parts) {
+        long sum = 0;
+        for (int i = 0; i < parts.length; i++)
+            if (parts[i] != 0) {
+                amounts.addAndGet(i, parts[i]);
+                sum += parts[i];
+            }
+        total.addAndGet(sum);
+    }
+
+    /**
+     * @param parts Fixed-point units of each source.
+     * @return The sum of the units.
+     */
+    static long sum(final long[] parts) {
+        long sum = 0;
+        for (long p : parts)
+            sum += p;
+        return sum;
+    }
+
+    /**
+     * @return The total energy of all the sources.
+     */
+    double getTotal() {
+        return toEnergy(total.get());
+    }
+}
@@ -0,0 +1,97 @@
+package evlib.station;
+
+public class EnergyLog {
+    private long[] times = new long[64];
+    private byte[] sources = new byte[64];
+    private double[] amounts = new double[64];
+    private int size;
+
+    /**
+     * Appends an addition of energy to the EnergyLog. The record is kept in primitive columns, so
+     * no object is created unless the columns have to grow.
+     * @param time The time of the addition in milliseconds.
+     * @param source The slot of the source, as it is given by EnergyLedger.index().
+     * @param amount The added energy.
+     */
+    synchronized void append(final long time, final int source, final double amount) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            long[] t = new long[capacity];
+            byte[] s = new byte[capacity];
+            double[] a = new double[capacity];
+            System.arraycopy(times, 0, t, 0, size);
+            System.arraycopy(sources, 0, s, 0, size);
+            System.arraycopy(amounts, 0, a, 0, size);
+            times = t;
+            sources = s;
+            amounts = a;
+        }
+        times[size] = time;
+        sources[size] = (byte) source;
+        amounts[size] = amount;
+        ++size;
+    }
+
+    /**
+     * @return The number of records.
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * @param index The place of the record.
+     * @return The time of the addition in milliseconds.
+     */
+    public synchronized long getTime(final int index) {
+        check(index);
+        return times[index];
+    }
+
+    /**
+     * @param index The place of the record.
+     * @return The name of the source, e.g. "Solar".
+     */
+    public synchronized String getSource(final int index) {
+        check(index);
+        return EnergyLedger.SOURCES[sources[index]];
+    }
+
+    /**
+     * @param index The place of the record.
+     * @return The added energy.
+     */
+    public synchronized double getAmount(final int index) {
+        check(index);
+        return amounts[index];
+    }
+
+    /**
+     * @param source The name of the source.
+     * @return The total energy added by the source.
+     */
+    public synchronized double getTotal(final String source) {
+        int slot = EnergyLedger.index(source);
+        double total = 0;
+        for (int i = 0; i < size; i++)
+            if (sources[i] == slot)
+                total += amounts[i];
+        return total;
+    }
+
+    /**
+     * Removes all the records.
+     */
+    public synchronized void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param index The place of a record.
+     * @throws IndexOutOfBoundsException If there is not any record in the place.
+     */
+    private void check(final int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+}
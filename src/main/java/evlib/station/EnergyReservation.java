@@ -0,0 +1,57 @@
+package evlib.station;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class EnergyReservation {
+    private final ChargingStation station;
+    private final long[] parts;
+    private final long units;
+    private final AtomicBoolean open = new AtomicBoolean(true);
+
+    /**
+     * Creates a new EnergyReservation. The energy has already been taken from the sources of the station.
+     * @param stat The ChargingStation the energy was taken from.
+     * @param parts The fixed-point units taken from each source.
+     */
+    EnergyReservation(final ChargingStation stat, final long[] parts) {
+        this.station = stat;
+        this.parts = parts;
+        this.units = EnergyLedger.sum(parts);
+    }
+
+    /**
+     * @return The reserved energy.
+     */
+    public double getAmount() {
+        return EnergyLedger.toEnergy(units);
+    }
+
+    /**
+     * @return True if the EnergyReservation has been neither committed nor released.
+     */
+    public boolean isOpen() {
+        return open.get();
+    }
+
+    /**
+     * Marks the reserved energy as consumed. The energy does not return to the station.
+     * @return True if the EnergyReservation was open, false if it had already been committed or released.
+     */
+    public boolean commit() {
+        if (!open.compareAndSet(true, false))
+            return false;
+        station.settleReservation(units, null);
+        return true;
+    }
+
+    /**
+     * Gives the reserved energy back to the sources of the station it was taken from.
+     * @return True if the EnergyReservation was open, false if it had already been committed or released.
+     */
+    public boolean release() {
+        if (!open.compareAndSet(true, false))
+            return false;
+        station.settleReservation(units, parts);
+        return true;
+    }
+}
@@ -0,0 +1,47 @@
+package evlib.station;
+
+public enum EventCondition {
+    ARRIVED("arrived"),
+    ASSIGNING("assigning"),
+    WAIT("wait"),
+    READY("ready"),
+    CHARGING("charging"),
+    SWAPPING("swapping"),
+    DISCHARGING("discharging"),
+    PARKING("parking"),
+    FINISHED("finished"),
+    NON_EXECUTABLE("nonExecutable"),
+    INTERRUPTED("interrupted");
+
+    private final String name;
+
+    EventCondition(final String nam) {
+        this.name = nam;
+    }
+
+    /**
+     * @return The name of the condition, as it is returned by the getCondition() functions of the events.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return True if the event does not change condition anymore, unless it is pre-processed again.
+     */
+    public boolean isFinal() {
+        return this == FINISHED || this == NON_EXECUTABLE;
+    }
+
+    /**
+     * Returns the EventCondition with the given name. The case of the name does not matter.
+     * @param nam The name of the condition, for example "charging".
+     * @return The EventCondition, or null if there is not any condition with this name.
+     */
+    public static EventCondition of(final String nam) {
+        for (EventCondition c : values())
+            if (c.name.equalsIgnoreCase(nam))
+                return c;
+        return null;
+    }
+}
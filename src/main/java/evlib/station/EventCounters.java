@@ -0,0 +1,48 @@
+package evlib.station;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.LongAdder;
+
+class EventCounters {
+    private final EnumMap<EventKind, EnumMap<EventCondition, LongAdder>> counters = new EnumMap<>(EventKind.class);
+
+    /**
+     * Creates the counters for all the kinds and conditions.
+     */
+    EventCounters() {
+        for (EventKind kind : EventKind.values()) {
+            EnumMap<EventCondition, LongAdder> adders = new EnumMap<>(EventCondition.class);
+            for (EventCondition cond : EventCondition.values())
+                adders.put(cond, new LongAdder());
+            counters.put(kind, adders);
+        }
+    }
+
+    /**
+     * Updates the counters after a change of the condition of an event. The event stops being counted in the
+     * previous condition and it is counted in the new one.
+     * @param kind The kind of the event, or null if it is not counted.
+     * @param old The previous condition of the event, or null for a new event.
+     * @param cond The new condition of the event.
+     */
+    void transition(final EventKind kind, final EventCondition old, final EventCondition cond) {
+        if (kind == null || old == cond)
+            return;
+        EnumMap<EventCondition, LongAdder> adders = counters.get(kind);
+        if (old != null)
+            adders.get(old).decrement();
+        if (cond != null)
+            adders.get(cond).increment();
+    }
+
+    /**
+     * @param kind The kind of the events.
+     * @param cond The condition.
+     * @return The number of events of the kind which are in the given condition.
+     */
+    long get(final EventKind kind, final EventCondition cond) {
+        if (kind == null || cond == null)
+            return 0;
+        return counters.get(kind).get(cond).sum();
+    }
+}
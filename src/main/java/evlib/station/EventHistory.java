@@ -0,0 +1,173 @@
+package evlib.station;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class EventHistory<T> {
+    public static final int DEFAULT_CAPACITY = 10000;
+    private final ArrayDeque<Entry<T>> events = new ArrayDeque<>();
+    private int capacity;
+    private long window;
+
+    private static class Entry<T> {
+        private final long time;
+        private final T event;
+
+        Entry(final long tim, final T ev) {
+            this.time = tim;
+            this.event = ev;
+        }
+    }
+
+    /**
+     * A function which is given the kept events one by one.
+     * @param <T> The type of the events.
+     * @param <E> The exception the function may throw.
+     */
+    public interface Visitor<T, E extends Exception> {
+        /**
+         * @param event A kept event.
+         * @throws E If the visit fails. Then the rest of the events are not visited.
+         */
+        void visit(T event) throws E;
+    }
+
+    /**
+     * Creates a new EventHistory, which keeps the last DEFAULT_CAPACITY events.
+     */
+    public EventHistory() {
+        this(DEFAULT_CAPACITY, 0);
+    }
+
+    /**
+     * Creates a new EventHistory. When an event is recorded, the oldest events are dropped until both limits are kept.
+     * @param cap The maximum number of events to be kept. A value less than 1 means no limit.
+     * @param win The time window in milliseconds. The events recorded earlier than the time of the last
+     * event minus the window are dropped. A value less than 1 means no limit.
+     */
+    public EventHistory(final int cap, final long win) {
+        this.capacity = cap;
+        this.window = win;
+    }
+
+    /**
+     * Records an event.
+     * @param event The event to be recorded.
+     * @param time The time of the event in milliseconds.
+     */
+    public synchronized void record(final T event, final long time) {
+        events.addLast(new Entry<>(time, event));
+        trim(time);
+    }
+
+    /**
+     * Removes an event from the EventHistory. The search starts from the latest event.
+     * @param event The event to be removed.
+     * @return True if the event was found, false if it was not.
+     */
+    public synchronized boolean remove(final T event) {
+        Iterator<Entry<T>> it = events.descendingIterator();
+        while (it.hasNext())
+            if (it.next().event == event) {
+                it.remove();
+                return true;
+            }
+        return false;
+    }
+
+    /**
+     * @param event The event to be checked.
+     * @return True if the event is kept in the EventHistory.
+     */
+    public synchronized boolean contains(final T event) {
+        for (Entry<T> e : events)
+            if (e.event == event)
+                return true;
+        return false;
+    }
+
+    /**
+     * Copies the kept events, from the oldest to the latest.
+     * @return A List with the events.
+     */
+    public synchronized List<T> snapshot() {
+        List<T> copy = new ArrayList<>(events.size());
+        for (Entry<T> e : events)
+            copy.add(e.event);
+        return copy;
+    }
+
+    /**
+     * Gives the kept events to a Visitor, from the oldest to the latest, without copying them. The events cannot
+     * be recorded or removed until the visit ends.
+     * @param visitor The Visitor.
+     * @param <E> The exception the Visitor may throw.
+     * @throws E If the Visitor fails.
+     */
+    public synchronized <E extends Exception> void visit(final Visitor<? super T, E> visitor) throws E {
+        for (Entry<T> e : events)
+            visitor.visit(e.event);
+    }
+
+    /**
+     * @return The number of kept events.
+     */
+    public synchronized int getSize() {
+        return events.size();
+    }
+
+    /**
+     * Removes all the events.
+     */
+    public synchronized void clear() {
+        events.clear();
+    }
+
+    /**
+     * Sets the maximum number of events to be kept. The oldest events are dropped immediately, if they are more.
+     * @param cap The maximum number of events. A value less than 1 means no limit.
+     */
+    public synchronized void setCapacity(final int cap) {
+        this.capacity = cap;
+        trim(events.isEmpty() ? 0 : events.peekLast().time);
+    }
+
+    /**
+     * @return The maximum number of events to be kept, or a value less than 1 for no limit.
+     */
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the time window of the kept events. The events older than the window, counting from
+     * the latest event, are dropped immediately.
+     * @param win The time window in milliseconds. A value less than 1 means no limit.
+     */
+    public synchronized void setWindow(final long win) {
+        this.window = win;
+        trim(events.isEmpty() ? 0 : events.peekLast().time);
+    }
+
+    /**
+     * @return The time window in milliseconds, or a value less than 1 for no limit.
+     */
+    public synchronized long getWindow() {
+        return window;
+    }
+
+    /**
+     * Drops the oldest events, until the limits are kept.
+     * @param now The time of the latest event in milliseconds.
+     */
+    private void trim(final long now) {
+        if (capacity > 0)
+            while (events.size() > capacity)
+                events.pollFirst();
+        if (window > 0)
+            while (!events.isEmpty() && events.peekFirst().time < now - window)
+                events.pollFirst();
+    }
+}
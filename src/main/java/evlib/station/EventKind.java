@@ -0,0 +1,34 @@
+package evlib.station;
+
+public enum EventKind {
+    FAST("fast"),
+    SLOW("slow"),
+    EXCHANGE("exchange"),
+    DISCHARGING("discharging"),
+    PARKING("parking");
+
+    private final String name;
+
+    EventKind(final String nam) {
+        this.name = nam;
+    }
+
+    /**
+     * @return The name of the kind, as it is used by the ChargingStation functions.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the EventKind with the given name. The case of the name does not matter.
+     * @param nam The name of the kind, for example "fast".
+     * @return The EventKind, or null if there is not any kind with this name.
+     */
+    public static EventKind of(final String nam) {
+        for (EventKind k : values())
+            if (k.name.equalsIgnoreCase(nam))
+                return k;
+        return null;
+    }
+}
@@ -58,7 +58,10 @@ public class ExchangeHandler
      */
     synchronized void setChargingEvent(final ChargingEvent event)
     {
+        boolean released = e != null && event == null;
         this.e = event;
+        if (released)
+            station.releaseExchangeHandler(this);
     }
 
     /**
@@ -76,45 +79,55 @@ public class ExchangeHandler
      * In the end, if the automatic queue's handling is activated the ExchangeHandler checks the WaitingList.
      */
     public void startExchangeHandler() {
-        Thread running = new Thread(() -> {
-            try {
-                e.setChargingTime(station.getTimeOfExchange());
-                Thread.sleep(e.getChargingTime());
-                station.joinBattery(e.getElectricVehicle().getBattery());
-                e.getElectricVehicle().setBattery(e.getGivenBattery());
-                if (e.getElectricVehicle().getDriver() != null)
-                    e.getElectricVehicle().getDriver().setDebt(e.getElectricVehicle().getDriver().getDebt() + station.calculatePrice(e));
-                if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
-                    System.out.println("Battery exchange " + e.getId() + ", " + e.getStation().getName() + ", OK");
-                else
-                    System.out.println("Battery exchange " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
-                e.setCondition("finished");
-                synchronized (this) {
-                    setChargingEvent(null);
-                }
-                if (station.getQueueHandling())
-                    handleQueueEvents();
-            } catch (InterruptedException e1) {
-                synchronized (this) {
-                    setChargingEvent(null);
-                }
-                System.out.println(name + " stopped");
-            } catch (NullPointerException e2) {
-                System.out.println("not processed");
+        try {
+            e.setChargingTime(station.getTimeOfExchange());
+            station.startedWork(EventKind.EXCHANGE, this, e.getChargingTime());
+            station.schedule("ExchangeHandler" + String.valueOf(id), e.getChargingTime(), this::finishExchange, this::stopExchangeHandler);
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * Completes the battery exchange, when its duration has passed.
+     */
+    private void finishExchange() {
+        try {
+            station.joinBattery(e.getElectricVehicle().getBattery());
+            e.getElectricVehicle().setBattery(e.getGivenBattery());
+            if (e.getElectricVehicle().getDriver() != null)
+                e.getElectricVehicle().getDriver().setDebt(e.getElectricVehicle().getDriver().getDebt() + station.calculatePrice(e));
+            if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
+                System.out.println("Battery exchange " + e.getId() + ", " + e.getStation().getName() + ", OK");
+            else
+                System.out.println("Battery exchange " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
+            e.setState(EventCondition.FINISHED);
+            synchronized (this) {
+                setChargingEvent(null);
             }
-        });
-        if (station.getDeamon())
-            running.setDaemon(true);
-        running.setName("ExchangeHandler" + String.valueOf(id));
-        running.start();
+            if (station.getQueueHandling())
+                handleQueueEvents();
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * Releases the ExchangeHandler, when its waiting is interrupted.
+     */
+    private void stopExchangeHandler() {
+        synchronized (this) {
+            setChargingEvent(null);
+        }
+        System.out.println(name + " stopped");
     }
 
     /**
      * Handles the list. It executes the first(if any) ChargingEvent of the WaitingList.
      */
     private void handleQueueEvents() {
-        if (station.getExchange().getSize() != 0) {
-            ChargingEvent e = (ChargingEvent) station.getExchange().moveFirst();
+        ChargingEvent e = (ChargingEvent) station.moveFirst(EventKind.EXCHANGE);
+        if (e != null) {
             e.preProcessing();
             e.execution();
         }
@@ -0,0 +1,67 @@
+package evlib.station;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+class IdlePool<T> {
+    private final Set<T> registered = ConcurrentHashMap.newKeySet();
+    private final Set<T> queued = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedDeque<T> idle = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Registers a resource in the pool.
+     * @param resource The resource to be registered.
+     * @param free True if the resource is idle and can be taken immediately.
+     */
+    void add(final T resource, final boolean free) {
+        registered.add(resource);
+        if (free)
+            release(resource);
+    }
+
+    /**
+     * Unregisters a resource. It will not be taken from the pool anymore.
+     * @param resource The resource to be removed.
+     */
+    void remove(final T resource) {
+        registered.remove(resource);
+        queued.remove(resource);
+    }
+
+    /**
+     * @param resource The resource to be checked.
+     * @return True if the resource is registered in the pool.
+     */
+    boolean contains(final T resource) {
+        return registered.contains(resource);
+    }
+
+    /**
+     * Puts a registered resource back in the pool, when it becomes idle. Releasing a resource twice has no effect.
+     * @param resource The resource to be released.
+     */
+    void release(final T resource) {
+        if (registered.contains(resource) && queued.add(resource))
+            idle.offerLast(resource);
+    }
+
+    /**
+     * Takes the idle resource which was released first. Copies left behind by a removal are skipped.
+     * @return The resource, or null if there is not any idle resource.
+     */
+    T take() {
+        T resource;
+        while ((resource = idle.pollFirst()) != null)
+            if (queued.remove(resource) && registered.contains(resource))
+                return resource;
+        return null;
+    }
+
+    /**
+     * @return The number of idle resources.
+     */
+    int getIdle() {
+        return queued.size();
+    }
+}
@@ -0,0 +1,37 @@
+package evlib.station;
+
+public class ManualClock implements Clock {
+    private volatile long time;
+
+    /**
+     * Creates a new ManualClock starting from the given time. The time changes only through
+     * the setTime() and advance() functions.
+     * @param start The time the clock starts from in milliseconds.
+     */
+    public ManualClock(final long start) {
+        this.time = start;
+    }
+
+    /**
+     * @return The current time of the ManualClock in milliseconds.
+     */
+    public long millis() {
+        return time;
+    }
+
+    /**
+     * Sets the time of the ManualClock. It is synchronized with advance(), so neither of them is lost.
+     * @param tim The time in milliseconds.
+     */
+    public synchronized void setTime(final long tim) {
+        this.time = tim;
+    }
+
+    /**
+     * Moves the ManualClock forward.
+     * @param duration The duration in milliseconds.
+     */
+    public synchronized void advance(final long duration) {
+        this.time += duration;
+    }
+}
@@ -2,10 +2,8 @@ package evlib.station;
 
 import evlib.ev.ElectricVehicle;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ParkingEvent {
 
@@ -20,9 +18,9 @@ public class ParkingEvent {
     private double energyToBeReceived;
     private long timestamp1;
     private long timestamp2;
-    private String condition;
+    private final AtomicReference<EventCondition> condition = new AtomicReference<>(EventCondition.ARRIVED);
     private double cost;
-    private static final List<ParkingEvent> parkLog = new ArrayList<>();
+    private volatile EnergyReservation reservation;
 
     /**
      * Constructs a new ParkingEvent object. It sets the condition of the event to "arrived".
@@ -34,9 +32,11 @@ public class ParkingEvent {
         this.id = idGenerator.incrementAndGet();
         this.station = stat;
         this.vehicle = veh;
-        this.condition = "arrived";
         this.parkingTime = parkTime;
-        parkLog.add(this);
+        if (stat != null) {
+            stat.countCondition(EventKind.PARKING, null, EventCondition.ARRIVED);
+            stat.getParkingHistory().record(this, stat.currentTime());
+        }
         this.parkingSlot = null;
     }
 
@@ -56,9 +56,11 @@ public class ParkingEvent {
         this.vehicle = veh;
         this.station = stat;
         this.amountOfEnergy = amountOfEnerg;
-        this.condition = "arrived";
         this.parkingTime = parkTime;
-        parkLog.add(this);
+        if (stat != null) {
+            stat.countCondition(EventKind.PARKING, null, EventCondition.ARRIVED);
+            stat.getParkingHistory().record(this, stat.currentTime());
+        }
     }
 
     /**
@@ -79,14 +81,15 @@ public class ParkingEvent {
      * Executes the pre-processing phase. Checks for any ParkingSLot and assignes to it if any.
      * It calculates the energy to be given to the ElectricVehicle and calculates the charging time.
      * If there is not any empty ParkingSlot the ParkingEvent's condition is set "nonExecutable".
+     * The event becomes "assigning" before it takes a ParkingSlot, so only one thread pre-processes it.
      **/
     public void preProcessing() {
         if (station.getParkingSlots().length == 0) {
-            setCondition("nonExecutable");
+            setState(EventCondition.NON_EXECUTABLE);
             return;
         }
         if (vehicle.getBattery().getActive()) {
-            if (condition.equals("arrived")) {
+            if (compareAndSetState(EventCondition.ARRIVED, EventCondition.ASSIGNING)) {
                 station.assignParkingSlot(this);
                 if (parkingSlot != null) {
                     if (amountOfEnergy < station.getTotalEnergy()) {
@@ -105,27 +108,19 @@ public class ParkingEvent {
                         energyToBeReceived = parkingTime * station.getInductiveRate() / 3600000;
                         chargingTime = parkingTime;
                     }
-                    setCondition("ready");
-                    cost = station.getInductivePrice() * energyToBeReceived;
-                    double sdf;
-                    sdf = energyToBeReceived;
-                    HashMap<String, Double> keys = new HashMap<>(station.getMap());
-                    for (HashMap.Entry<String, Double> energy : keys.entrySet()) {
-                        if (energyToBeReceived < station.getMap().get(energy.getKey())) {
-                            double ert = station.getMap().get(energy.getKey()) - sdf;
-                            station.setSpecificAmount(energy.getKey(), ert);
-                            break;
-                        } else {
-                            sdf -= energy.getValue();
-                            station.setSpecificAmount(energy.getKey(), 0);
-                        }
+                    reservation = station.reserveEnergy(energyToBeReceived);
+                    if (reservation.getAmount() < energyToBeReceived) {
+                        energyToBeReceived = reservation.getAmount();
+                        chargingTime = (long) (energyToBeReceived * 3600000 / station.getInductiveRate());
                     }
+                    setState(EventCondition.READY);
+                    cost = station.getInductivePrice() * energyToBeReceived;
                 } else
-                    setCondition("nonExecutable");
+                    setState(EventCondition.NON_EXECUTABLE);
             }
         }
         else
-            setCondition("nonExecutable");
+            setState(EventCondition.NON_EXECUTABLE);
     }
 
     /**
@@ -133,16 +128,14 @@ public class ParkingEvent {
      */
     public void execution()
     {
-        if (condition.equals("ready"))
-            if (chargingTime != 0) {
-                setCondition("charging");
+        if (chargingTime != 0) {
+            if (compareAndSetState(EventCondition.READY, EventCondition.CHARGING)) {
                 vehicle.getBattery().addCharging();
                 parkingSlot.startParkingSlot();
             }
-            else {
-                setCondition("parking");
-                parkingSlot.startParkingSlot();
-            }
+        }
+        else if (compareAndSetState(EventCondition.READY, EventCondition.PARKING))
+            parkingSlot.startParkingSlot();
     }
 
     /**
@@ -171,9 +164,9 @@ public class ParkingEvent {
      * @return The remaining charging time of the ParkingEvent in milliseconds.
      */
     public long getRemainingChargingTime() {
-        long diff = System.currentTimeMillis() - timestamp1;
+        long diff = station.currentTime() - timestamp1;
         long remainingChargingTime;
-        if ((chargingTime - diff >= 0) && (condition.equals("charging")))
+        if ((chargingTime - diff >= 0) && (condition.get() == EventCondition.CHARGING))
             remainingChargingTime = chargingTime - diff;
         else
             return 0;
@@ -201,17 +194,53 @@ public class ParkingEvent {
      * @param time The charging time in milliseconds.
      */
     public void setChargingTime(final long time) {
-        timestamp1 = System.currentTimeMillis();
+        timestamp1 = station.currentTime();
         this.chargingTime = time;
     }
 
     /**
-     * Sets the condition of ParkingEvent.
-     * @param cond Value of the condition.
+     * Sets the condition of the ParkingEvent.
+     * @param cond The condition to be set, the name of an EventCondition, for example "charging". The case of the
+     * name does not matter.
+     * @throws IllegalArgumentException If the name is not the name of a condition.
      */
-    public void setCondition(final String cond)
-    {
-        this.condition = cond;
+    public void setCondition(final String cond) {
+        EventCondition c = EventCondition.of(cond);
+        if (c == null)
+            throw new IllegalArgumentException("Invalid condition: " + cond);
+        setState(c);
+    }
+
+    /**
+     * @return The condition of the ParkingEvent as an EventCondition.
+     */
+    public EventCondition getState() {
+        return condition.get();
+    }
+
+    /**
+     * Sets the condition of the ParkingEvent.
+     * @param cond The condition to be set.
+     */
+    public void setState(final EventCondition cond) {
+        EventCondition old = condition.getAndSet(cond);
+        if (station != null)
+            station.countCondition(EventKind.PARKING, old, cond);
+    }
+
+    /**
+     * Changes the condition of the ParkingEvent, only if it has the expected value. When two threads try to move the
+     * event from the same condition, only one of them succeeds.
+     * @param expect The expected condition.
+     * @param cond The new condition.
+     * @return True if the condition was changed, false if the event was not in the expected condition.
+     */
+    public boolean compareAndSetState(final EventCondition expect, final EventCondition cond) {
+        if (!condition.compareAndSet(expect, cond))
+            return false;
+        if (station != null)
+            station.countCondition(EventKind.PARKING, expect, cond);
+        return true;
     }
 
     /**
@@ -219,16 +248,16 @@ public class ParkingEvent {
      */
     public String getCondition()
     {
-        return condition;
+        return condition.get().getName();
     }
 
     /**
      * @return The remaining time the vehicle will be parked measured in milliseconds.
      */
     public long getRemainingParkingTime() {
-        long diff = System.currentTimeMillis() - timestamp2;
+        long diff = station.currentTime() - timestamp2;
         long remainingParkingTime;
-        if ((parkingTime - diff >= 0) && (condition.equals("parking")))
+        if ((parkingTime - diff >= 0) && (condition.get() == EventCondition.PARKING))
             remainingParkingTime = parkingTime - diff;
         else
             return 0;
@@ -240,7 +269,7 @@ public class ParkingEvent {
      * @param parkTime The parking time in milliseconds.
      */
     public void setParkingTime(final long parkTime) {
-        timestamp2 = System.currentTimeMillis();
+        timestamp2 = station.currentTime();
         this.parkingTime = parkTime;
     }
 
@@ -288,14 +317,6 @@ public class ParkingEvent {
      */
     public void setId(final int d) { this.id = d; }
 
-    /**
-     * Returns the list with created parking events.
-     * @return The list with created parking events.
-     */
-    public static List<ParkingEvent> getParkLog() {
-        return parkLog;
-    }
-
     /**
      * Sets a parking slot for the event.
      * @param slot The parkign slot to be assigned.
@@ -303,4 +324,29 @@ public class ParkingEvent {
     void setParkingSlot(ParkingSlot slot) {
         this.parkingSlot = slot;
     }
+
+    /**
+     * @return The EnergyReservation of the ParkingEvent, or null if no energy has been reserved.
+     */
+    public EnergyReservation getReservation() {
+        return reservation;
+    }
+
+    /**
+     * Commits the EnergyReservation of the ParkingEvent, if there is an open one.
+     */
+    void commitEnergy() {
+        EnergyReservation r = reservation;
+        if (r != null)
+            r.commit();
+    }
+
+    /**
+     * Releases the EnergyReservation of the ParkingEvent, if there is an open one. The energy returns to the station.
+     */
+    void releaseEnergy() {
+        EnergyReservation r = reservation;
+        if (r != null)
+            r.release();
+    }
 }
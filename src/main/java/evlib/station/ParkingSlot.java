@@ -48,44 +48,74 @@ public class ParkingSlot {
      * management of the waiting list.
      */
     public void startParkingSlot() {
-        Thread running = new Thread(() -> {
-            try {
-                e.setParkingTime(e.getParkingTime());
-                if (e.getCondition().equals("charging")) {
-                    e.setChargingTime(e.getChargingTime());
-                    Thread.sleep(e.getChargingTime());
-                    e.getElectricVehicle().getBattery().setRemAmount(e.getEnergyToBeReceived() + e.getElectricVehicle().getBattery().getRemAmount());
-                    if (e.getElectricVehicle().getDriver() != null)
-                        e.getElectricVehicle().getDriver().setDebt(e.getElectricVehicle().getDriver().getDebt() + e.getEnergyToBeReceived() * station.getInductivePrice());
-                    if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
-                        System.out.println("Charging " + e.getId() + ", " + e.getStation().getName() + ", OK");
-                    else
-                        System.out.println("Charging " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
-                }
-                e.setCondition("parking");
-                long diff = e.getParkingTime() - e.getChargingTime();
-                Thread.sleep(diff);
-                if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
-                    System.out.println("Parking " + e.getId() + ", " + e.getStation().getName() + ", OK");
-                else
-                    System.out.println("Parking " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
-                e.setCondition("finished");
-                synchronized (this) {
-                    setParkingEvent(null);
-                }
-            } catch (InterruptedException e1) {
-                synchronized (this) {
-                    setParkingEvent(null);
-                }
-                System.out.println(name + " stopped");
-            } catch (NullPointerException e2) {
-                System.out.println("not processed");
+        try {
+            e.setParkingTime(e.getParkingTime());
+            if (e.getState() == EventCondition.CHARGING) {
+                e.setChargingTime(e.getChargingTime());
+                station.schedule("ParkingSlot" + String.valueOf(id), e.getChargingTime(), this::finishCharging, this::stopParkingSlot);
+            } else {
+                e.releaseEnergy();
+                startParking();
             }
-        });
-        if (station.getDeamon())
-            running.setDaemon(true);
-        running.setName("ParkingSlot" + String.valueOf(id));
-        running.start();
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * Completes the inductive charging, when the charging time has passed. Then, the parking starts.
+     */
+    private void finishCharging() {
+        try {
+            e.getElectricVehicle().getBattery().setRemAmount(e.getEnergyToBeReceived() + e.getElectricVehicle().getBattery().getRemAmount());
+            if (e.getElectricVehicle().getDriver() != null)
+                e.getElectricVehicle().getDriver().setDebt(e.getElectricVehicle().getDriver().getDebt() + e.getEnergyToBeReceived() * station.getInductivePrice());
+            if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
+                System.out.println("Charging " + e.getId() + ", " + e.getStation().getName() + ", OK");
+            else
+                System.out.println("Charging " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
+            e.commitEnergy();
+            startParking();
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * The vehicle is considered to be parking for the rest of the parking time.
+     */
+    private void startParking() {
+        e.setState(EventCondition.PARKING);
+        long diff = e.getParkingTime() - e.getChargingTime();
+        station.schedule("ParkingSlot" + String.valueOf(id), diff, this::finishParking, this::stopParkingSlot);
+    }
+
+    /**
+     * Completes the ParkingEvent, when the parking time has passed.
+     */
+    private void finishParking() {
+        try {
+            if (e.getElectricVehicle().getDriver() == null && e.getElectricVehicle().getBrand() == null)
+                System.out.println("Parking " + e.getId() + ", " + e.getStation().getName() + ", OK");
+            else
+                System.out.println("Parking " + e.getId() + ", " + e.getElectricVehicle().getDriver().getName() + ", " + e.getElectricVehicle().getBrand() + ", " + e.getStation().getName() + ", OK");
+            e.setState(EventCondition.FINISHED);
+            synchronized (this) {
+                setParkingEvent(null);
+            }
+        } catch (NullPointerException e2) {
+            System.out.println("not processed");
+        }
+    }
+
+    /**
+     * Releases the ParkingSlot, when its waiting is interrupted.
+     */
+    private void stopParkingSlot() {
+        synchronized (this) {
+            setParkingEvent(null);
+        }
+        System.out.println(name + " stopped");
     }
 
     /**
@@ -105,6 +135,7 @@ public class ParkingSlot {
      */
     public void setInSwitch(final boolean inSwit) {
         this.inSwitch = inSwit;
+        station.updateParkingSlot(this);
     }
 
     /**
@@ -113,11 +144,17 @@ public class ParkingSlot {
     public synchronized ParkingEvent getParkingEvent() { return e; }
 
     /**
-     * Sets a ParkingEvent to the ParkingSlot.
+     * Sets a ParkingEvent to the ParkingSlot. When the ParkingSlot gets released, the energy the event reserved
+     * and did not commit returns to the station.
      * @param ev The ParkingEvent to be linked with the ParkingSlot.
      */
     synchronized void setParkingEvent(final ParkingEvent ev) {
+        ParkingEvent old = e;
         this.e = ev;
+        if (old != null && ev == null) {
+            old.releaseEnergy();
+            station.releaseParkingSlot(this);
+        }
     }
 
     /**
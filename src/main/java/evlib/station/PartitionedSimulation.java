@@ -0,0 +1,302 @@
+package evlib.station;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PartitionedSimulation {
+    private final ForkJoinPool pool;
+    private final long lookahead;
+    private final Partition[] partitions;
+    private final ConcurrentHashMap<ChargingStation, Partition> owners = new ConcurrentHashMap<>();
+    private final LongAdder transfers = new LongAdder();
+    private long windows;
+
+    private static class Partition {
+        private final int index;
+        private final Simulation simulation;
+        private final ConcurrentLinkedQueue<Arrival> inbox = new ConcurrentLinkedQueue<>();
+        private final AtomicLong sent = new AtomicLong();
+        private int stations;
+
+        Partition(final int ind, final long start) {
+            this.index = ind;
+            this.simulation = new Simulation(start);
+        }
+    }
+
+    private static class Arrival {
+        private final long time;
+        private final int source;
+        private final long sequence;
+        private final Runnable task;
+
+        Arrival(final long tim, final int src, final long seq, final Runnable tsk) {
+            this.time = tim;
+            this.source = src;
+            this.sequence = seq;
+            this.task = tsk;
+        }
+    }
+
+    private static final Comparator<Arrival> ARRIVAL_ORDER = Comparator.<Arrival>comparingLong(a -> a.time)
+            .thenComparingInt(a -> a.source).thenComparingLong(a -> a.sequence);
+
+    private static class Window extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+        private final List<Partition> due;
+        private final long end;
+
+        Window(final List<Partition> du, final long en) {
+            this.due = du;
+            this.end = en;
+        }
+
+        protected Integer compute() {
+            if (due.size() == 1)
+                return due.get(0).simulation.runDue(end);
+            List<ForkJoinTask<Integer>> tasks = new ArrayList<>(due.size());
+            for (Partition partition : due)
+                tasks.add(ForkJoinTask.adapt(() -> partition.simulation.runDue(end)));
+            int counter = 0;
+            for (ForkJoinTask<Integer> task : invokeAll(tasks))
+                counter += task.join();
+            return counter;
+        }
+    }
+
+    /**
+     * Creates a new PartitionedSimulation, which runs on the common ForkJoinPool.
+     * @param start The time the virtual clocks start from in milliseconds.
+     * @param parts The number of partitions.
+     * @param look The shortest travel time of a vehicle between two partitions in milliseconds.
+     */
+    public PartitionedSimulation(final long start, final int parts, final long look) {
+        this(start, parts, look, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new PartitionedSimulation. Each partition has its own Simulation, and the partitions advance in
+     * parallel in windows of virtual time. Since a vehicle needs at least the lookahead time to reach another
+     * partition, nothing a partition does in a window can affect another partition in the same window. The
+     * partitions meet only at the end of each window, where the arriving vehicles are handed over.
+     * @param start The time the virtual clocks start from in milliseconds.
+     * @param parts The number of partitions.
+     * @param look The shortest travel time of a vehicle between two partitions in milliseconds.
+     * @param pol The ForkJoinPool which advances the partitions.
+     */
+    public PartitionedSimulation(final long start, final int parts, final long look, final ForkJoinPool pol) {
+        if (parts <= 0)
+            throw new IllegalArgumentException("Invalid number of partitions: " + parts);
+        if (look <= 0)
+            throw new IllegalArgumentException("Invalid lookahead: " + look);
+        this.pool = pol;
+        this.lookahead = look;
+        this.partitions = new Partition[parts];
+        for (int i = 0; i < parts; i++)
+            partitions[i] = new Partition(i, start);
+    }
+
+    /**
+     * Adds a ChargingStation to the partition with the fewest stations.
+     * @param station The ChargingStation to be added.
+     * @return The index of the partition.
+     */
+    public synchronized int addStation(final ChargingStation station) {
+        Partition least = partitions[0];
+        for (Partition partition : partitions)
+            if (partition.stations < least.stations)
+                least = partition;
+        return addStation(station, least.index);
+    }
+
+    /**
+     * Adds a ChargingStation to a partition, which becomes the Simulation of the station. Stations which
+     * exchange many vehicles, e.g. the stations of a city, should be in the same partition.
+     * @param station The ChargingStation to be added.
+     * @param partition The index of the partition.
+     * @return The index of the partition.
+     */
+    public synchronized int addStation(final ChargingStation station, final int partition) {
+        Partition target = partitions[partition];
+        Partition old = owners.put(station, target);
+        if (old != null)
+            --old.stations;
+        ++target.stations;
+        station.setSimulation(target.simulation);
+        return partition;
+    }
+
+    /**
+     * @param station A ChargingStation.
+     * @return The index of the partition of the station, or -1 if the station is not in the PartitionedSimulation.
+     */
+    public int getPartition(final ChargingStation station) {
+        Partition partition = owners.get(station);
+        return partition == null ? -1 : partition.index;
+    }
+
+    /**
+     * @param partition The index of a partition.
+     * @return The Simulation of the partition.
+     */
+    public Simulation getSimulation(final int partition) {
+        return partitions[partition].simulation;
+    }
+
+    /**
+     * @return The number of partitions.
+     */
+    public int getPartitions() {
+        return partitions.length;
+    }
+
+    /**
+     * @return The lookahead in milliseconds.
+     */
+    public long getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * @return The number of vehicles which moved between two partitions.
+     */
+    public long getTransfers() {
+        return transfers.sum();
+    }
+
+    /**
+     * @return The number of windows the partitions advanced in parallel, which is the number of barriers.
+     */
+    public synchronized long getWindows() {
+        return windows;
+    }
+
+    /**
+     * @return The earliest virtual time of the partitions in milliseconds.
+     */
+    public long getTime() {
+        long time = Long.MAX_VALUE;
+        for (Partition partition : partitions)
+            time = Math.min(time, partition.simulation.getTime());
+        return time;
+    }
+
+    /**
+     * Moves a vehicle from a station to another. The task runs in the partition of the destination, when the
+     * virtual time of the origin plus the travel time is reached. The function can be called by a completion of
+     * the origin's partition, or before the PartitionedSimulation runs.
+     * @param from The ChargingStation the vehicle leaves.
+     * @param to The ChargingStation the vehicle goes to.
+     * @param travel The travel time in milliseconds.
+     * @param task The task to be run when the vehicle arrives, e.g. the creation of a ChargingEvent.
+     * @throws IllegalArgumentException If the stations are in different partitions and the travel time is shorter than the lookahead.
+     */
+    public void transfer(final ChargingStation from, final ChargingStation to, final long travel, final Runnable task) {
+        Partition source = getOwner(from);
+        Partition target = getOwner(to);
+        if (source == target) {
+            source.simulation.schedule("Transfer", travel, task, null);
+            return;
+        }
+        if (travel < lookahead)
+            throw new IllegalArgumentException("Travel time " + travel + " is shorter than the lookahead " + lookahead);
+        target.inbox.add(new Arrival(source.simulation.getTime() + travel, source.index, source.sent.getAndIncrement(), task));
+        transfers.increment();
+    }
+
+    /**
+     * Executes all the completions of all the partitions, including the ones they schedule, until no completion
+     * and no vehicle on the way remain.
+     * @return The number of executed completions.
+     */
+    public synchronized int run() {
+        return execute(Long.MAX_VALUE);
+    }
+
+    /**
+     * Executes all the completions that are due until the given time. In the end, the virtual clocks of all
+     * the partitions are set to the given time.
+     * @param until The time in milliseconds.
+     * @return The number of executed completions.
+     */
+    public synchronized int runUntil(final long until) {
+        int counter = execute(until);
+        for (Partition partition : partitions)
+            partition.simulation.runUntil(until);
+        return counter;
+    }
+
+    /**
+     * Advances the virtual clocks by the given time, executing all the completions that are due.
+     * @param duration The time in milliseconds.
+     * @return The number of executed completions.
+     */
+    public synchronized int advance(final long duration) {
+        return runUntil(getTime() + duration);
+    }
+
+    /**
+     * Advances the partitions window after window. A window starts at the earliest completion of all the
+     * partitions and lasts for the lookahead, so idle periods are skipped. Only the partitions with due
+     * completions take part in a window.
+     * @param until The time in milliseconds.
+     * @return The number of executed completions.
+     */
+    private int execute(final long until) {
+        int counter = 0;
+        while (true) {
+            deliver();
+            long next = Long.MAX_VALUE;
+            for (Partition partition : partitions)
+                next = Math.min(next, partition.simulation.getNextTime());
+            if (next == Long.MAX_VALUE || next > until)
+                return counter;
+            long end = Math.min(until, next > Long.MAX_VALUE - lookahead ? Long.MAX_VALUE : next + lookahead - 1);
+            List<Partition> due = new ArrayList<>();
+            for (Partition partition : partitions)
+                if (partition.simulation.getNextTime() <= end)
+                    due.add(partition);
+            counter += pool.invoke(new Window(due, end));
+            ++windows;
+        }
+    }
+
+    /**
+     * Hands the vehicles which reached other partitions in the last window over to the Simulation of their
+     * destination. The arrivals are ordered by time and origin, so the result does not depend on the threads.
+     */
+    private void deliver() {
+        for (Partition partition : partitions) {
+            if (partition.inbox.isEmpty())
+                continue;
+            List<Arrival> arrivals = new ArrayList<>();
+            Arrival arrival;
+            while ((arrival = partition.inbox.poll()) != null)
+                arrivals.add(arrival);
+            arrivals.sort(ARRIVAL_ORDER);
+            Simulation simulation = partition.simulation;
+            for (Arrival a : arrivals)
+                simulation.schedule("Transfer", a.time - simulation.getTime(), a.task, null);
+        }
+    }
+
+    /**
+     * @param station A ChargingStation.
+     * @return The partition of the station.
+     * @throws IllegalArgumentException If the station is not in the PartitionedSimulation.
+     */
+    private Partition getOwner(final ChargingStation station) {
+        Partition partition = owners.get(station);
+        if (partition == null)
+            throw new IllegalArgumentException("Station " + station.getName() + " is not in the simulation");
+        return partition;
+    }
+}
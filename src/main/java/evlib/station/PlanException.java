@@ -0,0 +1,25 @@
+package evlib.station;
+
+import java.io.IOException;
+
+public class PlanException extends IOException {
+    private static final long serialVersionUID = 1L;
+    private final long line;
+
+    /**
+     * Creates a new PlanException.
+     * @param lin The line (or record) of the plan where the error was found.
+     * @param message The description of the error.
+     */
+    public PlanException(final long lin, final String message) {
+        super("line " + lin + ": " + message);
+        this.line = lin;
+    }
+
+    /**
+     * @return The line (or record) of the plan where the error was found.
+     */
+    public long getLine() {
+        return line;
+    }
+}
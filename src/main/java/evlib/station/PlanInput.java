@@ -0,0 +1,63 @@
+package evlib.station;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+interface PlanInput extends Closeable {
+    /**
+     * Reads the next record. The steps of a DE record which were not read are skipped, without being checked.
+     * @return The kind of the record, EV or DE, or null at the end of the plan.
+     * @throws PlanException If the record is not valid.
+     * @throws IOException If the plan cannot be read.
+     */
+    PlanRecord nextRecord() throws IOException;
+
+    /**
+     * Reads the next step of the current DE record.
+     * @return The kind of the step, CH or INT, or null at the end of the record.
+     * @throws PlanException If the step is not valid, e.g. it refers to an event which is not defined.
+     * @throws IOException If the plan cannot be read.
+     */
+    PlanRecord nextStep() throws IOException;
+
+    /**
+     * @return The energy of the last EV record.
+     */
+    double getEnergy();
+
+    /**
+     * @return The number of the event of the last CH step, counting from 1.
+     */
+    int getEvent();
+
+    /**
+     * @return The time of the last CH or INT step in milliseconds.
+     */
+    long getTime();
+
+    /**
+     * @return The line (or record) of the plan which was read last.
+     */
+    long getLine();
+
+    /**
+     * @return The number of EV records which have been read.
+     */
+    int getEvents();
+
+    /**
+     * @return The position of the last record in the plan, which open() takes in order to read the record again.
+     */
+    long getOffset();
+
+    /**
+     * Opens the plan again at a record, so the steps of a DE record can be read while this PlanInput goes on
+     * with the next records. The new PlanInput is independent and it has to be closed on its own.
+     * @param offset The position of the record, as getOffset() gave it.
+     * @param line The line (or record) of the record.
+     * @param events The number of EV records before the record.
+     * @return A PlanInput whose nextRecord() reads the record.
+     * @throws IOException If the plan cannot be opened again.
+     */
+    PlanInput open(long offset, long line, int events) throws IOException;
+}
@@ -0,0 +1,271 @@
+package evlib.station;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+class PlanParser implements PlanInput {
+    private static final int MAX_FIELD = 64;
+    private final Reader in;
+    private final String path;
+    private final StringBuilder field = new StringBuilder(MAX_FIELD);
+    private int delimiter = '\n';
+    private long line;
+    private int events;
+    private boolean steps;
+    private int stepCount;
+    private double energy;
+    private int event;
+    private long time;
+    private long offset;
+    private long recordOffset;
+
+    /**
+     * Creates a new PlanParser. The plan is read field by field, so neither a whole line nor the whole
+     * plan is kept in memory. Each line is a record:
+     * "ev,energy" for a charging event, or "de,step,step,..." for the plan of a Charger, where each step
+     * is "ch,event,time" (charge the event with the given number for the time in milliseconds) or
+     * "int,time" (stay idle for the time in milliseconds). The events are numbered from 1 in the order
+     * of their records, and a step can only refer to an event defined in a previous line.
+     * @param reader The Reader of the plan.
+     */
+    PlanParser(final Reader reader) {
+        this(reader, null);
+    }
+
+    /**
+     * Creates a new PlanParser, which reads a UTF-8 file. Unlike a PlanParser of a Reader, it can open() the plan again.
+     * @param filePath The path of the plan.
+     * @throws java.io.FileNotFoundException If the file does not exist.
+     */
+    PlanParser(final String filePath) throws IOException {
+        this(new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8), filePath);
+    }
+
+    /**
+     * @param reader The Reader of the plan.
+     * @param filePath The path of the plan, or null if it cannot be opened again.
+     */
+    private PlanParser(final Reader reader, final String filePath) {
+        this.in = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        this.path = filePath;
+    }
+
+    /**
+     * Reads the next record. The steps of a DE record which were not read are skipped, without being checked.
+     * @return The kind of the record, EV or DE, or null at the end of the plan.
+     * @throws PlanException If the record is not valid.
+     * @throws IOException If the plan cannot be read.
+     */
+    public PlanRecord nextRecord() throws IOException {
+        while (delimiter == ',')
+            readField();
+        steps = false;
+        while (delimiter != -1) {
+            ++line;
+            recordOffset = offset;
+            readField();
+            if (field.length() == 0 && delimiter != ',')
+                continue;
+            String tag = field.toString();
+            if (tag.equals("ev")) {
+                energy = parseDouble("energy");
+                if (!(energy >= 0) || Double.isInfinite(energy))
+                    throw error("invalid energy " + energy);
+                if (delimiter == ',')
+                    throw error("too many fields in an ev record");
+                ++events;
+                return PlanRecord.EV;
+            }
+            if (tag.equals("de")) {
+                if (delimiter != ',')
+                    throw error("de record without steps");
+                steps = true;
+                stepCount = 0;
+                return PlanRecord.DE;
+            }
+            throw error("unknown record \"" + tag + "\"");
+        }
+        return null;
+    }
+
+    /**
+     * Reads the next step of the current DE record.
+     * @return The kind of the step, CH or INT, or null at the end of the record.
+     * @throws PlanException If the step is not valid, e.g. it refers to an event which is not defined.
+     * @throws IOException If the plan cannot be read.
+     */
+    public PlanRecord nextStep() throws IOException {
+        if (!steps || delimiter != ',') {
+            steps = false;
+            return null;
+        }
+        ++stepCount;
+        readField();
+        String tag = field.toString();
+        if (tag.equals("ch")) {
+            long number = parseLong("event");
+            if (number < 1 || number > events)
+                throw error("step " + stepCount + " refers to event " + number + ", which is not defined in a previous line");
+            event = (int) number;
+            time = parseLong("time");
+            if (time < 0)
+                throw error("negative time in step " + stepCount);
+            return PlanRecord.CH;
+        }
+        if (tag.equals("int")) {
+            time = parseLong("time");
+            if (time < 0)
+                throw error("negative time in step " + stepCount);
+            return PlanRecord.INT;
+        }
+        throw error("unknown step \"" + tag + "\"");
+    }
+
+    /**
+     * @return The energy of the last EV record.
+     */
+    public double getEnergy() {
+        return energy;
+    }
+
+    /**
+     * @return The number of the event of the last CH step, counting from 1.
+     */
+    public int getEvent() {
+        return event;
+    }
+
+    /**
+     * @return The time of the last CH or INT step in milliseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return The line of the last record.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    /**
+     * @return The number of EV records which have been read.
+     */
+    public int getEvents() {
+        return events;
+    }
+
+    /**
+     * @return The position of the line of the last record in the file, in bytes.
+     */
+    public long getOffset() {
+        return recordOffset;
+    }
+
+    /**
+     * Opens the file of the plan again at a line. The new PlanParser seeks to the line, without reading the lines before it.
+     * @param off The position of the line in bytes, as getOffset() gave it.
+     * @param lin The number of the line.
+     * @param evs The number of EV records before the line.
+     * @return A PlanParser whose nextRecord() reads the line.
+     * @throws IOException If the PlanParser reads a Reader, or the file cannot be opened.
+     */
+    public PlanParser open(final long off, final long lin, final int evs) throws IOException {
+        if (path == null)
+            throw new IOException("The plan cannot be opened again");
+        FileInputStream stream = new FileInputStream(path);
+        try {
+            stream.getChannel().position(off);
+        } catch (IOException ex) {
+            stream.close();
+            throw ex;
+        }
+        PlanParser parser = new PlanParser(new InputStreamReader(stream, StandardCharsets.UTF_8), path);
+        parser.offset = off;
+        parser.line = lin - 1;
+        parser.events = evs;
+        return parser;
+    }
+
+    /**
+     * Closes the Reader of the plan.
+     * @throws IOException If the Reader cannot be closed.
+     */
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads the next field of the current line. Spaces around the field are ignored.
+     * @throws PlanException If the field is longer than any valid field.
+     * @throws IOException If the plan cannot be read.
+     */
+    private void readField() throws IOException {
+        field.setLength(0);
+        int c;
+        while ((c = in.read()) != -1) {
+            offset += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate((char) c) ? 2 : 3;
+            if (c == ',' || c == '\n')
+                break;
+            if (c == '\r' || ((c == ' ' || c == '\t') && field.length() == 0))
+                continue;
+            if (field.length() == MAX_FIELD)
+                throw error("field is too long");
+            field.append((char) c);
+        }
+        int end = field.length();
+        while (end > 0 && (field.charAt(end - 1) == ' ' || field.charAt(end - 1) == '\t'))
+            --end;
+        field.setLength(end);
+        delimiter = c;
+    }
+
+    /**
+     * Reads the next field of the current line as a double.
+     * @param name The name of the field, for the error message.
+     * @return The value of the field.
+     * @throws PlanException If the field is missing or not a number.
+     * @throws IOException If the plan cannot be read.
+     */
+    private double parseDouble(final String name) throws IOException {
+        if (delimiter != ',')
+            throw error("missing " + name);
+        readField();
+        try {
+            return Double.parseDouble(field.toString());
+        } catch (NumberFormatException ex) {
+            throw error("invalid " + name + " \"" + field + "\"");
+        }
+    }
+
+    /**
+     * Reads the next field of the current line as a long.
+     * @param name The name of the field, for the error message.
+     * @return The value of the field.
+     * @throws PlanException If the field is missing or not an integer.
+     * @throws IOException If the plan cannot be read.
+     */
+    private long parseLong(final String name) throws IOException {
+        if (delimiter != ',')
+            throw error("missing " + name);
+        readField();
+        try {
+            return Long.parseLong(field.toString());
+        } catch (NumberFormatException ex) {
+            throw error("invalid " + name + " \"" + field + "\"");
+        }
+    }
+
+    /**
+     * @param message The description of the error.
+     * @return A PlanException for the current line.
+     */
+    private PlanException error(final String message) {
+        return new PlanException(line, message);
+    }
+}
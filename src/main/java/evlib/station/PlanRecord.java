@@ -0,0 +1,12 @@
+package evlib.station;
+
+enum PlanRecord {
+    /** A charging event of the plan, with the energy it asks. */
+    EV,
+    /** The plan of a Charger, a sequence of CH and INT steps. */
+    DE,
+    /** A step of a Charger plan which charges an event for some time. */
+    CH,
+    /** A step of a Charger plan which keeps the Charger idle for some time. */
+    INT
+}
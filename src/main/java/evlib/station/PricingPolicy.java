@@ -1,16 +1,65 @@
 package evlib.station;
 
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class PricingPolicy {
     private static final AtomicInteger idGenerator = new AtomicInteger(0);
     private int id;
-    private long space;
-    private LinkedList<Double> prices;
-    private LinkedList<Long> spaces;
+    private volatile Schedule schedule;
     private final short option;
 
+    private static class Schedule {
+        private final long space;
+        private final long[] spaces;
+        private final double[] prices;
+        private final long[] bounds;
+
+        /**
+         * Compiles the time spaces to cumulative boundaries. The price at index i is valid from bounds[i - 1]
+         * (or 0) until bounds[i].
+         * @param spac The fixed time space, or 0 if the time spaces vary.
+         * @param spacs The time spaces, or null if the time space is fixed.
+         * @param pric The prices.
+         */
+        Schedule(final long spac, final long[] spacs, final double[] pric) {
+            this.space = spac;
+            this.spaces = spacs;
+            this.prices = pric;
+            this.bounds = new long[pric.length];
+            long counter = 0;
+            for (int i = 0; i < pric.length; i++) {
+                counter += spacs != null ? spacs[i] : spac;
+                bounds[i] = counter;
+            }
+        }
+
+        /**
+         * @return The time duration of the schedule in milliseconds.
+         */
+        long getDuration() {
+            return bounds.length == 0 ? 0 : bounds[bounds.length - 1];
+        }
+
+        /**
+         * Finds the price with a binary search on the boundaries.
+         * @param elapsed The time since the start of the schedule in milliseconds.
+         * @return The price, or 0 if the time is after the end of the schedule.
+         */
+        double getPriceAt(final long elapsed) {
+            int low = 0;
+            int high = bounds.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (bounds[mid] <= elapsed)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low < prices.length ? prices[low] : 0;
+        }
+    }
+
     /**
      * Creates a new PricingPolicy instance. The time frame for each price is fixed.
      * @param spac The time space each price we desire to endure.
@@ -18,10 +67,7 @@ public class PricingPolicy {
      */
     public PricingPolicy(final long spac, final double[] pric) {
         this.id = idGenerator.incrementAndGet();
-        this.space = spac;
-        this.prices = new LinkedList<>();
-        for (double price : pric)
-            this.prices.add(price);
+        this.schedule = new Schedule(spac, null, pric.clone());
         this.option = 1;
     }
 
@@ -33,12 +79,7 @@ public class PricingPolicy {
      */
     public PricingPolicy(final long[] spac, final double[] pric) {
         this.id = idGenerator.incrementAndGet();
-        this.prices = new LinkedList<>();
-        this.spaces = new LinkedList<>();
-        for (int i = 0; i < pric.length; i++) {
-            this.spaces.add(spac[i]);
-            this.prices.add(pric[i]);
-        }
+        this.schedule = new Schedule(0, Arrays.copyOf(spac, pric.length), pric.clone());
         this.option = 2;
     }
 
@@ -47,11 +88,10 @@ public class PricingPolicy {
      * @return The price for this time space of the PricingPolicy.
      */
     public double getSpecificPrice(final int position) {
-        try {
-            return this.prices.get(position);
-        }
-        catch (Exception ex)
-        { return 0; }
+        double[] prices = schedule.prices;
+        if (position < 0 || position >= prices.length)
+            return 0;
+        return prices[position];
     }
 
     /**
@@ -60,14 +100,24 @@ public class PricingPolicy {
      */
     public long getSpecificTimeSpace(final int position)
     {
-        try {
-            if (option == 2) {
-                return spaces.get(position);
-            }
-            else
-                return space;
+        Schedule s = schedule;
+        if (option == 2) {
+            if (position < 0 || position >= s.spaces.length)
+                return 0;
+            return s.spaces[position];
         }
-        catch (Exception ex) { return 0; }
+        else
+            return s.space;
+    }
+
+    /**
+     * Returns the price which is valid at a time after the start of the PricingPolicy. The lookup
+     * is a binary search on the precomputed boundaries of the time spaces.
+     * @param elapsed The time since the start of the PricingPolicy in milliseconds.
+     * @return The price, or 0 if the time is after the end of the PricingPolicy.
+     */
+    public double getPriceAt(final long elapsed) {
+        return schedule.getPriceAt(elapsed);
     }
 
     /**
@@ -76,12 +126,14 @@ public class PricingPolicy {
      * @param timeSpace The time space for which the price is valid in milliseconds.
      * @param price The value of the price.
      */
-    public void setSpecificSpacePrice(final int position, final long timeSpace, final double price) {
+    public synchronized void setSpecificSpacePrice(final int position, final long timeSpace, final double price) {
         if (option == 2) {
-            this.spaces.remove(position);
-            this.spaces.add(position, timeSpace);
-            this.prices.remove(position);
-            this.prices.add(position, price);
+            Schedule s = schedule;
+            long[] spaces = s.spaces.clone();
+            double[] prices = s.prices.clone();
+            spaces[position] = timeSpace;
+            prices[position] = price;
+            this.schedule = new Schedule(0, spaces, prices);
         }
     }
 
@@ -90,11 +142,13 @@ public class PricingPolicy {
      * @param position The price we want to change.
      * @param price The price of the time space.
      */
-    public void setSpecificPrice(final int position, final double price)
+    public synchronized void setSpecificPrice(final int position, final double price)
     {
         if (option == 1) {
-            this.prices.remove(position);
-            this.prices.add(position, price);
+            Schedule s = schedule;
+            double[] prices = s.prices.clone();
+            prices[position] = price;
+            this.schedule = new Schedule(s.space, null, prices);
         }
     }
 
@@ -102,16 +156,16 @@ public class PricingPolicy {
      * Sets the time space between each change in price.
      * @param timeSpace The time space in milliseconds.
      */
-    public void setTimeSpace(final long timeSpace) {
+    public synchronized void setTimeSpace(final long timeSpace) {
         if (option == 1)
-            this.space = timeSpace;
+            this.schedule = new Schedule(timeSpace, null, schedule.prices);
     }
 
     /**
      * @return The time space for every different price in milliseconds.
      */
     public long getSpace() {
-        return space;
+        return schedule.space;
     }
 
     /**
@@ -119,13 +173,7 @@ public class PricingPolicy {
      */
     public long getDurationOfPolicy()
     {
-        long counter = 0;
-        if (option == 2)
-            for (long spac : spaces)
-                counter += spac;
-        else
-            counter = prices.size() * space;
-        return counter;
+        return schedule.getDuration();
     }
 
     /**
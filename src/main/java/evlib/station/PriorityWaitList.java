@@ -0,0 +1,93 @@
+package evlib.station;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+
+public class PriorityWaitList<T> extends WaitList<T>
+{
+    private static class Entry<T> implements Comparable<Entry<T>> {
+        private final T object;
+        private final double priority;
+        private final long sequence;
+
+        Entry(final T obj, final double prior, final long seq) {
+            this.object = obj;
+            this.priority = prior;
+            this.sequence = seq;
+        }
+
+        public int compareTo(final Entry<T> e) {
+            if (priority != e.priority)
+                return Double.compare(priority, e.priority);
+            return Long.compare(sequence, e.sequence);
+        }
+    }
+
+    private static class Ordered<T> implements WaitQueue<T> {
+        private final TreeSet<Entry<T>> entries = new TreeSet<>();
+        private final ToDoubleFunction<? super T> priority;
+        private long sequence;
+
+        Ordered(final ToDoubleFunction<? super T> prior) {
+            this.priority = prior;
+        }
+
+        public synchronized void add(final T object) {
+            entries.add(new Entry<>(object, priority.applyAsDouble(object), sequence++));
+        }
+
+        public synchronized boolean remove(final T object) {
+            Iterator<Entry<T>> it = entries.iterator();
+            while (it.hasNext())
+                if (it.next().object.equals(object)) {
+                    it.remove();
+                    return true;
+                }
+            return false;
+        }
+
+        public synchronized T peek() {
+            return entries.isEmpty() ? null : entries.first().object;
+        }
+
+        public synchronized T poll() {
+            Entry<T> e = entries.pollFirst();
+            return e != null ? e.object : null;
+        }
+
+        public synchronized T get(final int index) {
+            if (index >= entries.size())
+                return null;
+            Iterator<Entry<T>> it = entries.iterator();
+            for (int i = 0; i < index; i++)
+                it.next();
+            return it.next().object;
+        }
+
+        public synchronized List<T> snapshot() {
+            List<T> copy = new ArrayList<>(entries.size());
+            for (Entry<T> e : entries)
+                copy.add(e.object);
+            return copy;
+        }
+
+        public synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Creates a new PriorityWaitList. The objects are kept sorted and the first object is the one with the
+     * lowest priority value. Objects with the same value are served in insertion order. The insertion and the
+     * removal of the first object take logarithmic time, while get() and snapshot() walk the objects in order,
+     * without sorting them.
+     * @param prior The function which gives the priority value of an object. It is called once, when the object is inserted.
+     */
+    public PriorityWaitList(final ToDoubleFunction<? super T> prior)
+    {
+        super(new Ordered<>(prior));
+    }
+}
@@ -0,0 +1,32 @@
+package evlib.station;
+
+public enum QueueOrder {
+    FIFO("fifo"),
+    SHORTEST("shortest"),
+    DEADLINE("deadline");
+
+    private final String name;
+
+    QueueOrder(final String nam) {
+        this.name = nam;
+    }
+
+    /**
+     * @return The name of the order, as it is used by the ChargingStation functions.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the QueueOrder with the given name. The case of the name does not matter.
+     * @param nam The name of the order, for example "shortest".
+     * @return The QueueOrder, or null if there is not any order with this name.
+     */
+    public static QueueOrder of(final String nam) {
+        for (QueueOrder o : values())
+            if (o.name.equalsIgnoreCase(nam))
+                return o;
+        return null;
+    }
+}
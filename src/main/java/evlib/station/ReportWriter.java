@@ -0,0 +1,163 @@
+package evlib.station;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Calendar;
+
+class ReportWriter implements Closeable {
+    private static final String SEPARATOR = System.getProperty("line.separator");
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(128);
+    private char[] chars = new char[128];
+    private final Calendar calendar = Calendar.getInstance();
+
+    /**
+     * Creates a new ReportWriter. The file is created, or truncated if it exists.
+     * @param filePath The path of the report.
+     * @throws IOException If the file cannot be opened.
+     */
+    ReportWriter(final String filePath) throws IOException {
+        this.writer = Files.newBufferedWriter(Paths.get(filePath), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a line.
+     * @param text The text of the line.
+     * @throws IOException If the writing fails.
+     */
+    void line(final String text) throws IOException {
+        line.setLength(0);
+        line.append(text);
+        flushLine();
+    }
+
+    /**
+     * Writes a line with a label and a value.
+     * @param label The label.
+     * @param value The value.
+     * @throws IOException If the writing fails.
+     */
+    void line(final String label, final Object value) throws IOException {
+        line.setLength(0);
+        line.append(label).append(value);
+        flushLine();
+    }
+
+    /**
+     * Writes a line with a label and a value.
+     * @param label The label.
+     * @param value The value.
+     * @throws IOException If the writing fails.
+     */
+    void line(final String label, final long value) throws IOException {
+        line.setLength(0);
+        line.append(label).append(value);
+        flushLine();
+    }
+
+    /**
+     * Writes a line with a label and a value.
+     * @param label The label.
+     * @param value The value.
+     * @throws IOException If the writing fails.
+     */
+    void line(final String label, final double value) throws IOException {
+        line.setLength(0);
+        line.append(label).append(value);
+        flushLine();
+    }
+
+    /**
+     * Appends a text to the current line. The line is written by endLine().
+     * @param text The text.
+     * @return The ReportWriter.
+     */
+    ReportWriter append(final String text) {
+        line.append(text);
+        return this;
+    }
+
+    /**
+     * Appends a number to the current line. The line is written by endLine().
+     * @param value The number.
+     * @return The ReportWriter.
+     */
+    ReportWriter append(final long value) {
+        line.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a number to the current line. The line is written by endLine().
+     * @param value The number.
+     * @return The ReportWriter.
+     */
+    ReportWriter append(final double value) {
+        line.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a time to the current line as "yyyy/MM/dd HH:mm:ss" in the default time zone. The fields are
+     * written straight into the line, through a reused Calendar.
+     * @param time The time in milliseconds.
+     * @return The ReportWriter.
+     */
+    ReportWriter appendTime(final long time) {
+        calendar.setTimeInMillis(time);
+        appendField(calendar.get(Calendar.YEAR), 4).append('/');
+        appendField(calendar.get(Calendar.MONTH) + 1, 2).append('/');
+        appendField(calendar.get(Calendar.DAY_OF_MONTH), 2).append(' ');
+        appendField(calendar.get(Calendar.HOUR_OF_DAY), 2).append(':');
+        appendField(calendar.get(Calendar.MINUTE), 2).append(':');
+        appendField(calendar.get(Calendar.SECOND), 2);
+        return this;
+    }
+
+    /**
+     * Writes the current line, which was built by the append functions.
+     * @throws IOException If the writing fails.
+     */
+    void endLine() throws IOException {
+        flushLine();
+        line.setLength(0);
+    }
+
+    /**
+     * Appends a number with leading zeros.
+     * @param value The number.
+     * @param width The least number of digits.
+     * @return The line.
+     */
+    private StringBuilder appendField(final int value, final int width) {
+        for (int limit = 10, i = 1; i < width; i++, limit *= 10)
+            if (value < limit)
+                line.append('0');
+        return line.append(value);
+    }
+
+    /**
+     * Copies the built line to the reused array and writes it, followed by the line separator.
+     * @throws IOException If the writing fails.
+     */
+    private void flushLine() throws IOException {
+        line.append(SEPARATOR);
+        int length = line.length();
+        if (chars.length < length)
+            chars = new char[Math.max(length, chars.length * 2)];
+        line.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+    }
+
+    /**
+     * Flushes and closes the report file.
+     * @throws IOException If the closing fails.
+     */
+    public void close() throws IOException {
+        writer.close();
+    }
+}
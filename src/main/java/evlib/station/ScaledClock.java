@@ -0,0 +1,51 @@
+package evlib.station;
+
+public class ScaledClock implements Clock {
+    private final long start;
+    private final long wallStart;
+    private final double factor;
+
+    /**
+     * Creates a new ScaledClock, whose time passes faster (or slower) than the real time.
+     * @param strt The time the clock starts from in milliseconds.
+     * @param fact How many milliseconds of the ScaledClock pass in one real millisecond.
+     * @throws IllegalArgumentException If the factor is not a positive finite number.
+     */
+    public ScaledClock(final long strt, final double fact) {
+        if (!(fact > 0) || !Double.isFinite(fact))
+            throw new IllegalArgumentException("The factor of a ScaledClock has to be positive and finite");
+        this.start = strt;
+        this.wallStart = System.currentTimeMillis();
+        this.factor = fact;
+    }
+
+    /**
+     * Creates a new ScaledClock, starting from the current time.
+     * @param fact How many milliseconds of the ScaledClock pass in one real millisecond.
+     */
+    public ScaledClock(final double fact) {
+        this(System.currentTimeMillis(), fact);
+    }
+
+    /**
+     * @return The current time of the ScaledClock in milliseconds.
+     */
+    public long millis() {
+        return start + (long) ((System.currentTimeMillis() - wallStart) * factor);
+    }
+
+    /**
+     * @param duration The duration in milliseconds of the ScaledClock.
+     * @return The real duration in milliseconds.
+     */
+    public long toRealTime(final long duration) {
+        return (long) (duration / factor);
+    }
+
+    /**
+     * @return How many milliseconds of the ScaledClock pass in one real millisecond.
+     */
+    public double getFactor() {
+        return factor;
+    }
+}
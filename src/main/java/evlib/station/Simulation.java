@@ -0,0 +1,189 @@
+package evlib.station;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class Simulation implements WorkerScheduler {
+    private final PriorityQueue<Completion> queue = new PriorityQueue<>();
+    private final ManualClock clock;
+    private long sequence;
+
+    private static class Completion implements Comparable<Completion> {
+        private final long time;
+        private final long sequence;
+        private final Runnable task;
+        private final Runnable interruption;
+
+        Completion(final long tim, final long seq, final Runnable tsk, final Runnable intr) {
+            this.time = tim;
+            this.sequence = seq;
+            this.task = tsk;
+            this.interruption = intr;
+        }
+
+        public int compareTo(final Completion c) {
+            if (time != c.time)
+                return Long.compare(time, c.time);
+            return Long.compare(sequence, c.sequence);
+        }
+    }
+
+    /**
+     * Creates a new Simulation. The virtual clock starts from the current time.
+     */
+    public Simulation() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a new Simulation.
+     * @param start The time the virtual clock starts from in milliseconds.
+     */
+    public Simulation(final long start) {
+        this.clock = new ManualClock(start);
+    }
+
+    /**
+     * @return The current time of the virtual clock in milliseconds.
+     */
+    public long getTime() {
+        return clock.millis();
+    }
+
+    /**
+     * @return The virtual clock of the Simulation. It is advanced only by the Simulation.
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return The number of completions which have not been executed yet.
+     */
+    public synchronized int getPending() {
+        return queue.size();
+    }
+
+    /**
+     * @return The time of the earliest completion in milliseconds, or Long.MAX_VALUE if the queue is empty.
+     */
+    public synchronized long getNextTime() {
+        Completion c = queue.peek();
+        return c == null ? Long.MAX_VALUE : c.time;
+    }
+
+    /**
+     * Inserts a completion in the queue. It will be executed when the virtual clock reaches the
+     * current time plus the delay. Completions with the same time are executed in insertion order.
+     * @param name The name of the worker the task belongs to.
+     * @param delay The delay in milliseconds.
+     * @param task The task to be run when the delay passes.
+     * @param interruption The task to be run if the task fails, or if the completion is cancelled.
+     */
+    public synchronized void schedule(final String name, final long delay, final Runnable task, final Runnable interruption) {
+        queue.add(new Completion(clock.millis() + Math.max(delay, 0), sequence++, task, interruption));
+    }
+
+    /**
+     * Drops all the completions which have not been executed, running their interruption instead, so the workers
+     * are released and the energy they reserved returns to the stations. The virtual clock does not change.
+     * @return The number of cancelled completions.
+     */
+    public int cancel() {
+        List<Completion> dropped;
+        synchronized (this) {
+            dropped = new ArrayList<>(queue);
+            queue.clear();
+        }
+        dropped.sort(null);
+        for (Completion c : dropped)
+            if (c.interruption != null)
+                c.interruption.run();
+        return dropped.size();
+    }
+
+    /**
+     * Advances the virtual clock to the earliest completion and executes it. If the task fails, even with an Error,
+     * its interruption is run and the exception is thrown again.
+     * @return True if a completion was executed, false if the queue was empty.
+     */
+    public boolean step() {
+        Completion c;
+        synchronized (this) {
+            c = queue.poll();
+            if (c == null)
+                return false;
+            clock.setTime(c.time);
+        }
+        try {
+            c.task.run();
+        } catch (RuntimeException | Error ex) {
+            if (c.interruption != null)
+                c.interruption.run();
+            throw ex;
+        }
+        return true;
+    }
+
+    /**
+     * Executes all the completions, including the ones they schedule, until the queue is empty.
+     * @return The number of executed completions.
+     */
+    public int run() {
+        int counter = 0;
+        while (step())
+            ++counter;
+        return counter;
+    }
+
+    /**
+     * Executes all the completions that are due until the given time. In the end, the virtual clock
+     * is set to the given time.
+     * @param until The time in milliseconds.
+     * @return The number of executed completions.
+     */
+    public int runUntil(final long until) {
+        return execute(until, true);
+    }
+
+    /**
+     * Executes all the completions that are due until the given time. The virtual clock stays at the
+     * last executed completion.
+     * @param until The time in milliseconds.
+     * @return The number of executed completions.
+     */
+    int runDue(final long until) {
+        return execute(until, false);
+    }
+
+    /**
+     * @param until The time in milliseconds.
+     * @param move True if the virtual clock is set to the given time in the end.
+     * @return The number of executed completions.
+     */
+    private int execute(final long until, final boolean move) {
+        int counter = 0;
+        while (true) {
+            synchronized (this) {
+                Completion c = queue.peek();
+                if (c == null || c.time > until) {
+                    if (move && clock.millis() < until)
+                        clock.setTime(until);
+                    return counter;
+                }
+            }
+            step();
+            ++counter;
+        }
+    }
+
+    /**
+     * Advances the virtual clock by the given time, executing all the completions that are due.
+     * @param duration The time in milliseconds.
+     * @return The number of executed completions.
+     */
+    public int advance(final long duration) {
+        return runUntil(getTime() + duration);
+    }
+}
@@ -0,0 +1,232 @@
+package evlib.station;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+public class StationIndex {
+    private final double cellSize;
+    private final HashMap<Long, List<ChargingStation>> cells = new HashMap<>();
+    private final HashMap<ChargingStation, Long> keys = new HashMap<>();
+    private int minCellX = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    private static class Candidate implements Comparable<Candidate> {
+        private final ChargingStation station;
+        private final double score;
+
+        Candidate(final ChargingStation stat, final double scor) {
+            this.station = stat;
+            this.score = scor;
+        }
+
+        public int compareTo(final Candidate c) {
+            return Double.compare(c.score, score);
+        }
+    }
+
+    private interface Scorer {
+        /**
+         * @param station A ChargingStation.
+         * @param distance The distance of the station in kilometres.
+         * @return The score of the station, or a negative value if the station is not acceptable.
+         */
+        double score(ChargingStation station, double distance);
+    }
+
+    /**
+     * Creates a new StationIndex. The stations are kept in a grid of square cells, so a query
+     * visits only the cells around the given point.
+     * @param cell The side of a cell in kilometres. It should be close to the usual distance between stations.
+     */
+    public StationIndex(final double cell) {
+        if (!(cell > 0))
+            throw new IllegalArgumentException("Invalid cell size: " + cell);
+        this.cellSize = cell;
+    }
+
+    /**
+     * Adds a ChargingStation to the StationIndex, in the cell of its location.
+     * @param station The ChargingStation to be added.
+     * @throws IllegalArgumentException If the station has no location.
+     */
+    public synchronized void add(final ChargingStation station) {
+        if (!station.hasLocation())
+            throw new IllegalArgumentException("Station " + station.getName() + " has no location");
+        remove(station);
+        int cx = cell(station.getLocationX());
+        int cy = cell(station.getLocationY());
+        long key = key(cx, cy);
+        cells.computeIfAbsent(key, k -> new ArrayList<>()).add(station);
+        keys.put(station, key);
+        minCellX = Math.min(minCellX, cx);
+        maxCellX = Math.max(maxCellX, cx);
+        minCellY = Math.min(minCellY, cy);
+        maxCellY = Math.max(maxCellY, cy);
+    }
+
+    /**
+     * Removes a ChargingStation from the StationIndex.
+     * @param station The ChargingStation to be removed.
+     * @return True if the station was in the index, false if it was not.
+     */
+    public synchronized boolean remove(final ChargingStation station) {
+        Long key = keys.remove(station);
+        if (key == null)
+            return false;
+        List<ChargingStation> list = cells.get(key);
+        list.remove(station);
+        if (list.isEmpty())
+            cells.remove(key);
+        return true;
+    }
+
+    /**
+     * Moves a ChargingStation to the cell of its current location, after a change of the location.
+     * @param station The ChargingStation.
+     */
+    public synchronized void update(final ChargingStation station) {
+        if (keys.containsKey(station))
+            add(station);
+    }
+
+    /**
+     * @return The number of stations in the StationIndex.
+     */
+    public synchronized int getSize() {
+        return keys.size();
+    }
+
+    /**
+     * Finds the stations which are nearest to a point.
+     * @param x The horizontal coordinate of the point in kilometres.
+     * @param y The vertical coordinate of the point in kilometres.
+     * @param k The maximum number of stations.
+     * @return A List with at most k stations, the nearest first.
+     */
+    public List<ChargingStation> getNearest(final double x, final double y, final int k) {
+        return search(x, y, k, 1, (station, distance) -> distance);
+    }
+
+    /**
+     * Finds the stations where a vehicle at a point is served first. A station is ranked by the time to reach it
+     * plus its waiting time for the kind. Stations without resources of the kind are skipped.
+     * @param x The horizontal coordinate of the point in kilometres.
+     * @param y The vertical coordinate of the point in kilometres.
+     * @param k The maximum number of stations.
+     * @param kind The kind of the event, e.g. "fast".
+     * @param speed The travel speed of the vehicle in kilometres per hour.
+     * @return A List with at most k stations, the one with the lowest travel plus waiting time first.
+     * @throws IllegalArgumentException If the kind is unknown or the speed is not positive.
+     */
+    public List<ChargingStation> getNearest(final double x, final double y, final int k, final String kind, final double speed) {
+        if (!(speed > 0))
+            throw new IllegalArgumentException("Invalid speed: " + speed);
+        final double msPerKm = 3600000 / speed;
+        final EventKind knd = EventKind.of(kind);
+        if (knd == null)
+            throw new IllegalArgumentException("Unknown kind: " + kind);
+        return search(x, y, k, msPerKm, (station, distance) -> {
+            long wait = station.getWaitingTime(knd);
+            return wait < 0 ? -1 : distance * msPerKm + wait;
+        });
+    }
+
+    /**
+     * Visits the cells in rings of growing distance around the cell of the point. It stops when the k best scores
+     * cannot be beaten by a station outside the visited rings, since a score is never less than the distance
+     * multiplied by the given factor, or when every station has been scored. Once a ring has more cells than the
+     * index has non-empty cells, the remaining stations are scored by walking the non-empty cells instead, so a
+     * query never costs much more than scoring every station.
+     * @param x The horizontal coordinate of the point.
+     * @param y The vertical coordinate of the point.
+     * @param k The maximum number of stations.
+     * @param factor The factor which converts a distance to the lowest possible score.
+     * @param scorer The scoring of a station.
+     * @return The best stations, the lowest score first.
+     */
+    private synchronized List<ChargingStation> search(final double x, final double y, final int k, final double factor, final Scorer scorer) {
+        PriorityQueue<Candidate> best = new PriorityQueue<>();
+        if (k > 0 && !keys.isEmpty()) {
+            int cx = cell(x);
+            int cy = cell(y);
+            int maxRing = Math.max(Math.max(Math.abs(cx - minCellX), Math.abs(cx - maxCellX)),
+                    Math.max(Math.abs(cy - minCellY), Math.abs(cy - maxCellY)));
+            int minRing = Math.max(Math.max(minCellX - cx, cx - maxCellX), Math.max(minCellY - cy, cy - maxCellY));
+            int seen = 0;
+            for (int r = Math.max(0, minRing); r <= maxRing && seen < keys.size(); r++) {
+                if (best.size() == k && best.peek().score <= (r - 1) * cellSize * factor)
+                    break;
+                if (8L * r > cells.size()) {
+                    for (Map.Entry<Long, List<ChargingStation>> cell : cells.entrySet()) {
+                        long key = cell.getKey();
+                        if (Math.max(Math.abs((int) (key >> 32) - cx), Math.abs((int) key - cy)) >= r)
+                            visit(cell.getValue(), x, y, k, scorer, best);
+                    }
+                    break;
+                }
+                for (int i = cx - r; i <= cx + r; i++) {
+                    int step = i == cx - r || i == cx + r ? 1 : Math.max(1, 2 * r);
+                    for (int j = cy - r; j <= cy + r; j += step)
+                        seen += visit(cells.get(key(i, j)), x, y, k, scorer, best);
+                }
+            }
+        }
+        Candidate[] sorted = best.toArray(new Candidate[0]);
+        Arrays.sort(sorted, (a, b) -> Double.compare(a.score, b.score));
+        List<ChargingStation> result = new ArrayList<>(sorted.length);
+        for (Candidate c : sorted)
+            result.add(c.station);
+        return result;
+    }
+
+    /**
+     * Scores the stations of a cell and keeps the k best of them.
+     * @param list The stations of the cell, or null if the cell is empty.
+     * @param x The horizontal coordinate of the point.
+     * @param y The vertical coordinate of the point.
+     * @param k The maximum number of stations.
+     * @param scorer The scoring of a station.
+     * @param best The best stations so far, the worst of them at the head.
+     * @return The number of stations of the cell.
+     */
+    private static int visit(final List<ChargingStation> list, final double x, final double y, final int k,
+                              final Scorer scorer, final PriorityQueue<Candidate> best) {
+        if (list == null)
+            return 0;
+        for (ChargingStation station : list) {
+            double score = scorer.score(station, Math.hypot(station.getLocationX() - x, station.getLocationY() - y));
+            if (score < 0)
+                continue;
+            if (best.size() < k)
+                best.add(new Candidate(station, score));
+            else if (score < best.peek().score) {
+                best.poll();
+                best.add(new Candidate(station, score));
+            }
+        }
+        return list.size();
+    }
+
+    /**
+     * @param coordinate A coordinate in kilometres.
+     * @return The number of the cell of the coordinate.
+     */
+    private int cell(final double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * @param cx The horizontal number of a cell.
+     * @param cy The vertical number of a cell.
+     * @return The key of the cell.
+     */
+    private static long key(final int cx, final int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+}
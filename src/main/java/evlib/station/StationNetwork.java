@@ -0,0 +1,200 @@
+package evlib.station;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StationNetwork {
+    private static final long IDLE = Long.MIN_VALUE;
+    private final EnumMap<EventKind, Index> indexes = new EnumMap<>(EventKind.class);
+    private final Set<ChargingStation> stations = ConcurrentHashMap.newKeySet();
+    private long sequence;
+
+    private static class Entry {
+        private final ChargingStation station;
+        private final long seq;
+        private long available;
+
+        Entry(final ChargingStation stat, final long sq) {
+            this.station = stat;
+            this.seq = sq;
+        }
+    }
+
+    private static class Index {
+        private final EventKind kind;
+        private final TreeSet<Entry> order = new TreeSet<>(Comparator.<Entry>comparingLong(e -> e.available)
+                .thenComparingLong(e -> e.seq));
+        private final HashMap<ChargingStation, Entry> entries = new HashMap<>();
+        private final Set<ChargingStation> dirty = ConcurrentHashMap.newKeySet();
+
+        Index(final EventKind knd) {
+            this.kind = knd;
+        }
+
+        /**
+         * Recomputes the entries of the stations which have changed since the last query.
+         */
+        void refresh() {
+            if (dirty.isEmpty())
+                return;
+            Iterator<ChargingStation> it = dirty.iterator();
+            while (it.hasNext()) {
+                ChargingStation station = it.next();
+                it.remove();
+                Entry entry = entries.get(station);
+                if (entry == null)
+                    continue;
+                order.remove(entry);
+                long wait = station.getWaitingTime(kind);
+                if (wait < 0)
+                    continue;
+                entry.available = wait == 0 ? IDLE : station.currentTime() + wait;
+                order.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Creates a new StationNetwork, which keeps the stations ordered by the time a resource of each kind
+     * becomes available. The order is updated only for the stations whose waiting lists or resources have
+     * changed, so choosing a station does not ask every station for its waiting time.
+     */
+    public StationNetwork() {
+        for (EventKind kind : EventKind.values())
+            if (kind != EventKind.PARKING)
+                indexes.put(kind, new Index(kind));
+    }
+
+    /**
+     * Adds a ChargingStation to the StationNetwork. Stations with the same waiting time are ordered by the time
+     * they were added, not by their id, which may change and may be shared by several stations.
+     * @param station The ChargingStation to be added.
+     */
+    public synchronized void addStation(final ChargingStation station) {
+        if (!stations.add(station))
+            return;
+        long seq = sequence++;
+        for (Index index : indexes.values()) {
+            index.entries.put(station, new Entry(station, seq));
+            index.dirty.add(station);
+        }
+        station.addNetwork(this);
+    }
+
+    /**
+     * Removes a ChargingStation from the StationNetwork.
+     * @param station The ChargingStation to be removed.
+     * @return True if the station was in the network, false if it was not.
+     */
+    public synchronized boolean removeStation(final ChargingStation station) {
+        if (!stations.remove(station))
+            return false;
+        station.removeNetwork(this);
+        for (Index index : indexes.values()) {
+            Entry entry = index.entries.remove(station);
+            index.order.remove(entry);
+            index.dirty.remove(station);
+        }
+        return true;
+    }
+
+    /**
+     * @return An array with the stations of the StationNetwork.
+     */
+    public ChargingStation[] getStations() {
+        return stations.toArray(new ChargingStation[0]);
+    }
+
+    /**
+     * Returns the station where an event of the given kind will be served first.
+     * @param kind The kind of the event. It can be "fast", "slow", "exchange" or "discharging".
+     * @return The ChargingStation with the lowest waiting time, or null if no station has resources of the kind.
+     */
+    public synchronized ChargingStation getBestStation(final String kind) {
+        Index index = getIndex(kind);
+        index.refresh();
+        return index.order.isEmpty() ? null : index.order.first().station;
+    }
+
+    /**
+     * Returns the stations ordered by their waiting time for the given kind.
+     * @param kind The kind of the event. It can be "fast", "slow", "exchange" or "discharging".
+     * @param k The maximum number of stations.
+     * @return A List with at most k stations, the one with the lowest waiting time first.
+     */
+    public synchronized List<ChargingStation> getBestStations(final String kind, final int k) {
+        Index index = getIndex(kind);
+        index.refresh();
+        List<ChargingStation> best = new ArrayList<>(Math.min(Math.max(k, 0), index.order.size()));
+        for (Entry entry : index.order) {
+            if (best.size() >= k)
+                break;
+            best.add(entry.station);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the waiting time of a station, as it is kept by the StationNetwork.
+     * @param station The ChargingStation.
+     * @param kind The kind of the event. It can be "fast", "slow", "exchange" or "discharging".
+     * @return The waiting time in milliseconds, or -1 if the station has no resources of the kind or it is not in the network.
+     */
+    public synchronized long getWaitingTime(final ChargingStation station, final String kind) {
+        Index index = getIndex(kind);
+        index.refresh();
+        Entry entry = index.entries.get(station);
+        if (entry == null || !index.order.contains(entry))
+            return -1;
+        if (entry.available == IDLE)
+            return 0;
+        return Math.max(0, entry.available - station.currentTime());
+    }
+
+    /**
+     * Marks all the kinds of a station as changed. The ChargingStation does it itself when its waiting lists or
+     * resources change; this function is for changes the station cannot notice, e.g. a direct deletion from a WaitList.
+     * @param station The ChargingStation.
+     */
+    public void refresh(final ChargingStation station) {
+        changed(station, null);
+    }
+
+    /**
+     * Marks a kind of a station as changed, so that it is recomputed in the next query.
+     * @param station The ChargingStation.
+     * @param kind The kind which changed, or null for all the kinds.
+     */
+    void changed(final ChargingStation station, final EventKind kind) {
+        if (!stations.contains(station))
+            return;
+        if (kind == null) {
+            for (Index index : indexes.values())
+                index.dirty.add(station);
+        } else {
+            Index index = indexes.get(kind);
+            if (index != null)
+                index.dirty.add(station);
+        }
+    }
+
+    /**
+     * @param kind The name of the kind.
+     * @return The Index of the kind.
+     * @throws IllegalArgumentException If the kind is not kept by the StationNetwork.
+     */
+    private Index getIndex(final String kind) {
+        EventKind k = EventKind.of(kind);
+        Index index = k != null ? indexes.get(k) : null;
+        if (index == null)
+            throw new IllegalArgumentException("Unknown kind: " + kind);
+        return index;
+    }
+}
@@ -0,0 +1,199 @@
+package evlib.station;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StorageUpdateScheduler {
+    private static final AtomicInteger idGenerator = new AtomicInteger(0);
+    private static StorageUpdateScheduler shared;
+    private final ScheduledThreadPoolExecutor executor;
+    private final ConcurrentHashMap<Long, Tick> ticks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ChargingStation, Long> periods = new ConcurrentHashMap<>();
+    private final LongAdder tickCount = new LongAdder();
+    private final LongAdder totalJitter = new LongAdder();
+    private final AtomicLong maxJitter = new AtomicLong();
+    private final LongAdder failures = new LongAdder();
+    private int id;
+
+    private class Tick implements Runnable {
+        private final long period;
+        private final CopyOnWriteArraySet<ChargingStation> stations = new CopyOnWriteArraySet<>();
+        private ScheduledFuture<?> future;
+        private long next;
+
+        Tick(final long per) {
+            this.period = per;
+        }
+
+        /**
+         * Starts the periodic task at the next multiple of the period, so all the ticks of the
+         * same period run together.
+         */
+        void start() {
+            long now = System.currentTimeMillis();
+            next = now - now % period + period;
+            future = executor.scheduleAtFixedRate(this, next - now, period, TimeUnit.MILLISECONDS);
+        }
+
+        public void run() {
+            long jitter = Math.max(0, System.currentTimeMillis() - next);
+            next += period;
+            tickCount.increment();
+            totalJitter.add(jitter);
+            maxJitter.accumulateAndGet(jitter, Math::max);
+            for (ChargingStation station : stations)
+                update(station);
+        }
+    }
+
+    /**
+     * Creates a new StorageUpdateScheduler with a fixed number of deamon threads.
+     * @param threads The number of threads.
+     */
+    public StorageUpdateScheduler(final int threads) {
+        this.id = idGenerator.incrementAndGet();
+        final AtomicInteger counter = new AtomicInteger(0);
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setName("StorageUpdate" + id + "-" + counter.incrementAndGet());
+            return t;
+        };
+        this.executor = new ScheduledThreadPoolExecutor(threads, factory);
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Returns the StorageUpdateScheduler which is shared by the whole JVM. It is created in the first call,
+     * with two deamon threads.
+     * @return The shared StorageUpdateScheduler.
+     */
+    public static synchronized StorageUpdateScheduler getShared() {
+        if (shared == null || shared.executor.isShutdown())
+            shared = new StorageUpdateScheduler(2);
+        return shared;
+    }
+
+    /**
+     * Registers a ChargingStation for periodic storage updates. The storage is updated once at once, and then
+     * at every multiple of the period, together with all the stations which have the same period. A station
+     * which was already registered moves to the new period.
+     * @param station The ChargingStation.
+     * @param period The time between two updates in milliseconds.
+     */
+    public synchronized void register(final ChargingStation station, final long period) {
+        if (period <= 0)
+            throw new IllegalArgumentException("Invalid update period: " + period);
+        unregister(station);
+        periods.put(station, period);
+        Tick tick = ticks.get(period);
+        if (tick == null) {
+            tick = new Tick(period);
+            ticks.put(period, tick);
+            tick.start();
+        }
+        tick.stations.add(station);
+        executor.execute(() -> update(station));
+    }
+
+    /**
+     * Stops the periodic storage updates of a ChargingStation.
+     * @param station The ChargingStation.
+     * @return True if the station was registered, false if it was not.
+     */
+    public synchronized boolean unregister(final ChargingStation station) {
+        Long period = periods.remove(station);
+        if (period == null)
+            return false;
+        Tick tick = ticks.get(period);
+        tick.stations.remove(station);
+        if (tick.stations.isEmpty()) {
+            tick.future.cancel(false);
+            ticks.remove(period);
+        }
+        return true;
+    }
+
+    /**
+     * @param station The ChargingStation.
+     * @return True if the station is registered for periodic updates.
+     */
+    public boolean isRegistered(final ChargingStation station) {
+        return periods.containsKey(station);
+    }
+
+    /**
+     * @return The number of registered stations.
+     */
+    public int getStations() {
+        return periods.size();
+    }
+
+    /**
+     * @return The number of periodic tasks, one for each distinct period.
+     */
+    public int getPeriods() {
+        return ticks.size();
+    }
+
+    /**
+     * @return The number of ticks which have run.
+     */
+    public long getTicks() {
+        return tickCount.sum();
+    }
+
+    /**
+     * @return The greatest delay of a tick after its scheduled time, in milliseconds.
+     */
+    public long getMaxJitter() {
+        return maxJitter.get();
+    }
+
+    /**
+     * @return The mean delay of the ticks after their scheduled time, in milliseconds.
+     */
+    public double getMeanJitter() {
+        long count = tickCount.sum();
+        return count == 0 ? 0 : (double) totalJitter.sum() / count;
+    }
+
+    /**
+     * @return The number of storage updates which failed.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Stops the StorageUpdateScheduler. The registered stations are not updated any more.
+     */
+    public synchronized void shutdown() {
+        executor.shutdownNow();
+        ticks.clear();
+        periods.clear();
+    }
+
+    /**
+     * Updates the storage of a station. A failure, even a VirtualMachineError such as a StackOverflowError, is counted
+     * in getFailures(), given to the UncaughtExceptionHandler of the thread and swallowed, since a Throwable which
+     * leaves a periodic task cancels all its later runs, and so the updates of every station with the same period.
+     * @param station The ChargingStation.
+     */
+    private void update(final ChargingStation station) {
+        try {
+            station.updateStorage();
+        } catch (Throwable ex) {
+            failures.increment();
+            Thread t = Thread.currentThread();
+            t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package evlib.station;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+class ThreadScheduler implements WorkerScheduler {
+    private static final MethodHandle virtualBuilder = findVirtualBuilder();
+    private final ChargingStation station;
+    private final boolean virtual;
+
+    /**
+     * Creates a new ThreadScheduler, which starts one platform Thread for every task.
+     * @param stat The ChargingStation the created threads belong to.
+     */
+    ThreadScheduler(final ChargingStation stat) {
+        this(stat, false);
+    }
+
+    /**
+     * Creates a new ThreadScheduler, which starts one Thread for every task.
+     * @param stat The ChargingStation the created threads belong to.
+     * @param virt True for virtual threads, if the JVM supports them. If it does not, platform threads are created.
+     */
+    ThreadScheduler(final ChargingStation stat, final boolean virt) {
+        this.station = stat;
+        this.virtual = virt && virtualBuilder != null;
+    }
+
+    /**
+     * Looks up Thread.ofVirtual().unstarted(Runnable), which exists since Java 21. It returns null
+     * for older JVMs, or when the virtual threads are a disabled preview feature.
+     * @return The handle creating an unstarted virtual Thread, or null if it is not supported.
+     */
+    private static MethodHandle findVirtualBuilder() {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual")));
+            MethodHandle unstarted = lookup.findVirtual(builder, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+            MethodHandle handle = MethodHandles.foldArguments(unstarted, ofVirtual.asType(MethodType.methodType(builder)));
+            Thread test = (Thread) handle.invokeExact((Runnable) () -> { });
+            return test != null ? handle : null;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return True if the JVM supports virtual threads.
+     */
+    static boolean isVirtualSupported() {
+        return virtualBuilder != null;
+    }
+
+    /**
+     * @return True if the created threads are virtual.
+     */
+    boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Starts a new Thread which sleeps for the given delay and then runs the task.
+     * @param name The name of the Thread.
+     * @param delay The delay in milliseconds.
+     * @param task The task to be run when the delay passes.
+     * @param interruption The task to be run if the Thread is interrupted or the task fails. If the task throws an Error,
+     * the interruption is run and the Error is thrown again. A RuntimeException of the task is given to the
+     * UncaughtExceptionHandler of the Thread before the interruption runs.
+     */
+    public void schedule(final String name, final long delay, final Runnable task, final Runnable interruption) {
+        Runnable body = () -> {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                interruption.run();
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException ex) {
+                Thread t = Thread.currentThread();
+                t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+                interruption.run();
+            } catch (Error err) {
+                interruption.run();
+                throw err;
+            }
+        };
+        Thread running = null;
+        if (virtual)
+            try {
+                running = (Thread) virtualBuilder.invokeExact(body);
+            } catch (Throwable e) {
+                running = null;
+            }
+        if (running == null) {
+            running = new Thread(body);
+            if (station.getDeamon())
+                running.setDaemon(true);
+        }
+        running.setName(name);
+        running.start();
+    }
+}
@@ -1,47 +1,126 @@
 package evlib.station;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
 
 public class WaitList<T>
 {
-    private final ArrayList<T> list;
+    private final WaitQueue<T> queue;
     private int id;
+    private final AtomicInteger modifications = new AtomicInteger(0);
     private static final AtomicInteger idGenerator = new AtomicInteger(0);
-    private final Lock lock = new ReentrantLock();
+
+    private static class Fifo<T> implements WaitQueue<T> {
+        private final ConcurrentLinkedDeque<T> list = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger size = new AtomicInteger(0);
+
+        /**
+         * Counts the object before publishing it, so a concurrent poll() never takes an object which is not
+         * counted yet and the size never goes below 0.
+         * @param object The object.
+         */
+        public void add(final T object) {
+            size.incrementAndGet();
+            list.offerLast(object);
+        }
+
+        public boolean remove(final T object) {
+            boolean removed = list.removeFirstOccurrence(object);
+            if (removed)
+                size.decrementAndGet();
+            return removed;
+        }
+
+        public T peek() {
+            return list.peekFirst();
+        }
+
+        public T poll() {
+            T object = list.pollFirst();
+            if (object != null)
+                size.decrementAndGet();
+            return object;
+        }
+
+        public T get(final int index) {
+            if (index == 0)
+                return list.peekFirst();
+            Iterator<T> it = list.iterator();
+            for (int i = 0; it.hasNext(); i++) {
+                T object = it.next();
+                if (i == index)
+                    return object;
+            }
+            return null;
+        }
+
+        public List<T> snapshot() {
+            return new ArrayList<>(list);
+        }
+
+        public int size() {
+            return size.get();
+        }
+    }
 
     /**
-     * Creates a new WaitingList object.
+     * Creates a new WaitingList object. The list does not use any lock. The insertion at the end
+     * and the removal of the first object take constant time.
      */
     public WaitList()
+    {
+        this(new Fifo<>());
+    }
+
+    /**
+     * Creates a new WaitingList object, which keeps its objects in the given queue.
+     * @param q The queue, which decides the order of service.
+     */
+    WaitList(final WaitQueue<T> q)
     {
         this.id = idGenerator.incrementAndGet();
-        list = new ArrayList<>();
+        this.queue = q;
     }
 
     /**
-     * Returns the object in the given place.
+     * Returns the object in the given place. The first object is returned in constant time, while any other place
+     * is reached by traversing the list from the beginning. Reading all the objects with get() takes quadratic time,
+     * so snapshot() should be used instead.
      * @param index The place of the object in the list.
      * @return The asked object.
      */
     public T get(final int index)
     {
-        return list.get(index);
+        T object = index >= 0 ? queue.get(index) : null;
+        if (object == null)
+            throw new IndexOutOfBoundsException("Index: " + index);
+        return object;
     }
 
     /**
      * Inserts an object in the list.
      * @param object The object to be inserted.
+     * @throws NullPointerException If the object is null, since the list cannot hold null objects.
      */
     public void add(T object) {
-        lock.lock();
-        try {
-            list.add(object);
-        } finally {
-            lock.unlock();
-        }
+        addCounted(object);
+    }
+
+    /**
+     * Inserts an object in the list.
+     * @param object The object to be inserted.
+     * @return The number of modifications the insertion produced.
+     * @throws NullPointerException If the object is null, since the list cannot hold null objects.
+     */
+    int addCounted(final T object) {
+        if (object == null)
+            throw new NullPointerException("A WaitList cannot hold null objects");
+        queue.add(object);
+        return modifications.incrementAndGet();
     }
 
     /**
@@ -50,39 +129,53 @@ public class WaitList<T>
      * @return True if the deletion was successfull, false if it was not.
      */
     public boolean delete(T object) {
-        lock.lock();
-        try {
-            return list.remove(object);
-        } finally {
-            lock.unlock();
-        }
+        boolean removed = queue.remove(object);
+        if (removed)
+            modifications.incrementAndGet();
+        return removed;
     }
 
     /**
      * Returns the first object in the list.
-     * @return The first object.
+     * @return The first object, or null if the list is empty.
      */
     public T takeFirst()
     {
-        lock.lock();
-        try {
-            return list.get(0);
-        } finally {
-            lock.unlock();
-        }
+        return queue.peek();
     }
 
     /**
      * Removes the first object of the list.
-     * @return The removed object.
+     * @return The removed object, or null if the list is empty.
      */
     public T moveFirst() {
-        lock.lock();
-        try {
-            return list.remove(0);
-        } finally {
-            lock.unlock();
+        return moveFirst(null);
+    }
+
+    /**
+     * Removes the first object of the list.
+     * @param removed Receives the number of modifications the removal produced, if an object was removed. It may be null.
+     * @return The removed object, or null if the list is empty.
+     */
+    T moveFirst(final IntConsumer removed) {
+        T object = queue.poll();
+        if (object != null) {
+            int mods = modifications.incrementAndGet();
+            if (removed != null)
+                removed.accept(mods);
         }
+        return object;
+    }
+
+    /**
+     * Copies the objects of the list, in their order, in linear time. The copy is not affected by later insertions
+     * or removals. It is not an atomic picture of the list, though: an object which is inserted or removed while
+     * the copy is made may or may not be in it. Such a change can be noticed by comparing the number of
+     * modifications before and after the copy.
+     * @return A List with the objects.
+     */
+    public List<T> snapshot() {
+        return queue.snapshot();
     }
 
     /**
@@ -94,11 +187,19 @@ public class WaitList<T>
     }
 
     /**
-     * @return The size of the WaitingList.
+     * @return The size of the WaitingList. An object which is being inserted concurrently may already be counted.
      */
     public int getSize()
     {
-        return list.size();
+        return queue.size();
+    }
+
+    /**
+     * @return The number of insertions and removals since the WaitingList was created.
+     */
+    int getModifications()
+    {
+        return modifications.get();
     }
 
     /**
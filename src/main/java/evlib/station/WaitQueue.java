@@ -0,0 +1,43 @@
+package evlib.station;
+
+import java.util.List;
+
+interface WaitQueue<T> {
+    /**
+     * Inserts an object, which is not null.
+     * @param object The object to be inserted.
+     */
+    void add(T object);
+
+    /**
+     * @param object The object to be removed.
+     * @return True if the object was removed, false if it was not found.
+     */
+    boolean remove(T object);
+
+    /**
+     * @return The first object, or null if the queue is empty.
+     */
+    T peek();
+
+    /**
+     * @return The removed first object, or null if the queue is empty.
+     */
+    T poll();
+
+    /**
+     * @param index The place of the object, in the order of service.
+     * @return The object, or null if there is not any object in this place.
+     */
+    T get(int index);
+
+    /**
+     * @return A copy of the objects, in the order of service.
+     */
+    List<T> snapshot();
+
+    /**
+     * @return The number of objects.
+     */
+    int size();
+}
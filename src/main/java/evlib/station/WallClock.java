@@ -0,0 +1,19 @@
+package evlib.station;
+
+public class WallClock implements Clock {
+    private static final WallClock instance = new WallClock();
+
+    /**
+     * @return The WallClock instance.
+     */
+    public static WallClock getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return The current time of the system in milliseconds.
+     */
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,148 @@
+package evlib.station;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WorkerPool implements WorkerScheduler {
+    private static final AtomicInteger idGenerator = new AtomicInteger(0);
+    private static WorkerPool shared;
+    private final ScheduledExecutorService executor;
+    private final Set<Runnable> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong failures = new AtomicLong(0);
+    private int id;
+
+    /**
+     * Creates a new WorkerPool with a fixed number of threads.
+     * @param threads The number of threads of the pool.
+     * @param deamon True if the threads of the pool are deamons, false if not.
+     */
+    public WorkerPool(final int threads, final boolean deamon) {
+        this.id = idGenerator.incrementAndGet();
+        final AtomicInteger counter = new AtomicInteger(0);
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(deamon);
+            t.setName("WorkerPool" + id + "-" + counter.incrementAndGet());
+            return t;
+        };
+        ScheduledThreadPoolExecutor ex = new ScheduledThreadPoolExecutor(threads, factory);
+        ex.setRemoveOnCancelPolicy(true);
+        this.executor = ex;
+    }
+
+    /**
+     * Creates a new WorkerPool which runs the tasks in the given executor.
+     * @param ex The ScheduledExecutorService to be used.
+     */
+    public WorkerPool(final ScheduledExecutorService ex) {
+        this.id = idGenerator.incrementAndGet();
+        this.executor = ex;
+    }
+
+    /**
+     * Returns the WorkerPool which is shared by the whole JVM. It is created in the first call, with
+     * one deamon thread per available processor.
+     * @return The shared WorkerPool.
+     */
+    public static synchronized WorkerPool getShared() {
+        if (shared == null || shared.executor.isShutdown())
+            shared = new WorkerPool(Runtime.getRuntime().availableProcessors(), true);
+        return shared;
+    }
+
+    /**
+     * Schedules the task in the executor of the pool. A thread of the pool is occupied only while
+     * the task runs, not during the waiting.
+     * @param name The name of the worker the task belongs to.
+     * @param delay The delay in milliseconds.
+     * @param task The task to be run when the delay passes.
+     * @param interruption The task to be run if the task fails, or if the pool is shut down before the delay passes
+     * or before the task is scheduled. If the task throws an Error, the interruption is run and the Error is thrown again.
+     * A RuntimeException of the task or the interruption is counted in getFailures() and given to the
+     * UncaughtExceptionHandler of the thread which runs it.
+     */
+    public void schedule(final String name, final long delay, final Runnable task, final Runnable interruption) {
+        final Runnable abort = () -> {
+            try {
+                if (interruption != null)
+                    interruption.run();
+            } catch (RuntimeException ex) {
+                fail(ex);
+            }
+        };
+        pending.add(abort);
+        try {
+            executor.schedule(() -> {
+                if (!pending.remove(abort))
+                    return;
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    fail(ex);
+                    abort.run();
+                } catch (Error err) {
+                    abort.run();
+                    throw err;
+                }
+            }, Math.max(delay, 0), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            if (pending.remove(abort))
+                abort.run();
+        }
+    }
+
+    /**
+     * Counts a failed task and gives its exception to the UncaughtExceptionHandler of the current thread.
+     * @param ex The exception.
+     */
+    private void fail(final RuntimeException ex) {
+        failures.incrementAndGet();
+        Thread t = Thread.currentThread();
+        t.getUncaughtExceptionHandler().uncaughtException(t, ex);
+    }
+
+    /**
+     * @return The number of tasks and interruptions which threw a RuntimeException.
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * @return The executor of the WorkerPool.
+     */
+    public ScheduledExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Stops the WorkerPool. The waiting tasks are not executed. Their interruption is run instead, so the
+     * workers are released and the energy they reserved returns to the stations.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Runnable abort : pending)
+            if (pending.remove(abort))
+                abort.run();
+    }
+
+    /**
+     * @return The id of the WorkerPool.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id for the WorkerPool.
+     * @param d The id to be set.
+     */
+    public void setId(final int d) { this.id = d; }
+}
@@ -0,0 +1,13 @@
+package evlib.station;
+
+public interface WorkerScheduler {
+
+    /**
+     * Runs a task of a Charger, DisCharger, ExchangeHandler or ParkingSlot once the given delay has passed.
+     * @param name The name of the worker the task belongs to.
+     * @param delay The delay in milliseconds.
+     * @param task The task to be run when the delay passes.
+     * @param interruption The task to be run if the waiting is interrupted.
+     */
+    void schedule(String name, long delay, Runnable task, Runnable interruption);
+}
@@ -0,0 +1,66 @@
+package evlib.sources;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergySourceTest {
+    private Wind wind = new Wind();
+
+    @Test
+    void insertAndPop() {
+        for (int i = 0; i < 40; i++)
+            wind.insertAmount(i);
+        for (int i = 0; i < 30; i++)
+            assertEquals(i, wind.popAmount());
+        for (int i = 40; i < 70; i++)
+            wind.insertAmount(i);
+        assertEquals(40, wind.getSize());
+        for (int i = 30; i < 70; i++)
+            assertEquals(i, wind.popAmount());
+        assertEquals(0, wind.popAmount());
+        assertEquals(0, wind.getSize());
+    }
+
+    @Test
+    void bulkInsertAndDrain() {
+        double[] year = new double[525600];
+        for (int i = 0; i < year.length; i++)
+            year[i] = i % 60;
+        Solar solar = new Solar(new double[]{5, 6});
+        solar.popAmount();
+        solar.insertAmounts(year);
+        assertEquals(year.length + 1, solar.getSize());
+        assertEquals(6, solar.popAmount());
+        double[] hour = solar.drainAmounts(60);
+        assertEquals(60, hour.length);
+        for (int i = 0; i < 60; i++)
+            assertEquals(i, hour[i]);
+        assertEquals(year.length - 60, solar.drainAmounts(Integer.MAX_VALUE).length);
+        assertEquals(0, solar.drainAmounts(10).length);
+    }
+
+    @Test
+    void wrapAround() {
+        for (int i = 0; i < 12; i++)
+            wind.insertAmount(i);
+        wind.drainAmounts(10);
+        wind.insertAmounts(new double[]{12, 13, 14, 15, 16, 17, 18, 19, 20, 21});
+        double[] all = wind.drainAmounts(100);
+        assertEquals(12, all.length);
+        for (int i = 0; i < all.length; i++)
+            assertEquals(i + 10, all[i]);
+    }
+
+    @Test
+    void overridePopAmount() {
+        Solar solar = new Solar() {
+            @Override
+            public double popAmount(final long time) {
+                return time == 0 ? 0 : 42;
+            }
+        };
+        assertEquals(42, solar.popAmount());
+        assertEquals(0, solar.popAmount(0));
+    }
+}
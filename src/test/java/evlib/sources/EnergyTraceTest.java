@@ -0,0 +1,65 @@
+package evlib.sources;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyTraceTest {
+
+    @Test
+    void convertAndRead() throws IOException {
+        Path csv = Files.createTempFile("trace", ".csv");
+        Path bin = Files.createTempFile("trace", ".bin");
+        try {
+            Files.write(csv, Arrays.asList("time,amount", "0,150", "", "# night", "60000, 190.5", "120000,600"),
+                    StandardCharsets.UTF_8);
+            assertEquals(3, EnergyTrace.convert(csv.toString(), bin.toString()));
+            try (EnergyTrace trace = new EnergyTrace(bin.toString())) {
+                assertEquals(3, trace.getCount());
+                Solar solar = new Solar(trace);
+                assertSame(trace, solar.getPackageSource());
+                solar.insertAmount(10);
+                assertEquals(10, solar.popAmount());
+                assertEquals(150, solar.popAmount());
+                assertEquals(190.5, solar.popAmount());
+                assertEquals(1, trace.getRemaining());
+                assertEquals(600, solar.popAmount());
+                assertFalse(trace.hasNext());
+                assertEquals(0, solar.popAmount());
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(bin);
+        }
+    }
+
+    @Test
+    void badFiles() throws IOException {
+        Path csv = Files.createTempFile("trace", ".csv");
+        Path bin = Files.createTempFile("trace", ".bin");
+        try {
+            Files.write(csv, Arrays.asList("150", "x"), StandardCharsets.UTF_8);
+            IOException ex = assertThrows(IOException.class, () -> EnergyTrace.convert(csv.toString(), bin.toString()));
+            assertTrue(ex.getMessage().contains(":2:"));
+            assertFalse(Files.exists(bin));
+            Files.write(bin, new byte[]{1, 2, 3});
+            assertThrows(IOException.class, () -> new EnergyTrace(bin.toString()));
+            ByteBuffer header = ByteBuffer.allocate(EnergyTrace.HEADER + 8).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(EnergyTrace.MAGIC).putInt(EnergyTrace.VERSION).putLong(1L << 61).putDouble(150);
+            Files.write(bin, header.array());
+            IOException truncated = assertThrows(IOException.class, () -> new EnergyTrace(bin.toString()));
+            assertTrue(truncated.getMessage().startsWith("Truncated energy trace"));
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(bin);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package evlib.sources;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductionModelTest {
+    private static final long HOUR = 3600000;
+
+    @Test
+    void solarCurve() {
+        SolarCurve curve = new SolarCurve(100, 6, 18, 0);
+        assertEquals(0, curve.getAmount(3 * HOUR));
+        assertEquals(100, curve.getAmount(12 * HOUR), 1e-9);
+        assertEquals(50, curve.getAmount(8 * HOUR), 1e-9);
+        assertEquals(0, curve.getAmount(20 * HOUR));
+        assertEquals(curve.getAmount(12 * HOUR), curve.getAmount(36 * HOUR));
+        assertEquals(100, new SolarCurve(100, 6, 18, 2 * HOUR).getAmount(10 * HOUR), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> new SolarCurve(100, 18, 6, 0));
+    }
+
+    @Test
+    void windModel() {
+        WindModel model = new WindModel(42, 10, 40, 1000);
+        double sum = 0;
+        for (long t = 0; t < 100000; t++) {
+            double amount = model.getAmount(t * 1000);
+            assertTrue(amount >= 0 && amount <= 40);
+            sum += amount;
+        }
+        assertEquals(10, sum / 100000, 0.2);
+        assertEquals(model.getAmount(7000), model.getAmount(7999));
+        assertEquals(model.getAmount(7000), new WindModel(42, 10, 40, 1000).getAmount(7000));
+        assertNotEquals(model.getAmount(7000), new WindModel(43, 10, 40, 1000).getAmount(7000));
+        assertThrows(IllegalArgumentException.class, () -> new WindModel(42, 10, 40, 0));
+    }
+
+    @Test
+    void sharedModel() {
+        SolarCurve curve = new SolarCurve(100, 6, 18, 0);
+        Solar first = new Solar(curve);
+        Solar second = new Solar(curve);
+        second.insertAmount(5);
+        assertEquals(100, first.popAmount(12 * HOUR), 1e-9);
+        assertEquals(100, first.popAmount(12 * HOUR), 1e-9);
+        assertEquals(5, second.popAmount(12 * HOUR));
+        assertEquals(100, second.popAmount(12 * HOUR), 1e-9);
+        assertEquals(0, second.popAmount(3 * HOUR));
+    }
+}
@@ -0,0 +1,167 @@
+package evlib.station;
+
+import evlib.ev.Battery;
+import evlib.ev.Driver;
+import evlib.ev.ElectricVehicle;
+import evlib.sources.Solar;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacklogTest {
+    private Backlog backlog = new Backlog();
+
+    @Test
+    void getWaitingTime() {
+        Object charger1 = new Object();
+        Object charger2 = new Object();
+        backlog.reset(0);
+        assertEquals(backlog.getWaitingTime(0), -1);
+        backlog.addResource(charger1, false, 0);
+        backlog.addResource(charger2, true, 3000);
+        assertEquals(backlog.getWaitingTime(1000), 0);
+
+        backlog.started(charger1, 5000);
+        assertEquals(backlog.getWaitingTime(1000), 2000);
+        backlog.finished(charger2);
+        assertEquals(backlog.getWaitingTime(1000), 0);
+        backlog.started(charger2, 4000);
+
+        backlog.enqueue(0, 1, 1000, 2000);
+        backlog.enqueue(1, 2, 1000, 2000);
+        assertTrue(backlog.isValid(2));
+        assertEquals(backlog.getWaitingTime(1000), 5000);
+
+        backlog.enqueue(5, 6, 1000, 2000);
+        assertFalse(backlog.isValid(6));
+    }
+
+    @Test
+    void dequeue() {
+        Object charger1 = new Object();
+        Object charger2 = new Object();
+        backlog.reset(0);
+        backlog.addResource(charger1, true, 3000);
+        backlog.addResource(charger2, true, 4000);
+        backlog.enqueue(0, 1, 1000, 2000);
+        backlog.enqueue(1, 2, 1000, 2000);
+        assertEquals(backlog.getWaitingTime(1000), 4000);
+
+        backlog.finished(charger1);
+        backlog.dequeue(2, 3);
+        backlog.started(charger1, 5000);
+        assertTrue(backlog.isValid(3));
+        assertEquals(backlog.getWaitingTime(3000), 2000);
+
+        backlog.finished(charger2);
+        backlog.dequeue(3, 4);
+        backlog.started(charger2, 6500);
+        assertTrue(backlog.isValid(4));
+        assertEquals(backlog.getWaitingTime(4000), 1000);
+
+        backlog.finished(charger1);
+        assertTrue(backlog.isValid(4));
+        assertEquals(backlog.getWaitingTime(5000), 0);
+        backlog.finished(charger2);
+        backlog.finished(charger2);
+        assertFalse(backlog.isValid(4));
+    }
+
+    @Test
+    void interleavedChanges() {
+        Object charger = new Object();
+        backlog.reset(5);
+        backlog.addResource(charger, true, 3000);
+        backlog.dequeue(6, 7);
+        assertFalse(backlog.isValid(5));
+        backlog.enqueue(5, 6, 1000, 2000);
+        assertFalse(backlog.isValid(6));
+
+        backlog.reset(5);
+        backlog.addResource(charger, true, 3000);
+        backlog.enqueue(5, 7, 1000, 2000);
+        assertFalse(backlog.isValid(5));
+        assertFalse(backlog.isValid(7));
+    }
+
+    @Test
+    void stationWaitingTime() {
+        ChargingStation station = new ChargingStation("Miami");
+        Simulation simulation = new Simulation(0);
+        station.setSimulation(simulation);
+        Solar solar = new Solar();
+        station.addEnergySource(solar);
+        solar.insertAmount(1000);
+        station.updateStorage();
+        station.setChargingRateSlow(800);
+        station.addCharger(new Charger(station, "slow"));
+        station.addCharger(new Charger(station, "slow"));
+        assertEquals(station.getWaitingTime("slow"), 0);
+        assertEquals(station.getWaitingTime("fast"), -1);
+
+        for (int i = 0; i < 4; i++) {
+            ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+            vehicle.setDriver(new Driver("Petros"));
+            vehicle.setBattery(new Battery(100, 500));
+            ChargingEvent event = new ChargingEvent(station, vehicle, 20, "slow");
+            event.setWaitingTime(10000000);
+            event.preProcessing();
+            event.execution();
+        }
+
+        assertEquals(station.getSlow().getSize(), 2);
+        assertEquals(station.getWaitingTime("slow"), 180000);
+        simulation.advance(100000);
+        assertEquals(station.getSlow().getSize(), 0);
+        assertEquals(station.getWaitingTime("slow"), 80000);
+        simulation.run();
+        assertEquals(station.getWaitingTime("slow"), 0);
+    }
+
+    @Test
+    void concurrentWaitingTime() throws InterruptedException {
+        ChargingStation station = new ChargingStation("Miami");
+        WorkerPool pool = new WorkerPool(8, true);
+        station.setWorkerScheduler(pool);
+        station.setSpecificAmount("Discharging", 1000000);
+        station.setChargingRateFast(3600000);
+        for (int i = 0; i < 4; i++)
+            station.addCharger(new Charger(station, "fast"));
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread poller = new Thread(() -> {
+            while (running.get())
+                station.getWaitingTime("fast");
+        });
+        Thread arrivals = new Thread(() -> {
+            while (running.get()) {
+                ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+                vehicle.setDriver(new Driver("Petros"));
+                vehicle.setBattery(new Battery(0, 1000000));
+                ChargingEvent event = new ChargingEvent(station, vehicle, 1, "fast");
+                event.setWaitingTime(10000000);
+                event.preProcessing();
+                event.execution();
+            }
+        });
+        poller.setDaemon(true);
+        arrivals.setDaemon(true);
+        poller.start();
+        arrivals.start();
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long end = System.currentTimeMillis() + 1000;
+        while (System.currentTimeMillis() < end && threads.findDeadlockedThreads() == null)
+            Thread.sleep(20);
+        running.set(false);
+        assertNull(threads.findDeadlockedThreads());
+        poller.join(2000);
+        arrivals.join(2000);
+        assertFalse(poller.isAlive());
+        assertFalse(arrivals.isAlive());
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,166 @@
+package evlib.station;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryPlanTest {
+    private static final String PLAN = "ev,10.5\nev,20\nde,ch,1,1000,int,500,ch,1,2000\nde,ch,2,1500";
+
+    private File write(final String plan) throws IOException {
+        File file = File.createTempFile("plan", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), Collections.singletonList(plan), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private File compile(final String plan) throws IOException {
+        File binary = File.createTempFile("plan", ".bin");
+        binary.deleteOnExit();
+        ChargingStation.compilePlan(write(plan).getPath(), binary.getPath());
+        return binary;
+    }
+
+    private String dump(final PlanInput input) throws IOException {
+        StringBuilder out = new StringBuilder();
+        PlanRecord record;
+        while ((record = input.nextRecord()) != null) {
+            if (record == PlanRecord.EV)
+                out.append("ev ").append(input.getEnergy()).append('\n');
+            else {
+                out.append("de");
+                PlanRecord step;
+                while ((step = input.nextStep()) != null) {
+                    if (step == PlanRecord.CH)
+                        out.append(" ch ").append(input.getEvent());
+                    else
+                        out.append(" int");
+                    out.append(' ').append(input.getTime());
+                }
+                out.append('\n');
+            }
+        }
+        input.close();
+        return out.toString();
+    }
+
+    @Test
+    void compile() throws IOException {
+        File binary = compile(PLAN);
+        assertEquals(BinaryPlan.HEADER + 8 * BinaryPlan.RECORD, binary.length());
+        assertTrue(BinaryPlan.isBinary(binary.getPath()));
+        assertFalse(BinaryPlan.isBinary(write(PLAN).getPath()));
+        assertThrows(FileNotFoundException.class, () -> BinaryPlan.isBinary(binary.getPath() + ".missing"));
+
+        BinaryPlan plan = new BinaryPlan(binary.getPath());
+        assertEquals(8, plan.getCount());
+        assertEquals(dump(new PlanParser(new StringReader(PLAN))), dump(plan));
+
+        File text = write("ev,10\nde,ch,2,100");
+        File target = new File(binary.getPath() + ".broken");
+        PlanException ex = assertThrows(PlanException.class, () -> ChargingStation.compilePlan(text.getPath(), target.getPath()));
+        assertEquals(2, ex.getLine());
+        assertFalse(target.exists());
+    }
+
+    @Test
+    void broken() throws IOException {
+        File binary = File.createTempFile("plan", ".bin");
+        binary.deleteOnExit();
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryPlan.HEADER + 3 * BinaryPlan.RECORD).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(BinaryPlan.MAGIC).putInt(BinaryPlan.VERSION).putLong(3);
+        buffer.putInt(1).putInt(0).putLong(Double.doubleToRawLongBits(10));
+        buffer.putInt(2).putInt(0).putLong(0);
+        buffer.putInt(3).putInt(5).putLong(100);
+        Files.write(binary.toPath(), buffer.array());
+        ChargingStation station = new ChargingStation("Miami");
+        station.addCharger(new Charger(station, "slow"));
+        PlanException ex = assertThrows(PlanException.class, () -> station.checkPlan(binary.getPath()));
+        assertEquals(3, ex.getLine());
+        assertEquals("line 3: step 1 refers to event 5, which is not defined in a previous record", ex.getMessage());
+
+        Files.write(binary.toPath(), Arrays.copyOf(buffer.array(), BinaryPlan.HEADER + BinaryPlan.RECORD));
+        IOException truncated = assertThrows(IOException.class, () -> new BinaryPlan(binary.getPath()));
+        assertTrue(truncated.getMessage().startsWith("Truncated binary plan"));
+
+        buffer.putLong(8, (Long.MAX_VALUE >> 4) + 1);
+        Files.write(binary.toPath(), buffer.array());
+        IOException overflow = assertThrows(IOException.class, () -> new BinaryPlan(binary.getPath()));
+        assertTrue(overflow.getMessage().startsWith("Truncated binary plan"));
+    }
+
+    @Test
+    void largePlan() throws IOException {
+        File text = File.createTempFile("plan", ".txt");
+        text.deleteOnExit();
+        int events = (1 << 20) + 100;
+        try (BufferedWriter out = Files.newBufferedWriter(text.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < events; i++)
+                out.write("ev,1\n");
+            out.write("de,ch," + events + ",10,int,20\n");
+        }
+        File binary = File.createTempFile("plan", ".bin");
+        binary.deleteOnExit();
+        assertEquals(events + 3, ChargingStation.compilePlan(text.getPath(), binary.getPath()));
+        try (BinaryPlan plan = new BinaryPlan(binary.getPath())) {
+            int counter = 0;
+            while (plan.nextRecord() == PlanRecord.EV)
+                ++counter;
+            assertEquals(events, counter);
+            assertEquals(PlanRecord.CH, plan.nextStep());
+            assertEquals(events, plan.getEvent());
+            assertEquals(PlanRecord.INT, plan.nextStep());
+            assertEquals(20, plan.getTime());
+            assertNull(plan.nextStep());
+            assertNull(plan.nextRecord());
+        }
+        try (BinaryPlan plan = new BinaryPlan(binary.getPath());
+             BinaryPlan steps = plan.open(events, events + 1, events)) {
+            assertEquals(PlanRecord.DE, steps.nextRecord());
+            assertEquals(events + 1, steps.getLine());
+            assertEquals(PlanRecord.CH, steps.nextStep());
+            assertEquals(events, steps.getEvent());
+            assertEquals(PlanRecord.INT, steps.nextStep());
+            assertNull(steps.nextStep());
+            assertThrows(IOException.class, () -> plan.open(events + 3, events + 4, events));
+        }
+    }
+
+    @Test
+    void execEvents() throws IOException {
+        ChargingStation station = new ChargingStation("Miami");
+        Simulation simulation = new Simulation(0);
+        station.setSimulation(simulation);
+        station.setSpecificAmount("Discharging", 1500);
+        station.addCharger(new Charger(station, "slow"));
+        station.addCharger(new Charger(station, "slow"));
+
+        File binary = compile(PLAN);
+        station.checkPlan(binary.getPath());
+        station.execEvents(binary.getPath());
+        assertTrue(station.execEvents);
+        BinaryPlan steps = (BinaryPlan) station.getChargers()[0].plan;
+        assertEquals(BinaryPlan.STEP_WINDOW, steps.getWindowSize());
+        assertEquals(2500, station.getChargers()[0].planLeft);
+        ChargingEvent first = station.events.get(1);
+        ChargingEvent second = station.events.get(2);
+        assertEquals(10.5, first.getEnergyToBeReceived());
+        simulation.run();
+        assertEquals(3500, simulation.getTime());
+        assertEquals("finished", first.getCondition());
+        assertEquals("finished", second.getCondition());
+        assertFalse(station.execEvents);
+    }
+}
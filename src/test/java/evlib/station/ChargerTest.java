@@ -33,7 +33,7 @@ class ChargerTest {
         Thread.sleep(91000);
 
         assertEquals("finished", event.getCondition());
-        assertTrue(ChargingEvent.getChargingLog().contains(event));
+        assertTrue(station.getChargingHistory().contains(event));
         assertNull(charger.getChargingEvent());
         assertEquals(driver.getDebt(), 0);
         assertEquals(battery.getRemAmount(), 170);
@@ -6,6 +6,8 @@ import evlib.ev.ElectricVehicle;
 import evlib.sources.Solar;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -112,4 +114,46 @@ class ChargingEventTest {
         assertTrue(event.getRemainingChargingTime() > 14000);
     }
 
+    @Test
+    void concurrentPreProcessing() throws InterruptedException {
+        station.addEnergySource(solar);
+        solar.insertAmount(1500);
+        for (int i = 0; i < 8; i++)
+            station.addCharger(new Charger(station, "slow"));
+        station.updateStorage();
+        station.setUnitPrice(100);
+        station.setChargingRateSlow(800);
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        for (int round = 0; round < 50; round++) {
+            ChargingEvent event = new ChargingEvent(station, vehicle, 1, "slow");
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[8];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ignored) {
+                        return;
+                    }
+                    event.preProcessing();
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            for (Thread t : threads)
+                t.join();
+            assertEquals(event.getCondition(), "ready");
+            assertEquals(station.getTotalEnergy(), 1499);
+            int taken = 0;
+            for (Charger ch : station.getChargers())
+                if (ch.getChargingEvent() == event) {
+                    taken++;
+                    ch.setChargingEvent(null);
+                }
+            assertEquals(taken, 1);
+        }
+    }
+
 }
@@ -0,0 +1,91 @@
+package evlib.station;
+
+import evlib.sources.Solar;
+import evlib.sources.SolarCurve;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockTest {
+    private ChargingStation station = new ChargingStation("Miami");
+    private ManualClock clock = new ManualClock(1000);
+
+    @Test
+    void manualClock() {
+        assertEquals(clock.millis(), 1000);
+        clock.advance(500);
+        assertEquals(clock.millis(), 1500);
+        clock.setTime(0);
+        assertEquals(clock.millis(), 0);
+        assertEquals(clock.toRealTime(2000), 2000);
+    }
+
+    @Test
+    void scaledClock() throws InterruptedException {
+        ScaledClock scaled = new ScaledClock(0, 100);
+        Thread.sleep(50);
+        assertTrue(scaled.millis() >= 5000);
+        assertEquals(scaled.toRealTime(90000), 900);
+        assertThrows(IllegalArgumentException.class, () -> new ScaledClock(0));
+        assertThrows(IllegalArgumentException.class, () -> new ScaledClock(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new ScaledClock(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void getRemainingTime() {
+        station.setClock(clock);
+        ChargingEvent charging = new ChargingEvent(station, null, 20, "slow");
+        charging.setCondition("charging");
+        charging.setChargingTime(90000);
+        DisChargingEvent discharging = new DisChargingEvent(station, null, 20);
+        discharging.setCondition("discharging");
+        discharging.setDisChargingTime(60000);
+        ParkingEvent parking = new ParkingEvent(station, null, 30000);
+        parking.setCondition("parking");
+        parking.setParkingTime(30000);
+
+        clock.advance(20000);
+
+        assertEquals(charging.getRemainingChargingTime(), 70000);
+        assertEquals(discharging.getRemainingDisChargingTime(), 40000);
+        assertEquals(parking.getRemainingParkingTime(), 10000);
+    }
+
+    @Test
+    void productionFollowsClock() {
+        station.setClock(clock);
+        station.addEnergySource(new Solar(new SolarCurve(100, 6, 18, 0)));
+        clock.setTime(3 * 3600000);
+        station.updateStorage();
+        assertEquals(station.getTotalEnergy(), 0);
+        clock.setTime(12 * 3600000);
+        station.updateStorage();
+        assertEquals(station.getTotalEnergy(), 100, 1e-9);
+    }
+
+    @Test
+    void getCurrentPrice() {
+        station.setClock(clock);
+        station.setUnitPrice(50);
+        double[] prices = {150, 25, 160};
+        long[] spaces = {2500, 6000, 9000};
+        station.setPricingPolicy(new PricingPolicy(spaces, prices));
+
+        assertEquals(station.getCurrentPrice(), 150);
+        clock.advance(2500);
+        assertEquals(station.getCurrentPrice(), 25);
+        clock.advance(20000);
+        assertEquals(station.getCurrentPrice(), 50);
+    }
+
+    @Test
+    void setClock() {
+        assertSame(station.getClock(), WallClock.getInstance());
+        station.setClock(clock);
+        assertSame(station.getClock(), clock);
+        station.setSimulation(new Simulation(0));
+        assertEquals(station.getClock().millis(), 0);
+        station.setSimulation(null);
+        assertSame(station.getClock(), WallClock.getInstance());
+    }
+}
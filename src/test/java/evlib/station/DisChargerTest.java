@@ -27,7 +27,7 @@ class DisChargerTest {
         Thread.sleep(100000);
 
         assertEquals("finished", disEvent.getCondition());
-        assertTrue(DisChargingEvent.getDischargingLog().contains(disEvent));
+        assertTrue(station.getDisChargingHistory().contains(disEvent));
         assertNull(disCharger.getDisChargingEvent());
         assertEquals(disEvent.getElectricVehicle().getDriver().getProfit(), 0);
         assertEquals(disEvent.getDisChargingTime(), 90000);
@@ -0,0 +1,75 @@
+package evlib.station;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyLedgerTest {
+
+    @Test
+    void setAndAdd() {
+        EnergyLedger ledger = new EnergyLedger();
+        ledger.set("Solar", 100.5);
+        ledger.add("Solar", 0.25);
+        ledger.add("Wind", 50);
+        assertThrows(IllegalArgumentException.class, () -> ledger.set("Coal", 10));
+        assertThrows(IllegalArgumentException.class, () -> ledger.add("solar", 10));
+        assertEquals(ledger.get("Solar"), 100.75);
+        assertEquals(ledger.get("Coal"), 0);
+        assertEquals(ledger.getTotal(), 150.75);
+        ledger.set("Solar", 0);
+        assertEquals(ledger.getTotal(), 50);
+    }
+
+    @Test
+    void takeInOrder() {
+        EnergyLedger ledger = new EnergyLedger();
+        ledger.setOrder(new String[]{"Wind", "Solar", "Discharging"});
+        ledger.set("Solar", 100);
+        ledger.set("Wind", 30);
+        assertEquals(EnergyLedger.toEnergy(EnergyLedger.sum(ledger.take(50))), 50);
+        assertEquals(ledger.get("Wind"), 0);
+        assertEquals(ledger.get("Solar"), 80);
+        assertEquals(EnergyLedger.toEnergy(EnergyLedger.sum(ledger.take(200))), 80);
+        assertEquals(ledger.getTotal(), 0);
+        assertEquals(EnergyLedger.toEnergy(EnergyLedger.sum(ledger.take(10))), 0);
+    }
+
+    @Test
+    void takeSkipsSourcesOutOfOrder() {
+        EnergyLedger ledger = new EnergyLedger();
+        ledger.setOrder(new String[]{"Solar"});
+        ledger.set("Solar", 10);
+        ledger.set("Wind", 30);
+        assertEquals(EnergyLedger.toEnergy(EnergyLedger.sum(ledger.take(25))), 10);
+        assertEquals(ledger.getTotal(), 30);
+    }
+
+    @Test
+    void concurrentTake() throws InterruptedException {
+        EnergyLedger ledger = new EnergyLedger();
+        ledger.setOrder(new String[]{"Solar", "Wind"});
+        ledger.set("Solar", 500);
+        ledger.set("Wind", 500);
+        LongAdder taken = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++)
+                    taken.add(EnergyLedger.sum(ledger.take(0.5)));
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(EnergyLedger.toEnergy(taken.sum()), 1000);
+        assertEquals(ledger.getTotal(), 0);
+        assertEquals(ledger.get("Solar"), 0);
+        assertEquals(ledger.get("Wind"), 0);
+    }
+}
@@ -0,0 +1,47 @@
+package evlib.station;
+
+import evlib.sources.Solar;
+import evlib.sources.Wind;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyLogTest {
+
+    @Test
+    void append() {
+        EnergyLog log = new EnergyLog();
+        for (int i = 0; i < 100; i++)
+            log.append(i * 1000, EnergyLedger.index(i % 2 == 0 ? "Solar" : "Wind"), i);
+        assertEquals(100, log.getSize());
+        assertEquals(99000, log.getTime(99));
+        assertEquals("Wind", log.getSource(99));
+        assertEquals(99, log.getAmount(99));
+        assertEquals(2450, log.getTotal("Solar"));
+        assertThrows(IndexOutOfBoundsException.class, () -> log.getAmount(100));
+        log.clear();
+        assertEquals(0, log.getSize());
+    }
+
+    @Test
+    void updateStorage() {
+        ChargingStation station = new ChargingStation("Miami");
+        station.setClock(new ManualClock(5000));
+        Solar solar = new Solar(new double[]{150, 0, 40});
+        Wind wind = new Wind(new double[]{80});
+        station.addEnergySource(solar);
+        station.addEnergySource(wind);
+        station.updateStorage();
+        station.updateStorage();
+        station.deleteEnergySource(wind);
+        station.updateStorage();
+
+        EnergyLog log = station.getEnergyLog();
+        assertEquals(3, log.getSize());
+        assertEquals("Solar", log.getSource(0));
+        assertEquals("Wind", log.getSource(1));
+        assertEquals(40, log.getAmount(2));
+        assertEquals(5000, log.getTime(2));
+        assertEquals(190, station.getSpecificAmount("Solar"));
+    }
+}
@@ -0,0 +1,173 @@
+package evlib.station;
+
+import evlib.ev.Battery;
+import evlib.ev.Driver;
+import evlib.ev.ElectricVehicle;
+import evlib.sources.Solar;
+import evlib.sources.Wind;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnergyReservationTest {
+    private ChargingStation station = new ChargingStation("Miami");
+
+    @Test
+    void releaseAndCommit() {
+        station.addEnergySource(new Solar());
+        station.addEnergySource(new Wind());
+        station.setSpecificAmount("Solar", 100);
+        station.setSpecificAmount("Wind", 50);
+
+        EnergyReservation first = station.reserveEnergy(120);
+        assertEquals(first.getAmount(), 120);
+        assertEquals(station.getReservedEnergy(), 120);
+        assertEquals(station.getTotalEnergy(), 30);
+        assertEquals(station.getSpecificAmount("Solar"), 0);
+
+        EnergyReservation second = station.reserveEnergy(100);
+        assertEquals(second.getAmount(), 30);
+        assertEquals(station.getTotalEnergy(), 0);
+
+        assertTrue(first.release());
+        assertFalse(first.release());
+        assertFalse(first.commit());
+        assertFalse(first.isOpen());
+        assertEquals(station.getSpecificAmount("Solar"), 100);
+        assertEquals(station.getSpecificAmount("Wind"), 20);
+        assertEquals(station.getReservedEnergy(), 30);
+
+        assertTrue(second.commit());
+        assertFalse(second.release());
+        assertEquals(station.getReservedEnergy(), 0);
+        assertEquals(station.getTotalEnergy(), 120);
+    }
+
+    @Test
+    void eventReservation() {
+        Solar solar = new Solar();
+        station.addEnergySource(solar);
+        station.addCharger(new Charger(station, "slow"));
+        station.setSpecificAmount("Solar", 1500);
+        station.setChargingRateSlow(800);
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        ChargingEvent event = new ChargingEvent(station, vehicle, 20, "slow");
+        event.preProcessing();
+
+        assertTrue(event.getReservation().isOpen());
+        assertEquals(station.getReservedEnergy(), 20);
+        assertEquals(station.getTotalEnergy(), 1480);
+
+        event.releaseEnergy();
+        assertFalse(event.getReservation().isOpen());
+        assertEquals(station.getReservedEnergy(), 0);
+        assertEquals(station.getTotalEnergy(), 1500);
+    }
+
+    @Test
+    void releaseOnThreadInterruption() throws InterruptedException {
+        ChargingEvent event = startCharging();
+        Thread worker = null;
+        for (Thread t : Thread.getAllStackTraces().keySet())
+            if (t.getName().equals("Charger" + station.getChargers()[0].getId()))
+                worker = t;
+        assertNotNull(worker);
+        worker.interrupt();
+        worker.join(5000);
+        assertReleased(event);
+    }
+
+    @Test
+    void releaseOnWorkerPoolShutdown() {
+        WorkerPool pool = new WorkerPool(1, true);
+        station.setWorkerScheduler(pool);
+        ChargingEvent event = startCharging();
+        pool.shutdown();
+        assertReleased(event);
+    }
+
+    @Test
+    void releaseOnSimulationCancel() {
+        Simulation simulation = new Simulation(0);
+        station.setSimulation(simulation);
+        ChargingEvent event = startCharging();
+        assertEquals(simulation.cancel(), 1);
+        assertReleased(event);
+        assertEquals(simulation.run(), 0);
+    }
+
+    @Test
+    void interruptionOnError() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(3);
+        Runnable broken = () -> {
+            throw new AssertionError("broken");
+        };
+        new ThreadScheduler(station).schedule("Broken1", 0, broken, interrupted::countDown);
+        WorkerPool pool = new WorkerPool(1, true);
+        pool.schedule("Broken2", 0, broken, interrupted::countDown);
+        Simulation simulation = new Simulation(0);
+        simulation.schedule("Broken3", 0, broken, interrupted::countDown);
+        assertThrows(AssertionError.class, simulation::step);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    void leaveQueue() {
+        Simulation simulation = new Simulation(0);
+        station.setSimulation(simulation);
+        ChargingEvent first = startCharging();
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        ChargingEvent second = new ChargingEvent(station, vehicle, 20, "slow");
+        second.setWaitingTime(10000000);
+        second.preProcessing();
+        assertEquals(second.getState(), EventCondition.WAIT);
+
+        assertTrue(station.leaveQueue(second));
+        assertFalse(station.leaveQueue(second));
+        assertEquals(second.getState(), EventCondition.NON_EXECUTABLE);
+        assertEquals(station.getSlow().getSize(), 0);
+        simulation.run();
+        assertEquals(first.getState(), EventCondition.FINISHED);
+        assertEquals(station.getReservedEnergy(), 0);
+        assertEquals(station.getTotalEnergy(), 1480);
+    }
+
+    /**
+     * Starts a slow charging of 20 energy units, which lasts 90 seconds.
+     * @return The ChargingEvent.
+     */
+    private ChargingEvent startCharging() {
+        station.addEnergySource(new Solar());
+        station.addCharger(new Charger(station, "slow"));
+        station.setSpecificAmount("Solar", 1500);
+        station.setChargingRateSlow(800);
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        ChargingEvent event = new ChargingEvent(station, vehicle, 20, "slow");
+        event.preProcessing();
+        event.execution();
+        assertEquals(event.getState(), EventCondition.CHARGING);
+        assertEquals(station.getReservedEnergy(), 20);
+        return event;
+    }
+
+    /**
+     * Checks that the energy of a stopped charging returned to the station and the Charger is empty.
+     * @param event The ChargingEvent.
+     */
+    private void assertReleased(final ChargingEvent event) {
+        assertFalse(event.getReservation().isOpen());
+        assertEquals(station.getReservedEnergy(), 0);
+        assertEquals(station.getTotalEnergy(), 1500);
+        assertNull(station.getChargers()[0].getChargingEvent());
+    }
+}
@@ -0,0 +1,70 @@
+package evlib.station;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCountersTest {
+    private ChargingStation station = new ChargingStation("Miami");
+
+    @Test
+    void transition() {
+        EventCounters counters = new EventCounters();
+        counters.transition(EventKind.FAST, null, EventCondition.CHARGING);
+        counters.transition(EventKind.FAST, EventCondition.CHARGING, EventCondition.FINISHED);
+        counters.transition(EventKind.FAST, EventCondition.FINISHED, EventCondition.FINISHED);
+        counters.transition(EventKind.FAST, null, EventCondition.ARRIVED);
+        counters.transition(EventKind.FAST, EventCondition.ARRIVED, EventCondition.NON_EXECUTABLE);
+        counters.transition(EventKind.FAST, EventCondition.NON_EXECUTABLE, EventCondition.WAIT);
+        counters.transition(null, EventCondition.CHARGING, EventCondition.FINISHED);
+        assertEquals(counters.get(EventKind.FAST, EventCondition.FINISHED), 1);
+        assertEquals(counters.get(EventKind.FAST, EventCondition.NON_EXECUTABLE), 0);
+        assertEquals(counters.get(EventKind.FAST, EventCondition.CHARGING), 0);
+        assertEquals(counters.get(EventKind.FAST, EventCondition.WAIT), 1);
+        assertEquals(counters.get(EventKind.SLOW, EventCondition.FINISHED), 0);
+    }
+
+    @Test
+    void getCompletedEvents() {
+        ChargingEvent event = new ChargingEvent(station, null, 20, "slow");
+        event.setCondition("charging");
+        event.setCondition("finished");
+        new DisChargingEvent(station, null, 10).setCondition("finished");
+        new ParkingEvent(station, null, 100).setCondition("nonExecutable");
+        new ChargingEvent(new ChargingStation("Paris"), null, 20, "slow").setCondition("finished");
+
+        assertEquals(station.getCompletedEvents("slow"), 1);
+        assertEquals(station.getCompletedEvents("fast"), 0);
+        assertEquals(station.getCompletedEvents("discharging"), 1);
+        assertEquals(station.getEventCount("parking", "nonExecutable"), 1);
+        assertEquals(station.getEventCount("slow", "charging"), 0);
+        assertEquals(station.getEventCount("slow", "unknown"), 0);
+    }
+
+    @Test
+    void compareAndSetState() {
+        ChargingEvent event = new ChargingEvent(station, null, 20, "fast");
+        assertEquals(station.getEventCount("fast", "arrived"), 1);
+        assertTrue(event.compareAndSetState(EventCondition.ARRIVED, EventCondition.WAIT));
+        assertFalse(event.compareAndSetState(EventCondition.ARRIVED, EventCondition.READY));
+        assertEquals(event.getState(), EventCondition.WAIT);
+        assertEquals(event.getCondition(), "wait");
+        assertEquals(station.getEventCount("fast", "arrived"), 0);
+        assertEquals(station.getEventCount("fast", "wait"), 1);
+        assertEquals(event.getKind(), EventKind.FAST);
+    }
+
+    @Test
+    void setUnknownCondition() {
+        ChargingEvent event = new ChargingEvent(station, null, 20, "fast");
+        assertThrows(IllegalArgumentException.class, () -> event.setCondition("charged"));
+        assertEquals(event.getState(), EventCondition.ARRIVED);
+        assertThrows(IllegalArgumentException.class, () -> new DisChargingEvent(station, null, 10).setCondition(null));
+        assertThrows(IllegalArgumentException.class, () -> new ParkingEvent(station, null, 100).setCondition("parked"));
+        event.setCondition("Charging");
+        assertEquals(event.getState(), EventCondition.CHARGING);
+        assertEquals(EventCondition.of("nonExecutable"), EventCondition.NON_EXECUTABLE);
+        assertEquals(station.getEventCount(EventKind.FAST, EventCondition.CHARGING), 1);
+        assertNull(EventCondition.of("charged"));
+    }
+}
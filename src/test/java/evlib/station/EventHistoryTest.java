@@ -0,0 +1,59 @@
+package evlib.station;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventHistoryTest {
+    private ChargingStation station = new ChargingStation("Miami");
+
+    @Test
+    void record() {
+        EventHistory<String> history = new EventHistory<>(3, 0);
+        for (int i = 0; i < 5; i++)
+            history.record("e" + i, i);
+        assertEquals(history.getSize(), 3);
+        assertEquals(history.snapshot().get(0), "e2");
+        assertFalse(history.contains("e1"));
+
+        history.setWindow(1000);
+        history.setCapacity(0);
+        history.record("e5", 1003);
+        history.record("e6", 2003);
+        assertEquals(history.getSize(), 2);
+        assertEquals(history.snapshot().get(0), "e5");
+        assertTrue(history.remove(history.snapshot().get(1)));
+        assertEquals(history.getSize(), 1);
+    }
+
+    @Test
+    void visit() {
+        EventHistory<String> history = new EventHistory<>();
+        history.record("e0", 0);
+        history.record("e1", 1);
+        StringBuilder visited = new StringBuilder();
+        history.visit(visited::append);
+        assertEquals(visited.toString(), "e0e1");
+        assertThrows(IllegalStateException.class, () -> history.visit(e -> {
+            throw new IllegalStateException(e);
+        }));
+    }
+
+    @Test
+    void setHistoryRetention() {
+        ChargingStation other = new ChargingStation("Paris");
+        station.setHistoryRetention(2, 0);
+        ChargingEvent event = new ChargingEvent(station, null, 10, "slow");
+        new ChargingEvent(station, null, 10, "slow");
+        new ChargingEvent(station, null, 10, "slow");
+        new ChargingEvent(other, null, 10, "slow");
+        DisChargingEvent disEvent = new DisChargingEvent(station, null, 10);
+
+        assertEquals(station.getChargingHistory().getSize(), 2);
+        assertFalse(station.getChargingHistory().contains(event));
+        assertEquals(other.getChargingHistory().getSize(), 1);
+        assertTrue(station.getDisChargingHistory().contains(disEvent));
+        assertEquals(station.getExchangeHistory().getSize(), 0);
+        assertEquals(station.getParkingHistory().getCapacity(), 2);
+    }
+}
@@ -0,0 +1,67 @@
+package evlib.station;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdlePoolTest {
+    private ChargingStation station = new ChargingStation("Miami");
+    private IdlePool<String> pool = new IdlePool<>();
+
+    @Test
+    void take() {
+        pool.add("a", true);
+        pool.add("b", false);
+        pool.add("c", true);
+        pool.release("a");
+
+        assertEquals(pool.getIdle(), 2);
+        assertEquals(pool.take(), "a");
+        assertEquals(pool.take(), "c");
+        assertNull(pool.take());
+
+        pool.release("b");
+        pool.remove("b");
+        pool.release("d");
+        assertNull(pool.take());
+    }
+
+    @Test
+    void releaseCharger() {
+        Charger ch1 = new Charger(station, "fast");
+        Charger ch2 = new Charger(station, "fast");
+        station.addCharger(ch1);
+        station.addCharger(ch2);
+        ChargingEvent event1 = new ChargingEvent(station, null, 20, "fast");
+        ChargingEvent event2 = new ChargingEvent(station, null, 20, "fast");
+
+        assertSame(station.assignCharger(event1), ch1);
+        assertSame(station.assignCharger(event2), ch2);
+        assertNull(station.assignCharger(new ChargingEvent(station, null, 20, "fast")));
+        assertNull(station.assignCharger(new ChargingEvent(station, null, 20, "slow")));
+
+        ch2.setChargingEvent(null);
+        assertSame(station.assignCharger(new ChargingEvent(station, null, 20, "FAST")), ch2);
+        station.deleteCharger(ch1);
+        ch1.setChargingEvent(null);
+        assertNull(station.assignCharger(new ChargingEvent(station, null, 20, "fast")));
+    }
+
+    @Test
+    void assignParkingSlot() {
+        ParkingSlot slot1 = new ParkingSlot(station);
+        ParkingSlot slot2 = new ParkingSlot(station);
+        station.addParkingSlot(slot1);
+        station.addParkingSlot(slot2);
+        slot2.setInSwitch(false);
+
+        assertSame(station.assignParkingSlot(new ParkingEvent(station, null, 1000)), slot2);
+        assertSame(station.assignParkingSlot(new ParkingEvent(station, null, 1000, 10)), slot1);
+        assertNull(station.assignParkingSlot(new ParkingEvent(station, null, 1000, 10)));
+
+        slot2.setParkingEvent(null);
+        assertNull(station.assignParkingSlot(new ParkingEvent(station, null, 1000, 10)));
+        slot2.setInSwitch(true);
+        assertSame(station.assignParkingSlot(new ParkingEvent(station, null, 1000, 10)), slot2);
+    }
+}
@@ -34,7 +34,7 @@ class ParkingSlotTest {
         Thread.sleep(16000);
 
         assertEquals("finished", event.getCondition());
-        assertTrue(ParkingEvent.getParkLog().contains(event));
+        assertTrue(station.getParkingHistory().contains(event));
         assertNull(slot.getParkingEvent());
         assertEquals(driver.getDebt(), 200);
         assertEquals(battery.getRemAmount(), 170);
@@ -0,0 +1,136 @@
+package evlib.station;
+
+import evlib.ev.Battery;
+import evlib.ev.Driver;
+import evlib.ev.ElectricVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedSimulationTest {
+    private static final int STATIONS = 8;
+
+    private ChargingStation createStation(final String name) {
+        ChargingStation station = new ChargingStation(name);
+        station.setSpecificAmount("Discharging", 1500);
+        station.setChargingRateSlow(800);
+        return station;
+    }
+
+    private void charge(final ChargingStation station) {
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        ChargingEvent event = new ChargingEvent(station, vehicle, 20, "slow");
+        event.setWaitingTime(2000000);
+        event.preProcessing();
+        event.execution();
+    }
+
+    private void arrive(final PartitionedSimulation simulation, final ChargingStation[] stations,
+                        final List<List<Long>> arrivals, final int current, final int hops) {
+        ChargingStation station = stations[current];
+        arrivals.get(current).add(station.currentTime());
+        charge(station);
+        if (hops == 0)
+            return;
+        int next = (current * 3 + 1) % STATIONS;
+        long travel = 100000 + (current * 7 % 5) * 1000 + hops * 13;
+        simulation.transfer(station, stations[next], travel, () -> arrive(simulation, stations, arrivals, next, hops - 1));
+    }
+
+    private List<List<Long>> simulate(final int partitions, final long[] counters) {
+        PartitionedSimulation simulation = new PartitionedSimulation(0, partitions, 100000);
+        ChargingStation[] stations = new ChargingStation[STATIONS];
+        List<List<Long>> arrivals = new ArrayList<>();
+        for (int i = 0; i < STATIONS; i++) {
+            stations[i] = createStation("Station" + i);
+            stations[i].addCharger(new Charger(stations[i], "slow"));
+            simulation.addStation(stations[i]);
+            arrivals.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        for (int v = 0; v < 20; v++) {
+            final int first = v % STATIONS;
+            final int hops = 3 + v % 4;
+            simulation.transfer(stations[first], stations[first], v * 1000, () -> arrive(simulation, stations, arrivals, first, hops));
+        }
+        simulation.run();
+        for (List<Long> list : arrivals)
+            Collections.sort(list);
+        long finished = 0;
+        for (ChargingStation station : stations)
+            finished += station.getEventCount("slow", "finished");
+        counters[0] = finished;
+        counters[1] = simulation.getTransfers();
+        counters[2] = simulation.getWindows();
+        return arrivals;
+    }
+
+    @Test
+    void addStation() {
+        PartitionedSimulation simulation = new PartitionedSimulation(0, 4, 1000);
+        for (int i = 0; i < 8; i++) {
+            ChargingStation station = createStation("Station" + i);
+            assertEquals(i % 4, simulation.addStation(station));
+            assertSame(simulation.getSimulation(i % 4), station.getSimulation());
+            assertEquals(i % 4, simulation.getPartition(station));
+        }
+        ChargingStation rome = createStation("Rome");
+        assertEquals(-1, simulation.getPartition(rome));
+        simulation.addStation(rome, 2);
+        assertEquals(2, simulation.getPartition(rome));
+        assertEquals(0, simulation.addStation(createStation("Paris")));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedSimulation(0, 0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedSimulation(0, 2, 0));
+    }
+
+    @Test
+    void transfer() {
+        PartitionedSimulation simulation = new PartitionedSimulation(0, 2, 1000);
+        ChargingStation miami = createStation("Miami");
+        ChargingStation paris = createStation("Paris");
+        ChargingStation rome = createStation("Rome");
+        simulation.addStation(miami, 0);
+        simulation.addStation(paris, 1);
+        simulation.addStation(rome, 0);
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+
+        assertThrows(IllegalArgumentException.class, () -> simulation.transfer(miami, paris, 999, () -> {}));
+        assertThrows(IllegalArgumentException.class, () -> simulation.transfer(miami, createStation("Nowhere"), 5000, () -> {}));
+        simulation.transfer(miami, rome, 10, () -> log.add("rome " + rome.currentTime()));
+        simulation.transfer(miami, paris, 1500, () -> {
+            log.add("paris " + paris.currentTime());
+            simulation.transfer(paris, miami, 2000, () -> log.add("miami " + miami.currentTime()));
+        });
+
+        assertEquals(1, simulation.runUntil(1499));
+        assertEquals(1499, simulation.getTime());
+        assertEquals(1499, miami.currentTime());
+        assertEquals(1499, paris.currentTime());
+        assertEquals(2, simulation.advance(10000));
+        assertEquals(11499, simulation.getTime());
+        assertEquals(3, log.size());
+        assertEquals("rome 10", log.get(0));
+        assertEquals("paris 1500", log.get(1));
+        assertEquals("miami 3500", log.get(2));
+        assertEquals(2, simulation.getTransfers());
+    }
+
+    @Test
+    void matchesSinglePartition() {
+        long[] single = new long[3];
+        long[] parallel = new long[3];
+        List<List<Long>> expected = simulate(1, single);
+        List<List<Long>> actual = simulate(4, parallel);
+        assertEquals(expected, actual);
+        assertEquals(single[0], parallel[0]);
+        assertTrue(single[0] > 0);
+        assertEquals(0, single[1]);
+        assertTrue(parallel[1] > 0);
+        assertTrue(parallel[2] > 0);
+    }
+}
@@ -0,0 +1,153 @@
+package evlib.station;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanParserTest {
+    private String error(final String plan) {
+        PlanException ex = assertThrows(PlanException.class, () -> {
+            try (PlanParser parser = new PlanParser(new StringReader(plan))) {
+                PlanRecord record;
+                while ((record = parser.nextRecord()) != null)
+                    if (record == PlanRecord.DE)
+                        while (parser.nextStep() != null)
+                            ;
+            }
+        });
+        return ex.getMessage();
+    }
+
+    private File write(final String plan) throws IOException {
+        File file = File.createTempFile("plan", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), Collections.singletonList(plan), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    void parse() throws IOException {
+        PlanParser parser = new PlanParser(new StringReader("ev,10.5\r\n\n ev , 20\nde,ch,1,1000,int,500,ch,2,2000\nde,ch,2,1500"));
+        assertEquals(PlanRecord.EV, parser.nextRecord());
+        assertEquals(10.5, parser.getEnergy());
+        assertEquals(1, parser.getLine());
+        assertEquals(PlanRecord.EV, parser.nextRecord());
+        assertEquals(20, parser.getEnergy());
+        assertEquals(3, parser.getLine());
+        assertEquals(2, parser.getEvents());
+
+        assertEquals(PlanRecord.DE, parser.nextRecord());
+        assertEquals(PlanRecord.CH, parser.nextStep());
+        assertEquals(1, parser.getEvent());
+        assertEquals(1000, parser.getTime());
+        assertEquals(PlanRecord.INT, parser.nextStep());
+        assertEquals(500, parser.getTime());
+        assertEquals(PlanRecord.CH, parser.nextStep());
+        assertEquals(2, parser.getEvent());
+        assertEquals(2000, parser.getTime());
+        assertNull(parser.nextStep());
+
+        assertEquals(PlanRecord.DE, parser.nextRecord());
+        assertEquals(5, parser.getLine());
+        assertNull(parser.nextRecord());
+        assertNull(parser.nextStep());
+        parser.close();
+    }
+
+    @Test
+    void errors() {
+        assertEquals("line 2: unknown record \"xv\"", error("ev,10\nxv,10"));
+        assertEquals("line 1: invalid energy \"ten\"", error("ev,ten"));
+        assertEquals("line 1: missing energy", error("ev"));
+        assertEquals("line 1: invalid energy -5.0", error("ev,-5"));
+        assertEquals("line 1: too many fields in an ev record", error("ev,5,6"));
+        assertEquals("line 2: de record without steps", error("ev,5\nde"));
+        assertEquals("line 2: step 2 refers to event 3, which is not defined in a previous line", error("ev,5\nde,ch,1,10,ch,3,10\nev,5\nev,5"));
+        assertEquals("line 2: step 1 refers to event 0, which is not defined in a previous line", error("ev,5\nde,ch,0,10"));
+        assertEquals("line 2: missing time", error("ev,5\nde,ch,1"));
+        assertEquals("line 1: negative time in step 1", error("de,int,-10"));
+        assertEquals("line 1: unknown step \"xh\"", error("de,xh,1,10"));
+        assertEquals("line 1: unknown step \"\"", error("de,int,10,"));
+        StringBuilder longField = new StringBuilder("ev,");
+        for (int i = 0; i < 100; i++)
+            longField.append('1');
+        assertEquals("line 1: field is too long", error(longField.toString()));
+    }
+
+    @Test
+    void execEvents() throws IOException {
+        ChargingStation station = new ChargingStation("Miami");
+        Simulation simulation = new Simulation(0);
+        station.setSimulation(simulation);
+        station.setSpecificAmount("Discharging", 1500);
+        station.addCharger(new Charger(station, "slow"));
+        station.addCharger(new Charger(station, "slow"));
+
+        File broken = write("ev,10\nev,20\nde,ch,1,1000\nde,ch,2,1500\nde,int,100");
+        PlanException ex = assertThrows(PlanException.class, () -> station.checkPlan(broken.getPath()));
+        assertEquals(5, ex.getLine());
+        ex = assertThrows(PlanException.class, () -> station.execEvents(broken.getPath()));
+        assertEquals(5, ex.getLine());
+        assertFalse(station.execEvents);
+        assertTrue(station.events.isEmpty());
+        assertNull(station.getChargers()[0].getChargingEvent());
+        assertNull(station.getChargers()[1].getChargingEvent());
+        assertThrows(FileNotFoundException.class, () -> station.execEvents(broken.getPath() + ".missing"));
+        assertFalse(station.execEvents);
+
+        File plan = write("ev,10\nev,20\nev,5\nde,ch,1,1000,int,500,ch,1,2000\nde,ch,2,1500");
+        station.checkPlan(plan.getPath());
+        station.execEvents(plan.getPath());
+        assertTrue(station.execEvents);
+        assertEquals(2, station.events.size());
+        assertEquals(1470, station.getTotalEnergy());
+        assertEquals(2500, station.getChargers()[0].planLeft);
+        assertEquals(0, station.getChargers()[1].planLeft);
+        ChargingEvent first = station.events.get(1);
+        ChargingEvent second = station.events.get(2);
+        assertEquals(2, first.planSteps.get());
+        assertEquals(1, second.planSteps.get());
+        simulation.run();
+        assertEquals(3500, simulation.getTime());
+        assertEquals("finished", first.getCondition());
+        assertEquals("finished", second.getCondition());
+        assertFalse(station.execEvents);
+        assertTrue(station.events.isEmpty());
+        assertNull(station.getChargers()[0].plan);
+        assertNull(station.getChargers()[1].plan);
+    }
+
+    @Test
+    void lazySteps() throws IOException {
+        ChargingStation station = new ChargingStation("Miami");
+        Simulation simulation = new Simulation(0);
+        station.setSimulation(simulation);
+        station.setSpecificAmount("Discharging", 1500);
+        station.addCharger(new Charger(station, "slow"));
+
+        File plan = write("ev,10\n\nev,20\nev,5\nde, int,500 ,ch,2,1000,ch,3,2000");
+        station.execEvents(plan.getPath());
+        assertTrue(station.events.isEmpty());
+        assertEquals(1475, station.getTotalEnergy());
+        simulation.advance(1000);
+        assertEquals(1, station.events.size());
+        ChargingEvent second = station.events.get(2);
+        assertEquals(1, second.planSteps.get());
+        simulation.advance(1000);
+        assertEquals("finished", second.getCondition());
+        assertNull(station.events.get(2));
+        assertNotNull(station.events.get(3));
+        simulation.run();
+        assertEquals(3500, simulation.getTime());
+        assertFalse(station.execEvents);
+        assertTrue(station.events.isEmpty());
+    }
+}
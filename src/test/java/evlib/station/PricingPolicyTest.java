@@ -59,4 +59,23 @@ class PricingPolicyTest {
         assertEquals(policy2.getDurationOfPolicy(), 42300);
     }
 
+    @Test
+    void getPriceAt() {
+        assertEquals(policy1.getPriceAt(0), 12);
+        assertEquals(policy1.getPriceAt(999), 12);
+        assertEquals(policy1.getPriceAt(5500), 65);
+        assertEquals(policy1.getPriceAt(7000), 0);
+
+        assertEquals(policy2.getPriceAt(999), 12);
+        assertEquals(policy2.getPriceAt(1000), 46);
+        assertEquals(policy2.getPriceAt(10000), 41);
+        assertEquals(policy2.getPriceAt(42299), 25);
+        assertEquals(policy2.getPriceAt(42300), 0);
+
+        policy2.setSpecificSpacePrice(0, 2000, 10);
+        assertEquals(policy2.getPriceAt(1500), 10);
+        assertEquals(policy2.getDurationOfPolicy(), 43300);
+        policy1.setTimeSpace(2000);
+        assertEquals(policy1.getPriceAt(3000), 46);
+    }
 }
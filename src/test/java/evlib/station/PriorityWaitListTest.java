@@ -0,0 +1,74 @@
+package evlib.station;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityWaitListTest {
+    private ChargingStation station = new ChargingStation("Miami");
+    private PriorityWaitList<ChargingEvent> list = new PriorityWaitList<>(ChargingEvent::getAmountOfEnergy);
+    private ChargingEvent event = new ChargingEvent(station, null, 30, "slow");
+    private ChargingEvent event1 = new ChargingEvent(station, null, 10, "slow");
+    private ChargingEvent event2 = new ChargingEvent(station, null, 30, "slow");
+
+    @Test
+    void moveFirst() {
+        list.add(event);
+        list.add(event1);
+        list.add(event2);
+        assertEquals(list.getSize(), 3);
+        assertEquals(list.takeFirst(), event1);
+        assertEquals(list.get(1), event);
+        assertEquals(list.get(2), event2);
+        assertEquals(list.snapshot().get(2), event2);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+        assertEquals(list.moveFirst(), event1);
+        assertEquals(list.moveFirst(), event);
+        assertTrue(list.delete(event2));
+        assertFalse(list.delete(event2));
+        assertNull(list.moveFirst());
+    }
+
+    @Test
+    void setQueueOrder() {
+        station.setClock(new ManualClock(0));
+        event.setWaitingTime(5000);
+        event1.setWaitingTime(9000);
+        event2.setWaitingTime(1000);
+        station.updateQueue(event);
+        station.updateQueue(event1);
+
+        station.setQueueOrder("shortest");
+        assertEquals(station.getQueueOrder(), QueueOrder.SHORTEST);
+        assertEquals(station.getSlow().getSize(), 2);
+        assertEquals(station.getSlow().takeFirst(), event1);
+
+        station.setQueueOrder(QueueOrder.DEADLINE);
+        station.updateQueue(event2);
+        assertEquals(station.getSlow().moveFirst(), event2);
+        assertEquals(station.getSlow().moveFirst(), event);
+        assertEquals(station.getSlow().moveFirst(), event1);
+
+        assertThrows(IllegalArgumentException.class, () -> station.setQueueOrder("random"));
+        assertEquals(station.getQueueOrder(), QueueOrder.DEADLINE);
+        station.setQueueOrder("fifo");
+        assertFalse(station.getSlow() instanceof PriorityWaitList);
+    }
+
+    @Test
+    void deadlineKeepsArrival() {
+        ManualClock clock = new ManualClock(0);
+        station.setClock(clock);
+        event.setWaitingTime(5000);
+        event1.setWaitingTime(3000);
+        station.updateQueue(event);
+        clock.setTime(4000);
+        station.updateQueue(event1);
+        assertEquals(0, event.getQueuedTime());
+        assertEquals(4000, event1.getQueuedTime());
+
+        station.setQueueOrder(QueueOrder.DEADLINE);
+        assertEquals(station.getSlow().moveFirst(), event);
+        assertEquals(station.getSlow().moveFirst(), event1);
+    }
+}
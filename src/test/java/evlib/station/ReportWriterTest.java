@@ -0,0 +1,76 @@
+package evlib.station;
+
+import evlib.sources.Solar;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportWriterTest {
+    private ChargingStation station = new ChargingStation("Miami");
+
+    @Test
+    void line() throws IOException {
+        File file = File.createTempFile("report", ".txt");
+        file.deleteOnExit();
+        try (ReportWriter out = new ReportWriter(file.getPath())) {
+            out.line("Id: ", 5);
+            out.line("Cost: ", 2.5);
+            out.line("Name: ", "Miami");
+            StringBuilder longLine = new StringBuilder();
+            for (int i = 0; i < 100; i++)
+                longLine.append("abc");
+            out.line(longLine.toString());
+        }
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(lines.size(), 4);
+        assertEquals(lines.get(0), "Id: 5");
+        assertEquals(lines.get(1), "Cost: 2.5");
+        assertEquals(lines.get(2), "Name: Miami");
+        assertEquals(lines.get(3).length(), 300);
+    }
+
+    @Test
+    void append() throws IOException {
+        File file = File.createTempFile("report", ".txt");
+        file.deleteOnExit();
+        long[] times = {0, 1500000000123L, 4102444799000L};
+        try (ReportWriter out = new ReportWriter(file.getPath())) {
+            out.append("Solar, ").append(2.5).append(", ").append(7).endLine();
+            for (long time : times)
+                out.appendTime(time).endLine();
+        }
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(lines.get(0), "Solar, 2.5, 7");
+        SimpleDateFormat format = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss");
+        for (int i = 0; i < times.length; i++)
+            assertEquals(lines.get(i + 1), format.format(new Date(times[i])));
+    }
+
+    @Test
+    void genReport() throws IOException {
+        File file = File.createTempFile("report", ".txt");
+        file.deleteOnExit();
+        ChargingEvent event = new ChargingEvent(station, null, 20, "slow");
+        event.setCondition("finished");
+        station.addEnergySource(new Solar(new double[]{150}));
+        station.updateStorage();
+        station.genReport(file.getPath());
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(lines.get(3), "Name: Miami");
+        assertTrue(lines.contains("Completed slow chargings: 1"));
+        assertTrue(lines.contains("Asking energy: 20.0"));
+        assertTrue(lines.stream().anyMatch(l -> l.startsWith("Solar, 150.0, ")));
+        assertEquals(lines.get(lines.size() - 1), "********************");
+
+        assertThrows(IOException.class, () -> station.genReport(file.getPath() + File.separator + "report.txt"));
+    }
+}
@@ -0,0 +1,82 @@
+package evlib.station;
+
+import evlib.ev.Battery;
+import evlib.ev.Driver;
+import evlib.ev.ElectricVehicle;
+import evlib.sources.Solar;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationTest {
+    private ChargingStation station = new ChargingStation("Miami");
+    private Simulation simulation = new Simulation(0);
+    private Solar solar = new Solar();
+    private Charger charger = new Charger(station, "slow");
+
+    private ChargingEvent createEvent(final double energy) {
+        Driver driver = new Driver("Petros");
+        Battery battery = new Battery(150, 500);
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(driver);
+        vehicle.setBattery(battery);
+        ChargingEvent event = new ChargingEvent(station, vehicle, energy, "slow");
+        event.setWaitingTime(2000000);
+        return event;
+    }
+
+    @Test
+    void run() {
+        station.setSimulation(simulation);
+        station.addEnergySource(solar);
+        solar.insertAmount(1500);
+        station.addCharger(charger);
+        station.updateStorage();
+        station.setUnitPrice(100);
+        station.setChargingRateSlow(800);
+
+        ChargingEvent event1 = createEvent(20);
+        event1.preProcessing();
+        event1.execution();
+        ChargingEvent event2 = createEvent(20);
+        event2.preProcessing();
+        event2.execution();
+
+        assertEquals(event1.getCondition(), "charging");
+        assertEquals(event2.getCondition(), "wait");
+        assertEquals(simulation.getPending(), 1);
+
+        simulation.advance(30000);
+        assertEquals(event1.getRemainingChargingTime(), 60000);
+
+        assertEquals(simulation.run(), 2);
+        assertEquals(simulation.getTime(), 180000);
+        assertEquals(event1.getCondition(), "finished");
+        assertEquals(event2.getCondition(), "finished");
+        assertEquals(event2.getElectricVehicle().getBattery().getRemAmount(), 170);
+        assertEquals(event2.getElectricVehicle().getDriver().getDebt(), 2000);
+        assertNull(charger.getChargingEvent());
+    }
+
+    @Test
+    void runUntil() {
+        station.setSimulation(simulation);
+        station.setTimeofExchange(5000);
+        ExchangeHandler handler = new ExchangeHandler(station);
+        station.addExchangeHandler(handler);
+        station.joinBattery(new Battery(1500, 1500));
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        ChargingEvent event = new ChargingEvent(station, vehicle);
+        event.preProcessing();
+        event.execution();
+
+        assertEquals(simulation.runUntil(4999), 0);
+        assertEquals(event.getCondition(), "swapping");
+        assertEquals(simulation.runUntil(5000), 1);
+        assertEquals(event.getCondition(), "finished");
+        assertEquals(vehicle.getBattery().getRemAmount(), 1500);
+        assertFalse(simulation.step());
+    }
+}
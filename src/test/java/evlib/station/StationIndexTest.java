@@ -0,0 +1,125 @@
+package evlib.station;
+
+import evlib.ev.Battery;
+import evlib.ev.Driver;
+import evlib.ev.ElectricVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationIndexTest {
+    private Simulation simulation = new Simulation(0);
+
+    private ChargingStation createStation(final String name, final double x, final double y, final int chargers) {
+        ChargingStation station = new ChargingStation(name);
+        station.setSimulation(simulation);
+        for (int i = 0; i < chargers; i++)
+            station.addCharger(new Charger(station, "slow"));
+        station.setSpecificAmount("Discharging", 1500);
+        station.setChargingRateSlow(800);
+        station.setLocation(x, y);
+        return station;
+    }
+
+    @Test
+    void getNearest() {
+        ChargingStation miami = createStation("Miami", 0, 0, 1);
+        ChargingStation paris = createStation("Paris", 3, 4, 1);
+        ChargingStation rome = createStation("Rome", -12, 1, 1);
+        StationIndex index = new StationIndex(2);
+        index.add(miami);
+        index.add(paris);
+        index.add(rome);
+        assertEquals(3, index.getSize());
+
+        assertEquals(Arrays.asList(miami, paris), index.getNearest(1, 1, 2));
+        assertEquals(Arrays.asList(rome, miami, paris), index.getNearest(-10, 0, 5));
+        assertEquals(Arrays.asList(paris), index.getNearest(30, 30, 1));
+        assertTrue(index.getNearest(0, 0, 0).isEmpty());
+
+        paris.setLocation(-11, 0);
+        index.update(paris);
+        assertEquals(Arrays.asList(paris, rome), index.getNearest(-10, 0, 2));
+
+        assertTrue(index.remove(rome));
+        assertFalse(index.remove(rome));
+        assertEquals(Arrays.asList(paris, miami), index.getNearest(-10, 0, 5));
+
+        ChargingStation nowhere = new ChargingStation("Nowhere");
+        assertFalse(nowhere.hasLocation());
+        assertThrows(IllegalArgumentException.class, () -> index.add(nowhere));
+    }
+
+    @Test
+    void getNearestWithWaitingTime() {
+        ChargingStation miami = createStation("Miami", 0, 0, 1);
+        ChargingStation paris = createStation("Paris", 10, 0, 1);
+        ChargingStation rome = createStation("Rome", 1, 0, 0);
+        StationIndex index = new StationIndex(5);
+        index.add(miami);
+        index.add(paris);
+        index.add(rome);
+
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        ChargingEvent event = new ChargingEvent(miami, vehicle, 200, "slow");
+        event.setWaitingTime(2000000);
+        event.preProcessing();
+        event.execution();
+        assertEquals(900000, miami.getWaitingTime("slow"));
+
+        // At 60 km/h Paris is 600000 ms away, Miami is busy for 900000 ms and Rome has no chargers.
+        assertEquals(Arrays.asList(paris, miami), index.getNearest(0, 0, 5, "slow", 60));
+        assertEquals(Arrays.asList(miami, paris), index.getNearest(0, 0, 5, "slow", 20));
+        assertEquals(Arrays.asList(miami, paris), index.getNearest(0, 0, 5, "slow", 0.001));
+        assertThrows(IllegalArgumentException.class, () -> index.getNearest(0, 0, 1, "slow", 0));
+        assertThrows(IllegalArgumentException.class, () -> index.getNearest(0, 0, 1, "slw", 60));
+        assertTrue(index.getNearest(0, 0, 5, "fast", 60).isEmpty());
+    }
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(7);
+        StationIndex index = new StationIndex(3);
+        List<ChargingStation> stations = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ChargingStation station = createStation("Station" + i, random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, 0);
+            stations.add(station);
+            index.add(station);
+        }
+        for (int q = 0; q < 50; q++) {
+            double x = random.nextDouble() * 160 - 80;
+            double y = random.nextDouble() * 160 - 80;
+            List<ChargingStation> expected = new ArrayList<>(stations);
+            expected.sort(Comparator.comparingDouble(s -> Math.hypot(s.getLocationX() - x, s.getLocationY() - y)));
+            assertEquals(expected.subList(0, 7), index.getNearest(x, y, 7));
+        }
+    }
+
+    @Test
+    void sparseCells() {
+        Random random = new Random(11);
+        StationIndex index = new StationIndex(0.01);
+        List<ChargingStation> stations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ChargingStation station = createStation("Station" + i, random.nextDouble() * 1000, random.nextDouble() * 1000, 0);
+            stations.add(station);
+            index.add(station);
+        }
+        for (int q = 0; q < 10; q++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            List<ChargingStation> expected = new ArrayList<>(stations);
+            expected.sort(Comparator.comparingDouble(s -> Math.hypot(s.getLocationX() - x, s.getLocationY() - y)));
+            assertEquals(expected, index.getNearest(x, y, 50));
+            assertEquals(expected.subList(0, 3), index.getNearest(x, y, 3));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package evlib.station;
+
+import evlib.ev.Battery;
+import evlib.ev.Driver;
+import evlib.ev.ElectricVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationNetworkTest {
+    private Simulation simulation = new Simulation(0);
+
+    private ChargingStation createStation(final String name, final int chargers) {
+        ChargingStation station = new ChargingStation(name);
+        station.setSimulation(simulation);
+        for (int i = 0; i < chargers; i++)
+            station.addCharger(new Charger(station, "slow"));
+        station.setSpecificAmount("Discharging", 1500);
+        station.setChargingRateSlow(800);
+        return station;
+    }
+
+    private void charge(final ChargingStation station, final double energy) {
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        ChargingEvent event = new ChargingEvent(station, vehicle, energy, "slow");
+        event.setWaitingTime(2000000);
+        event.preProcessing();
+        event.execution();
+    }
+
+    @Test
+    void getBestStation() {
+        ChargingStation miami = createStation("Miami", 1);
+        ChargingStation paris = createStation("Paris", 1);
+        ChargingStation rome = createStation("Rome", 0);
+        StationNetwork network = new StationNetwork();
+        network.addStation(miami);
+        network.addStation(paris);
+        network.addStation(rome);
+
+        charge(miami, 20);
+        assertEquals(paris, network.getBestStation("slow"));
+        charge(paris, 40);
+        assertEquals(miami, network.getBestStation("slow"));
+        assertEquals(90000, network.getWaitingTime(miami, "slow"));
+        assertEquals(-1, network.getWaitingTime(rome, "slow"));
+        assertEquals(Arrays.asList(miami, paris), network.getBestStations("slow", 5));
+
+        charge(miami, 80);
+        assertEquals(paris, network.getBestStation("slow"));
+        assertEquals(miami.getWaitingTime("slow"), network.getWaitingTime(miami, "slow"));
+
+        simulation.advance(100000);
+        assertEquals(350000, network.getWaitingTime(miami, "slow"));
+        assertEquals(80000, network.getWaitingTime(paris, "slow"));
+
+        assertTrue(network.removeStation(paris));
+        assertEquals(miami, network.getBestStation("slow"));
+        assertNull(network.getBestStation("fast"));
+        assertThrows(IllegalArgumentException.class, () -> network.getBestStation("parking"));
+    }
+
+    @Test
+    void sameId() {
+        ChargingStation miami = createStation("Miami", 1);
+        ChargingStation paris = createStation("Paris", 1);
+        miami.setId(7);
+        paris.setId(7);
+        StationNetwork network = new StationNetwork();
+        network.addStation(miami);
+        network.addStation(paris);
+        assertEquals(Arrays.asList(miami, paris), network.getBestStations("slow", 5));
+        assertEquals(0, network.getWaitingTime(paris, "slow"));
+
+        miami.setId(3);
+        charge(miami, 20);
+        assertEquals(Arrays.asList(paris, miami), network.getBestStations("slow", 5));
+        assertTrue(network.removeStation(miami));
+        assertEquals(Arrays.asList(paris), network.getBestStations("slow", 5));
+    }
+}
@@ -0,0 +1,68 @@
+package evlib.station;
+
+import evlib.sources.Solar;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageUpdateSchedulerTest {
+
+    @Test
+    void sharedTicks() throws InterruptedException {
+        StorageUpdateScheduler scheduler = new StorageUpdateScheduler(1);
+        ChargingStation first = new ChargingStation("Miami");
+        ChargingStation second = new ChargingStation("Paris");
+        ChargingStation broken = new ChargingStation("Rome") {
+            @Override
+            public void updateStorage() {
+                throw new StackOverflowError("broken");
+            }
+        };
+        first.addEnergySource(new Solar(new double[]{10, 10, 10, 10, 10, 10, 10, 10, 10, 10}));
+        second.addEnergySource(new Solar(new double[]{5, 5, 5, 5, 5, 5, 5, 5, 5, 5}));
+        for (ChargingStation station : new ChargingStation[]{broken, first, second}) {
+            station.setStorageUpdateScheduler(scheduler);
+            station.setAutomaticUpdateMode(true);
+            station.setUpdateSpace(50);
+        }
+        assertEquals(3, scheduler.getStations());
+        assertEquals(1, scheduler.getPeriods());
+
+        Thread.sleep(300);
+        assertTrue(scheduler.getTicks() >= 3);
+        long ticks = scheduler.getTicks();
+        Thread.sleep(120);
+        assertTrue(scheduler.getTicks() > ticks);
+        assertTrue(first.getTotalEnergy() >= 30);
+        assertTrue(second.getTotalEnergy() >= 15);
+        assertTrue(scheduler.getMaxJitter() >= 0);
+        assertTrue(scheduler.getFailures() >= 3);
+
+        first.setAutomaticUpdateMode(false);
+        assertFalse(scheduler.isRegistered(first));
+        Thread.sleep(20);
+        double energy = first.getTotalEnergy();
+        Thread.sleep(120);
+        assertEquals(energy, first.getTotalEnergy());
+
+        second.setAutomaticUpdateMode(false);
+        broken.setAutomaticUpdateMode(false);
+        assertEquals(0, scheduler.getPeriods());
+        scheduler.shutdown();
+    }
+
+    @Test
+    void scaledClock() throws InterruptedException {
+        StorageUpdateScheduler scheduler = new StorageUpdateScheduler(1);
+        ChargingStation station = new ChargingStation("Miami");
+        station.addEnergySource(new Solar(new double[]{10, 10, 10, 10, 10, 10, 10, 10, 10, 10}));
+        station.setStorageUpdateScheduler(scheduler);
+        station.setAutomaticUpdateMode(true);
+        station.setUpdateSpace(5000);
+        station.setClock(new ScaledClock(0, 50));
+        assertTrue(scheduler.isRegistered(station));
+        Thread.sleep(450);
+        assertTrue(station.getTotalEnergy() >= 30);
+        scheduler.shutdown();
+    }
+}
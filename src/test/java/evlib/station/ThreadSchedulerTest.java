@@ -0,0 +1,82 @@
+package evlib.station;
+
+import evlib.ev.Battery;
+import evlib.ev.Driver;
+import evlib.ev.ElectricVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadSchedulerTest {
+    private ChargingStation station = new ChargingStation("Miami");
+
+    @Test
+    void schedule() throws InterruptedException {
+        ThreadScheduler scheduler = new ThreadScheduler(station, true);
+        assertEquals(scheduler.isVirtual(), ThreadScheduler.isVirtualSupported());
+        CountDownLatch latch = new CountDownLatch(1);
+        StringBuffer name = new StringBuffer();
+        scheduler.schedule("Charger1", 10, () -> {
+            name.append(Thread.currentThread().getName());
+            latch.countDown();
+        }, null);
+
+        assertTrue(latch.await(2000, TimeUnit.MILLISECONDS));
+        assertEquals(name.toString(), "Charger1");
+    }
+
+    @Test
+    void interruption() throws InterruptedException {
+        ThreadScheduler scheduler = new ThreadScheduler(station);
+        CountDownLatch latch = new CountDownLatch(1);
+        scheduler.schedule("Charger2", 100000, () -> { }, latch::countDown);
+        for (Thread t : Thread.getAllStackTraces().keySet())
+            if (t.getName().equals("Charger2"))
+                t.interrupt();
+
+        assertTrue(latch.await(2000, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void failure() throws InterruptedException {
+        ThreadScheduler scheduler = new ThreadScheduler(station);
+        CountDownLatch latch = new CountDownLatch(1);
+        StringBuffer reported = new StringBuffer();
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((t, ex) -> reported.append(t.getName()).append(": ").append(ex.getMessage()));
+        try {
+            scheduler.schedule("Charger3", 10, () -> {
+                throw new IllegalStateException("broken");
+            }, latch::countDown);
+            assertTrue(latch.await(2000, TimeUnit.MILLISECONDS));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+        assertEquals("Charger3: broken", reported.toString());
+    }
+
+    @Test
+    void setVirtualThreads() throws InterruptedException {
+        station.setVirtualThreads(true);
+        assertEquals(station.getVirtualThreads(), ThreadScheduler.isVirtualSupported());
+        station.joinBattery(new Battery(1500, 1500));
+        station.addExchangeHandler(new ExchangeHandler(station));
+        station.setTimeofExchange(100);
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        ChargingEvent event = new ChargingEvent(station, vehicle);
+        event.preProcessing();
+        event.execution();
+
+        Thread.sleep(300);
+
+        assertEquals("finished", event.getCondition());
+
+        station.setVirtualThreads(false);
+        assertFalse(station.getVirtualThreads());
+    }
+}
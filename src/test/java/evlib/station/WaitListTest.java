@@ -2,7 +2,11 @@ package evlib.station;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class WaitListTest {
@@ -15,13 +19,18 @@ class WaitListTest {
     @Test
     void get() {
         list.add(event);
+        list.add(event1);
         assertEquals(list.get(0), event);
+        assertEquals(list.get(1), event1);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
     }
 
     @Test
     void add() {
         list.add(event);
         assertEquals(list.getSize(), 1);
+        assertThrows(NullPointerException.class, () -> list.add(null));
+        assertEquals(list.getSize(), 1);
     }
 
     @Test
@@ -48,6 +57,34 @@ class WaitListTest {
         list.add(event2);
         assertEquals(list.moveFirst(), event);
         assertEquals(list.getSize(), 2);
+        assertEquals(list.moveFirst(), event1);
+        assertEquals(list.moveFirst(), event2);
+        assertNull(list.moveFirst());
+        assertNull(list.takeFirst());
+        assertEquals(list.getSize(), 0);
+    }
+
+    @Test
+    void snapshot() throws InterruptedException {
+        list.add(event);
+        list.add(event1);
+        List<ChargingEvent> copy = list.snapshot();
+        list.moveFirst();
+        assertEquals(copy.size(), 2);
+        assertEquals(copy.get(0), event);
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++)
+                    list.add(event2);
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        assertEquals(list.getSize(), 4001);
+        assertEquals(list.snapshot().size(), 4001);
     }
 
 }
@@ -0,0 +1,82 @@
+package evlib.station;
+
+import evlib.ev.Battery;
+import evlib.ev.Driver;
+import evlib.ev.ElectricVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerPoolTest {
+    private ChargingStation station = new ChargingStation("Miami");
+    private WorkerPool pool = new WorkerPool(2, true);
+
+    @Test
+    void schedule() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(3);
+        StringBuffer threads = new StringBuffer();
+        for (int i = 0; i < 3; i++)
+            pool.schedule("Task" + i, 50, () -> {
+                threads.append(Thread.currentThread().getName()).append(",");
+                latch.countDown();
+            }, null);
+
+        assertTrue(latch.await(2000, TimeUnit.MILLISECONDS));
+        assertTrue(threads.toString().startsWith("WorkerPool" + pool.getId() + "-"));
+        pool.shutdown();
+    }
+
+    @Test
+    void executeExchange() throws InterruptedException {
+        station.setWorkerScheduler(pool);
+        station.joinBattery(new Battery(1500, 1500));
+        station.addExchangeHandler(new ExchangeHandler(station));
+        station.setTimeofExchange(100);
+        ElectricVehicle vehicle = new ElectricVehicle("Fiat");
+        vehicle.setDriver(new Driver("Petros"));
+        vehicle.setBattery(new Battery(150, 500));
+        ChargingEvent event = new ChargingEvent(station, vehicle);
+        event.preProcessing();
+        event.execution();
+
+        Thread.sleep(300);
+
+        assertEquals(station.getWorkerScheduler(), pool);
+        assertEquals("finished", event.getCondition());
+        assertEquals(vehicle.getBattery().getRemAmount(), 1500);
+        pool.shutdown();
+    }
+
+    @Test
+    void failures() throws InterruptedException {
+        StringBuffer reported = new StringBuffer();
+        WorkerPool failing = new WorkerPool(new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r);
+            t.setDaemon(true);
+            t.setUncaughtExceptionHandler((th, ex) -> reported.append(ex.getMessage()));
+            return t;
+        }));
+        CountDownLatch latch = new CountDownLatch(1);
+        failing.schedule("Task", 10, () -> {
+            throw new IllegalStateException("broken");
+        }, latch::countDown);
+
+        assertTrue(latch.await(2000, TimeUnit.MILLISECONDS));
+        assertEquals(1, failing.getFailures());
+        assertEquals("broken", reported.toString());
+
+        failing.shutdown();
+        CountDownLatch rejected = new CountDownLatch(1);
+        failing.schedule("Task", 10, () -> { }, rejected::countDown);
+        assertEquals(0, rejected.getCount());
+    }
+
+    @Test
+    void getShared() {
+        assertSame(WorkerPool.getShared(), WorkerPool.getShared());
+    }
+}